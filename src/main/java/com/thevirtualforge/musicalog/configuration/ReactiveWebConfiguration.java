@@ -0,0 +1,83 @@
+package com.thevirtualforge.musicalog.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.WebFilter;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.AwsRegionProvider;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+
+import java.net.URI;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfiguration implements WebFluxConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders;
+
+    public ReactiveWebConfiguration(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders) {
+        this.objectMapperBuilders = objectMapperBuilders;
+    }
+
+    // same settings as the servlet side S3Template, which the blocking S3Client cannot share
+    @Bean
+    public S3AsyncClient s3AsyncClient(
+        AwsCredentialsProvider credentialsProvider,
+        AwsRegionProvider regionProvider,
+        @Value("${spring.cloud.aws.s3.region:}") String region,
+        @Value("${spring.cloud.aws.s3.endpoint:}") String endpoint,
+        @Value("${spring.cloud.aws.s3.path-style-access-enabled:false}") boolean pathStyleAccessEnabled,
+        @Value("${image-store.max-connections:500}") int maxConnections) {
+
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
+            .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(maxConnections))
+            .credentialsProvider(credentialsProvider)
+            .region(region.isEmpty() ? regionProvider.getRegion() : Region.of(region))
+            .forcePathStyle(pathStyleAccessEnabled);
+        if (!endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    // same Vary: Accept as the servlet side's interceptor, added ahead of any 304 from checkNotModified
+    @Bean
+    public WebFilter varyByAcceptWebFilter() {
+        return (exchange, chain) -> {
+            String path = exchange.getRequest().getPath().pathWithinApplication().value();
+            if (HttpMethod.GET.equals(exchange.getRequest().getMethod())
+                && (path.equals("/api/albums") || path.startsWith("/api/albums/"))) {
+                exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        Jackson2ObjectMapperBuilder cbor = objectMapperBuilders.getObject().factory(new CBORFactory());
+        Jackson2ObjectMapperBuilder smile = objectMapperBuilders.getObject().factory(new SmileFactory());
+
+        configurer.customCodecs().register(new Jackson2CborEncoder(cbor.build()));
+        configurer.customCodecs().register(new Jackson2CborDecoder(cbor.build()));
+        configurer.customCodecs().register(new Jackson2SmileEncoder(smile.build()));
+        configurer.customCodecs().register(new Jackson2SmileDecoder(smile.build()));
+    }
+}
@@ -0,0 +1,26 @@
+package com.thevirtualforge.musicalog.configuration;
+
+import io.awspring.cloud.autoconfigure.core.AwsClientCustomizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+@Configuration
+public class S3Configuration {
+
+    // the SDK's default pool of 50 connections caps uploads at 50 in flight, whatever the request concurrency
+    @Bean
+    public AwsClientCustomizer<S3ClientBuilder> s3ClientCustomizer(
+        @Value("${image-store.max-connections:500}") int maxConnections) {
+
+        return new AwsClientCustomizer<>() {
+            @Override
+            public SdkHttpClient.Builder<?> httpClientBuilder() {
+                return ApacheHttpClient.builder().maxConnections(maxConnections);
+            }
+        };
+    }
+}
@@ -1,53 +1,329 @@
 package com.thevirtualforge.musicalog.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.thevirtualforge.musicalog.dto.AlbumBatchDTO;
+import com.thevirtualforge.musicalog.dto.AlbumBulkCreateDTO;
+import com.thevirtualforge.musicalog.dto.AlbumBulkPayloadDTO;
 import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
 import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumJsonPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
 import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockAdjustmentDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
 import com.thevirtualforge.musicalog.dto.ValidationErrorsDTO;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
 import com.thevirtualforge.musicalog.service.AlbumService;
 import com.thevirtualforge.musicalog.validation.group.Create;
 import com.thevirtualforge.musicalog.validation.group.Edit;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/albums")
 @RequiredArgsConstructor
 public class AlbumController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    private static final String FIELDS_PARAM = "fields";
+    private static final String IDS_PARAM = "ids";
+
     private final AlbumService albumService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${album-bulk.max-size:1000}")
+    private int maxBulkSize;
+
+    @InitBinder("albumBulkPayloadDTO")
+    void initBulkBinder(WebDataBinder binder) {
+        binder.setAutoGrowCollectionLimit(maxBulkSize + 1);
+    }
 
-    @Operation(summary = "Gets albums")
+    @Operation(summary = "Gets a page of albums")
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
+            headers = @Header(
+                name = NEXT_CURSOR_HEADER,
+                description = "Cursor for the next page, absent on the last page"),
             content = @Content(
                 mediaType = "application/json",
                 array = @ArraySchema(schema = @Schema(implementation = AlbumDTO.class)))
+        ),
+        @ApiResponse(
+            description = "Albums unchanged since the ETag in If-None-Match",
+            responseCode = "304"
+        ),
+        @ApiResponse(
+            description = "Invalid page request",
+            responseCode = "400",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
         )
     })
-    @GetMapping
-    public ResponseEntity<List<AlbumDTO>> getAlbums(@ModelAttribute AlbumFilterDTO filter) {
-        List<AlbumDTO> albums;
-        if (filter.getArtistName() != null || filter.getTitle() != null) {
-            albums = albumService.getMatchingAlbums(filter);
+    @GetMapping(params = "!" + IDS_PARAM)
+    public ResponseEntity<JsonFragments> getAlbums(
+        @Validated @ModelAttribute AlbumFilterDTO filter,
+        @Validated @ModelAttribute AlbumPageRequestDTO page,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields,
+        WebRequest request) {
+
+        Set<AlbumField> albumFields = AlbumField.fromParams(fields);
+
+        String eTag = AlbumETags.albums(albumService.getWriteGeneration(), request.getParameterMap());
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        AlbumJsonPageDTO albums;
+        if (filter.hasCriteria()) {
+            albums = albumService.getMatchingAlbumsJson(filter, page, albumFields);
         } else {
-            albums = albumService.getAllAlbums();
+            albums = albumService.getAllAlbumsJson(page, albumFields);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (albums.getNext() != null) {
+            response.header(NEXT_CURSOR_HEADER, albums.getNext());
+        }
+        return response.body(new JsonFragments(albums.getAlbums()));
+    }
+
+    @Operation(summary = "Gets a page of albums encoded as CBOR or Smile")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            headers = @Header(
+                name = NEXT_CURSOR_HEADER,
+                description = "Cursor for the next page, absent on the last page"),
+            content = {
+                @Content(
+                    mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = AlbumDTO.class))),
+                @Content(
+                    mediaType = APPLICATION_SMILE_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = AlbumDTO.class)))
+            }
+        ),
+        @ApiResponse(
+            description = "Albums unchanged since the ETag in If-None-Match",
+            responseCode = "304"
+        ),
+        @ApiResponse(
+            description = "Invalid page request",
+            responseCode = "400",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
+        )
+    })
+    @GetMapping(params = "!" + IDS_PARAM, produces = {MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<AlbumDTO>> getAlbumsInBinaryFormat(
+        @Validated @ModelAttribute AlbumFilterDTO filter,
+        @Validated @ModelAttribute AlbumPageRequestDTO page,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields,
+        WebRequest request) {
+
+        Set<AlbumField> albumFields = AlbumField.fromParams(fields);
+        MediaType format = AlbumFormats.negotiate(request, AlbumFormats.BINARY);
+
+        String eTag = AlbumETags.inFormat(
+            AlbumETags.albums(albumService.getWriteGeneration(), request.getParameterMap()), format);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        AlbumPageDTO albums;
+        if (filter.hasCriteria()) {
+            albums = albumService.getMatchingAlbums(filter, page, albumFields);
+        } else {
+            albums = albumService.getAllAlbums(page, albumFields);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(format);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (albums.getNext() != null) {
+            response.header(NEXT_CURSOR_HEADER, albums.getNext());
+        }
+        return response.body(albums.getAlbums());
+    }
+
+    @Operation(summary = "Gets the albums with the given ids in request order, listing ids that were not found")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AlbumBatchDTO.class))
+        ),
+        @ApiResponse(
+            description = "Too many ids",
+            responseCode = "400",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
+        )
+    })
+    @GetMapping(
+        params = {IDS_PARAM, "!stream"},
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<AlbumBatchDTO> getAlbumsByIds(
+        @RequestParam(name = IDS_PARAM) List<String> ids,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields) {
+
+        return ResponseEntity.ok(albumService.getAlbums(ids, AlbumField.fromParams(fields)));
+    }
+
+    @Operation(summary = "Streams all albums matching the filter as newline delimited JSON")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                schema = @Schema(implementation = AlbumDTO.class))
+        )
+    })
+    @GetMapping(params = "!" + IDS_PARAM, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAlbumsAsNdjson(
+        @Validated @ModelAttribute AlbumFilterDTO filter,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields) {
+
+        Set<AlbumField> albumFields = AlbumField.fromParams(fields);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(outputStream -> writeAlbums(filter, albumFields, outputStream, false));
+    }
+
+    @Operation(summary = "Streams all albums matching the filter as a chunked JSON array")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            content = @Content(
+                mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = AlbumDTO.class)))
+        )
+    })
+    @GetMapping(params = {"stream=true", "!" + IDS_PARAM}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAlbumsAsJsonArray(
+        @Validated @ModelAttribute AlbumFilterDTO filter,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields) {
+
+        Set<AlbumField> albumFields = AlbumField.fromParams(fields);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(outputStream -> writeAlbums(filter, albumFields, outputStream, true));
+    }
+
+    private void writeAlbums(AlbumFilterDTO filter, Set<AlbumField> fields, OutputStream outputStream, boolean asArray)
+        throws IOException {
+
+        ObjectWriter albumWriter = objectMapper.writerFor(AlbumDTO.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<AlbumDTO> albums = albumService.streamAlbums(filter, fields);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            if (asArray) {
+                generator.writeStartArray();
+            }
+
+            Iterator<AlbumDTO> iterator = albums.iterator();
+            while (iterator.hasNext()) {
+                albumWriter.writeValue(generator, iterator.next());
+                if (!asArray) {
+                    generator.writeRaw('\n');
+                }
+            }
+
+            if (asArray) {
+                generator.writeEndArray();
+            }
         }
-        return ResponseEntity.ok(albums);
+    }
+
+    @Operation(summary = "Gets album counts by type and top artist names for albums matching the filter")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AlbumFacetsDTO.class))
+        )
+    })
+    @GetMapping(path = "/facets")
+    public ResponseEntity<AlbumFacetsDTO> getAlbumFacets(@Validated @ModelAttribute AlbumFilterDTO filter) {
+        return ResponseEntity.ok(albumService.getAlbumFacets(filter));
+    }
+
+    @Operation(summary = "Suggests album titles and artist names starting with the query")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            content = @Content(
+                mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = AlbumSuggestionDTO.class)))
+        ),
+        @ApiResponse(
+            description = "Invalid suggestion request",
+            responseCode = "400",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
+        )
+    })
+    @GetMapping(path = "/suggest")
+    public ResponseEntity<List<AlbumSuggestionDTO>> suggestAlbums(
+        @RequestParam(name = "q") String query,
+        @RequestParam(name = "limit", required = false) Integer limit) {
+
+        return ResponseEntity.ok(albumService.suggestAlbums(query, limit));
     }
 
     @Operation(summary = "Gets album with id")
@@ -60,14 +336,68 @@ public class AlbumController {
                 schema = @Schema(implementation = AlbumDTO.class)
             )
         ),
+        @ApiResponse(
+            description = "Album unchanged since the ETag in If-None-Match",
+            responseCode = "304"
+        ),
         @ApiResponse(
             description = "Album not found",
             responseCode = "404"
         )
     })
     @GetMapping(path = "/{id}")
-    public ResponseEntity<AlbumDTO> getAlbum(@PathVariable String id) {
-        return ResponseEntity.ok(albumService.getAlbum(id));
+    public ResponseEntity<AlbumDTO> getAlbum(
+        @PathVariable String id,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields,
+        WebRequest request) {
+
+        Set<AlbumField> albumFields = AlbumField.fromParams(fields);
+
+        // read the version before the album so the ETag never claims a newer version than the body
+        String eTag = AlbumETags.album(id, albumService.getAlbumVersion(id), albumFields);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(albumService.getAlbum(id, albumFields));
+    }
+
+    @Operation(summary = "Gets album with id encoded as CBOR or Smile")
+    @ApiResponses(value = {
+        @ApiResponse(
+            description = "Found the album",
+            responseCode = "200",
+            content = {
+                @Content(
+                    mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                    schema = @Schema(implementation = AlbumDTO.class)),
+                @Content(
+                    mediaType = APPLICATION_SMILE_VALUE,
+                    schema = @Schema(implementation = AlbumDTO.class))
+            }
+        ),
+        @ApiResponse(
+            description = "Album unchanged since the ETag in If-None-Match",
+            responseCode = "304"
+        ),
+        @ApiResponse(
+            description = "Album not found",
+            responseCode = "404"
+        )
+    })
+    @GetMapping(path = "/{id}", produces = {MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<AlbumDTO> getAlbumInBinaryFormat(
+        @PathVariable String id,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields,
+        WebRequest request) {
+
+        Set<AlbumField> albumFields = AlbumField.fromParams(fields);
+        MediaType format = AlbumFormats.negotiate(request, AlbumFormats.BINARY);
+
+        String eTag = AlbumETags.inFormat(AlbumETags.album(id, albumService.getAlbumVersion(id), albumFields), format);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(format).eTag(eTag).body(albumService.getAlbum(id, albumFields));
     }
 
     @Operation(summary = "Creates album")
@@ -95,6 +425,30 @@ public class AlbumController {
         return ResponseEntity.created(createdAlbumLocation).build();
     }
 
+    @Operation(summary = "Creates many albums, reporting the outcome of each")
+    @ApiResponses(value = {
+        @ApiResponse(
+            description = "Outcome of each album, by index",
+            responseCode = "200",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AlbumBulkCreateDTO.class)
+            )
+        ),
+        @ApiResponse(
+            description = "Too many albums",
+            responseCode = "400",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
+        )
+    })
+    @PostMapping(path = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AlbumBulkCreateDTO> createAlbums(@ModelAttribute AlbumBulkPayloadDTO payload) {
+        return ResponseEntity.ok(albumService.createAlbums(payload.getAlbums()));
+    }
+
     @Operation(summary = "Updates album with id")
     @ApiResponses(value = {
         @ApiResponse(
@@ -105,6 +459,10 @@ public class AlbumController {
             description = "Album not found",
             responseCode = "404"
         ),
+        @ApiResponse(
+            description = "Album changed since the ETag in If-Match",
+            responseCode = "412"
+        ),
         @ApiResponse(
             description = "Validation error",
             responseCode = "400",
@@ -112,14 +470,64 @@ public class AlbumController {
                 mediaType = "application/json",
                 schema = @Schema(implementation = ValidationErrorsDTO.class)
             )
+        ),
+        @ApiResponse(
+            description = "Album fields updated, with the new version as ETag, but the cover image could not be stored",
+            responseCode = "502",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
         )
     })
     @PatchMapping(
         consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
         path = "/{id}")
-    public ResponseEntity<?> updateAlbum(@PathVariable String id, @Validated(Edit.class) @ModelAttribute AlbumPayloadDTO payload) {
-        albumService.updateAlbum(id, payload);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<?> updateAlbum(
+        @PathVariable String id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch,
+        @Validated(Edit.class) @ModelAttribute AlbumPayloadDTO payload) {
+
+        long version = albumService.updateAlbum(id, payload, AlbumETags.matchedVersions(id, ifMatch));
+        return ResponseEntity.ok().eTag(AlbumETags.album(id, version, Set.of())).build();
+    }
+
+    @Operation(summary = "Adds a signed delta to the stock of album with id, refusing to go below zero")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AlbumStockDTO.class)
+            )
+        ),
+        @ApiResponse(
+            description = "Album not found",
+            responseCode = "404"
+        ),
+        @ApiResponse(
+            description = "Not enough stock for the decrement, or the increment would overflow the stock",
+            responseCode = "409",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
+        ),
+        @ApiResponse(
+            description = "Validation error",
+            responseCode = "400",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
+        )
+    })
+    @PostMapping(path = "/{id}/stock", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AlbumStockDTO> adjustStock(
+        @PathVariable String id,
+        @Validated @RequestBody AlbumStockAdjustmentDTO adjustment) {
+
+        return ResponseEntity.ok(albumService.adjustStock(id, adjustment.getDelta()));
     }
 
     @Operation(summary = "Deletes album with id")
@@ -1,25 +1,77 @@
 package com.thevirtualforge.musicalog.controller;
 
 import com.thevirtualforge.musicalog.dto.ValidationErrorsDTO;
+import com.thevirtualforge.musicalog.exception.AlbumCoverNotStoredException;
+import com.thevirtualforge.musicalog.exception.AlbumImportNotFoundException;
 import com.thevirtualforge.musicalog.exception.AlbumNotFoundException;
+import com.thevirtualforge.musicalog.exception.AlbumStockOverflowException;
+import com.thevirtualforge.musicalog.exception.AlbumVersionMismatchException;
+import com.thevirtualforge.musicalog.exception.InsufficientAlbumStockException;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindException;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @ControllerAdvice
 public class AlbumControllerAdvice {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationErrorsDTO> handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
+        return validationErrors(e.getBindingResult());
+    }
+
+    @ExceptionHandler(BindException.class)
+    public ResponseEntity<ValidationErrorsDTO> handleBindException(BindException e) {
+        return validationErrors(e.getBindingResult());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ValidationErrorsDTO> handleWebExchangeBindException(WebExchangeBindException e) {
+        return validationErrors(e.getBindingResult());
+    }
+
+    @ExceptionHandler(InvalidAlbumQueryException.class)
+    public ResponseEntity<ValidationErrorsDTO> handleInvalidAlbumQueryException(InvalidAlbumQueryException e) {
+        return new ResponseEntity<>(ValidationErrorsDTO.builder().errors(List.of(e.getMessage())).build(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler({AlbumNotFoundException.class, AlbumImportNotFoundException.class})
+    public ResponseEntity<?> handleNotFoundException() {
+        return ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(AlbumVersionMismatchException.class)
+    public ResponseEntity<?> handleVersionMismatchException() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    }
+
+    @ExceptionHandler({InsufficientAlbumStockException.class, AlbumStockOverflowException.class})
+    public ResponseEntity<ValidationErrorsDTO> handleAlbumStockException(RuntimeException e) {
+        return new ResponseEntity<>(ValidationErrorsDTO.builder().errors(List.of(e.getMessage())).build(), HttpStatus.CONFLICT);
+    }
+
+    // the album's fields were updated, so the new ETag is returned for the client to retry the cover with If-Match
+    @ExceptionHandler(AlbumCoverNotStoredException.class)
+    public ResponseEntity<ValidationErrorsDTO> handleAlbumCoverNotStoredException(AlbumCoverNotStoredException e) {
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+            .eTag(AlbumETags.album(e.getId(), e.getVersion(), Set.of()))
+            .body(ValidationErrorsDTO.builder().errors(List.of(e.getMessage())).build());
+    }
+
+    private ResponseEntity<ValidationErrorsDTO> validationErrors(BindingResult bindingResult) {
         List<String> errors = new ArrayList<>();
 
-        e.getBindingResult().getAllErrors().forEach(error -> {
+        bindingResult.getAllErrors().forEach(error -> {
             String fieldName = ((FieldError) error).getField();
             String errorMessage = error.getDefaultMessage();
             errors.add(fieldName + " " + errorMessage);
@@ -27,11 +79,4 @@ public class AlbumControllerAdvice {
 
         return new ResponseEntity<>(ValidationErrorsDTO.builder().errors(errors).build(), HttpStatus.BAD_REQUEST);
     }
-
-    @ExceptionHandler(AlbumNotFoundException.class)
-    public ResponseEntity<?> handleNotFoundException() {
-        return ResponseEntity.notFound().build();
-    }
 }
-
-
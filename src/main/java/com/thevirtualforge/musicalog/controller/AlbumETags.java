@@ -0,0 +1,88 @@
+package com.thevirtualforge.musicalog.controller;
+
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import org.springframework.http.MediaType;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+final class AlbumETags {
+
+    private static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+    private AlbumETags() {
+    }
+
+    static String album(String id, long version, Set<AlbumField> fields) {
+        String representation = fields.stream()
+            .map(AlbumField::getParamName)
+            .collect(Collectors.joining("."));
+        return "\"" + id + "-" + version + (representation.isEmpty() ? "" : "-" + representation) + "\"";
+    }
+
+    // any representation's ETag names the album version, so If-Match is reduced to the versions it accepts
+    static Collection<Long> matchedVersions(String id, List<String> ifMatch) {
+        if (ifMatch == null || ifMatch.isEmpty()) {
+            return null;
+        }
+
+        String prefix = "\"" + id + "-";
+        Set<Long> versions = new HashSet<>();
+        for (String header : ifMatch) {
+            for (String value : header.split(",")) {
+                String eTag = value.trim();
+                if (eTag.equals("*")) {
+                    return null;
+                }
+                // If-Match compares strongly, so weak ETags never match
+                if (!eTag.startsWith(prefix) || !eTag.endsWith("\"") || eTag.length() == prefix.length()) {
+                    continue;
+                }
+                String rest = eTag.substring(prefix.length(), eTag.length() - 1);
+                int end = rest.indexOf('-');
+                try {
+                    versions.add(Long.parseLong(end < 0 ? rest : rest.substring(0, end)));
+                } catch (NumberFormatException e) {
+                    // not an ETag this service issued
+                }
+            }
+        }
+        return versions;
+    }
+
+    // the write generation is per instance, so list ETags from another instance or a restart never match;
+    // with no generation some writes go unseen, so the list gets no ETag at all
+    static String albums(OptionalLong writeGeneration, Map<String, String[]> params) {
+        if (writeGeneration.isEmpty()) {
+            return null;
+        }
+        String query = new TreeMap<>(params).entrySet().stream()
+            .map(param -> param.getKey() + "=" + String.join(",", param.getValue()))
+            .collect(Collectors.joining("&"));
+        String queryHash = DigestUtils.md5DigestAsHex(query.getBytes(StandardCharsets.UTF_8));
+        return "\"" + INSTANCE_ID + "-" + writeGeneration.getAsLong() + "-" + queryHash + "\"";
+    }
+
+    static String albums(OptionalLong writeGeneration, MultiValueMap<String, String> params) {
+        return albums(writeGeneration, params.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, param -> param.getValue().toArray(String[]::new))));
+    }
+
+    // each encoding is a different byte representation, so it needs its own strong ETag
+    static String inFormat(String eTag, MediaType format) {
+        if (eTag == null) {
+            return null;
+        }
+        return eTag.substring(0, eTag.length() - 1) + "-" + format.getSubtype() + "\"";
+    }
+}
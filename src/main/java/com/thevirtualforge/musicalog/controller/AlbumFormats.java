@@ -0,0 +1,41 @@
+package com.thevirtualforge.musicalog.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class AlbumFormats {
+
+    static final List<MediaType> BINARY = List.of(MediaType.APPLICATION_CBOR, AlbumController.APPLICATION_SMILE);
+    static final List<MediaType> ALL =
+        List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, AlbumController.APPLICATION_SMILE);
+
+    private AlbumFormats() {
+    }
+
+    static MediaType negotiate(WebRequest request, List<MediaType> formats) {
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        return negotiate(accept == null ? List.of() : MediaType.parseMediaTypes(Arrays.asList(accept)), formats);
+    }
+
+    static MediaType negotiate(ServerWebExchange exchange, List<MediaType> formats) {
+        return negotiate(exchange.getRequest().getHeaders().getAccept(), formats);
+    }
+
+    // the ETag is chosen before the body is written, so pin the encoding it was computed for;
+    // the first format is the default when nothing more specific is accepted
+    static MediaType negotiate(List<MediaType> accepted, List<MediaType> formats) {
+        List<MediaType> sorted = new ArrayList<>(accepted);
+        MimeTypeUtils.sortBySpecificity(sorted);
+        return sorted.stream()
+            .flatMap(mediaType -> formats.stream().filter(mediaType::includes))
+            .findFirst()
+            .orElse(formats.get(0));
+    }
+}
@@ -0,0 +1,105 @@
+package com.thevirtualforge.musicalog.controller;
+
+import com.thevirtualforge.musicalog.dto.AlbumImportJobDTO;
+import com.thevirtualforge.musicalog.dto.AlbumImportRequestDTO;
+import com.thevirtualforge.musicalog.dto.ValidationErrorsDTO;
+import com.thevirtualforge.musicalog.service.AlbumImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/album-imports")
+@RequiredArgsConstructor
+public class AlbumImportController {
+
+    private final AlbumImportService albumImportService;
+
+    @Operation(summary = "Starts importing albums from a CSV or NDJSON file or S3 object")
+    @ApiResponses(value = {
+        @ApiResponse(
+            description = "Import started",
+            responseCode = "202",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AlbumImportJobDTO.class)
+            )
+        ),
+        @ApiResponse(
+            description = "Validation error",
+            responseCode = "400",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
+        )
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AlbumImportJobDTO> startImport(@Validated @RequestBody AlbumImportRequestDTO request)
+        throws URISyntaxException {
+
+        AlbumImportJobDTO job = albumImportService.startImport(request);
+        return ResponseEntity.accepted()
+            .location(new URI("/api/album-imports/" + job.getId()))
+            .body(job);
+    }
+
+    @Operation(summary = "Resumes an import from its last committed row")
+    @ApiResponses(value = {
+        @ApiResponse(
+            description = "Import resumed",
+            responseCode = "202",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AlbumImportJobDTO.class)
+            )
+        ),
+        @ApiResponse(
+            description = "Import not found",
+            responseCode = "404"
+        ),
+        @ApiResponse(
+            description = "Import completed or still running",
+            responseCode = "400",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ValidationErrorsDTO.class)
+            )
+        )
+    })
+    @PostMapping(path = "/{id}/resume")
+    public ResponseEntity<AlbumImportJobDTO> resumeImport(@PathVariable String id) {
+        return ResponseEntity.accepted().body(albumImportService.resumeImport(id));
+    }
+
+    @Operation(summary = "Gets the progress and throughput of an import")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AlbumImportJobDTO.class)
+            )
+        ),
+        @ApiResponse(
+            description = "Import not found",
+            responseCode = "404"
+        )
+    })
+    @GetMapping(path = "/{id}")
+    public ResponseEntity<AlbumImportJobDTO> getImport(@PathVariable String id) {
+        return ResponseEntity.ok(albumImportService.getImport(id));
+    }
+}
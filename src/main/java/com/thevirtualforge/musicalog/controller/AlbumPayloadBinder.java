@@ -0,0 +1,76 @@
+package com.thevirtualforge.musicalog.controller;
+
+import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
+import jakarta.validation.Validator;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FormFieldPart;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.validation.BindException;
+import org.springframework.validation.DataBinder;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// WebFlux binds file parts as FilePart, so the payload is bound by hand to keep the MultipartFile based validation
+final class AlbumPayloadBinder {
+
+    private final SmartValidator validator;
+
+    AlbumPayloadBinder(Validator validator) {
+        this.validator = new SpringValidatorAdapter(validator);
+    }
+
+    Mono<AlbumPayloadDTO> bind(ServerWebExchange exchange, Class<?> group) {
+        return exchange.getMultipartData()
+            .flatMapMany(parts -> Flux.fromIterable(parts.toSingleValueMap().values()))
+            .concatMap(AlbumPayloadBinder::toPropertyValue)
+            .collectList()
+            .flatMap(values -> bind(values, group));
+    }
+
+    private Mono<AlbumPayloadDTO> bind(List<PropertyValue> values, Class<?> group) {
+        AlbumPayloadDTO payload = AlbumPayloadDTO.builder().build();
+        DataBinder binder = new DataBinder(payload, "albumPayloadDTO");
+        binder.bind(new MutablePropertyValues(values));
+        validator.validate(payload, binder.getBindingResult(), group);
+
+        if (binder.getBindingResult().hasErrors()) {
+            return Mono.error(new BindException(binder.getBindingResult()));
+        }
+        return Mono.just(payload);
+    }
+
+    private static Mono<PropertyValue> toPropertyValue(Part part) {
+        if (part instanceof FormFieldPart field) {
+            return Mono.just(new PropertyValue(field.name(), field.value()));
+        }
+        if (part instanceof FilePart file) {
+            MediaType contentType = file.headers().getContentType();
+            return DataBufferUtils.join(file.content())
+                .map(AlbumPayloadBinder::toBytes)
+                .defaultIfEmpty(new byte[0])
+                .map(content -> new PropertyValue(file.name(), new ByteArrayMultipartFile(
+                    file.name(), file.filename(), contentType == null ? null : contentType.toString(), content)));
+        }
+        return Mono.empty();
+    }
+
+    private static byte[] toBytes(DataBuffer buffer) {
+        try {
+            byte[] content = new byte[buffer.readableByteCount()];
+            buffer.read(content);
+            return content;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.thevirtualforge.musicalog.controller;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class JsonFragments {
+    private final List<byte[]> elements;
+}
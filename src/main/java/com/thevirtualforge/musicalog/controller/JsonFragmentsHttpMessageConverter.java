@@ -0,0 +1,54 @@
+package com.thevirtualforge.musicalog.controller;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class JsonFragmentsHttpMessageConverter extends AbstractHttpMessageConverter<JsonFragments> {
+
+    public JsonFragmentsHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonFragments.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected JsonFragments readInternal(Class<? extends JsonFragments> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("json fragments are write only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(JsonFragments fragments, MediaType contentType) {
+        long length = 2 + Math.max(0, fragments.getElements().size() - 1);
+        for (byte[] element : fragments.getElements()) {
+            length += element.length;
+        }
+        return length;
+    }
+
+    @Override
+    protected void writeInternal(JsonFragments fragments, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream body = outputMessage.getBody();
+        body.write('[');
+        for (int i = 0; i < fragments.getElements().size(); i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            body.write(fragments.getElements().get(i));
+        }
+        body.write(']');
+    }
+}
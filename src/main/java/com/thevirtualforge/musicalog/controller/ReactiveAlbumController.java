@@ -0,0 +1,173 @@
+package com.thevirtualforge.musicalog.controller;
+
+import com.thevirtualforge.musicalog.dto.AlbumBatchDTO;
+import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockAdjustmentDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.service.ReactiveAlbumService;
+import com.thevirtualforge.musicalog.validation.group.Create;
+import com.thevirtualforge.musicalog.validation.group.Edit;
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/albums")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAlbumController {
+
+    private static final String FIELDS_PARAM = "fields";
+    private static final String IDS_PARAM = "ids";
+
+    private final ReactiveAlbumService albumService;
+    private final AlbumPayloadBinder albumPayloadBinder;
+
+    public ReactiveAlbumController(ReactiveAlbumService albumService, Validator validator) {
+        this.albumService = albumService;
+        this.albumPayloadBinder = new AlbumPayloadBinder(validator);
+    }
+
+    @GetMapping(params = "!" + IDS_PARAM)
+    public Mono<ResponseEntity<List<AlbumDTO>>> getAlbums(
+        @Validated @ModelAttribute AlbumFilterDTO filter,
+        @Validated @ModelAttribute AlbumPageRequestDTO page,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields,
+        ServerWebExchange exchange) {
+
+        Set<AlbumField> albumFields = AlbumField.fromParams(fields);
+        MediaType format = AlbumFormats.negotiate(exchange, AlbumFormats.ALL);
+
+        String eTag = eTagInFormat(
+            AlbumETags.albums(albumService.getWriteGeneration(), exchange.getRequest().getQueryParams()), format);
+        if (eTag != null && exchange.checkNotModified(eTag)) {
+            return Mono.empty();
+        }
+
+        Mono<AlbumPageDTO> albums;
+        if (filter.hasCriteria()) {
+            albums = albumService.getMatchingAlbums(filter, page, albumFields);
+        } else {
+            albums = albumService.getAllAlbums(page, albumFields);
+        }
+
+        return albums.map(found -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(format);
+            if (eTag != null) {
+                response.eTag(eTag);
+            }
+            if (found.getNext() != null) {
+                response.header(AlbumController.NEXT_CURSOR_HEADER, found.getNext());
+            }
+            return response.body(found.getAlbums());
+        });
+    }
+
+    @GetMapping(params = {IDS_PARAM, "!stream"})
+    public Mono<AlbumBatchDTO> getAlbumsByIds(
+        @RequestParam(name = IDS_PARAM) List<String> ids,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields) {
+
+        return albumService.getAlbums(ids, AlbumField.fromParams(fields));
+    }
+
+    @GetMapping(params = "!" + IDS_PARAM, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AlbumDTO> streamAlbumsAsNdjson(
+        @Validated @ModelAttribute AlbumFilterDTO filter,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields) {
+
+        return albumService.streamAlbums(filter, AlbumField.fromParams(fields));
+    }
+
+    @GetMapping(params = {"stream=true", "!" + IDS_PARAM}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<AlbumDTO> streamAlbumsAsJsonArray(
+        @Validated @ModelAttribute AlbumFilterDTO filter,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields) {
+
+        return albumService.streamAlbums(filter, AlbumField.fromParams(fields));
+    }
+
+    @GetMapping(path = "/facets")
+    public Mono<AlbumFacetsDTO> getAlbumFacets(@Validated @ModelAttribute AlbumFilterDTO filter) {
+        return albumService.getAlbumFacets(filter);
+    }
+
+    @GetMapping(path = "/suggest")
+    public Mono<List<AlbumSuggestionDTO>> suggestAlbums(
+        @RequestParam(name = "q") String query,
+        @RequestParam(name = "limit", required = false) Integer limit) {
+
+        return albumService.suggestAlbums(query, limit);
+    }
+
+    @GetMapping(path = "/{id}")
+    public Mono<ResponseEntity<AlbumDTO>> getAlbum(
+        @PathVariable String id,
+        @RequestParam(name = FIELDS_PARAM, required = false) List<String> fields,
+        ServerWebExchange exchange) {
+
+        Set<AlbumField> albumFields = AlbumField.fromParams(fields);
+        MediaType format = AlbumFormats.negotiate(exchange, AlbumFormats.ALL);
+
+        // read the version before the album so the ETag never claims a newer version than the body
+        return albumService.getAlbumVersion(id).flatMap(version -> {
+            String eTag = eTagInFormat(AlbumETags.album(id, version, albumFields), format);
+            if (exchange.checkNotModified(eTag)) {
+                return Mono.empty();
+            }
+            return albumService.getAlbum(id, albumFields)
+                .map(album -> ResponseEntity.ok().contentType(format).eTag(eTag).body(album));
+        });
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<ResponseEntity<Void>> createAlbum(ServerWebExchange exchange) {
+        return albumPayloadBinder.bind(exchange, Create.class)
+            .flatMap(albumService::createAlbum)
+            .map(createdAlbum -> ResponseEntity.created(URI.create("/api/albums/" + createdAlbum.getId())).build());
+    }
+
+    @PatchMapping(
+        consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+        path = "/{id}")
+    public Mono<ResponseEntity<Void>> updateAlbum(@PathVariable String id, ServerWebExchange exchange) {
+        Collection<Long> expectedVersions = AlbumETags.matchedVersions(id, exchange.getRequest().getHeaders().getIfMatch());
+        return albumPayloadBinder.bind(exchange, Edit.class)
+            .flatMap(payload -> albumService.updateAlbum(id, payload, expectedVersions))
+            .map(version -> ResponseEntity.ok().eTag(AlbumETags.album(id, version, Set.of())).build());
+    }
+
+    @PostMapping(path = "/{id}/stock", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<AlbumStockDTO> adjustStock(
+        @PathVariable String id,
+        @Validated @RequestBody AlbumStockAdjustmentDTO adjustment) {
+
+        return albumService.adjustStock(id, adjustment.getDelta());
+    }
+
+    @DeleteMapping(path = "/{id}")
+    public Mono<ResponseEntity<Void>> deleteAlbum(@PathVariable String id) {
+        return albumService.deleteAlbum(id)
+            .then(Mono.fromSupplier(() -> ResponseEntity.ok().build()));
+    }
+
+    private static String eTagInFormat(String eTag, MediaType format) {
+        return format.equals(MediaType.APPLICATION_JSON) ? eTag : AlbumETags.inFormat(eTag, format);
+    }
+}
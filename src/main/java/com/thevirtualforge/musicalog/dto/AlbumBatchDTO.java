@@ -0,0 +1,17 @@
+package com.thevirtualforge.musicalog.dto;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@Builder
+public class AlbumBatchDTO {
+    private List<AlbumDTO> albums;
+    private List<String> missing;
+}
@@ -0,0 +1,27 @@
+package com.thevirtualforge.musicalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AlbumBulkItemDTO {
+    private int index;
+    private String id;
+    private Status status;
+    private List<String> errors;
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+}
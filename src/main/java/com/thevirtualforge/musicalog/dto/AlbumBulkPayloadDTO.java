@@ -0,0 +1,23 @@
+package com.thevirtualforge.musicalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class AlbumBulkPayloadDTO {
+
+    @Builder.Default
+    private List<AlbumPayloadDTO> albums = new ArrayList<>();
+}
@@ -1,5 +1,6 @@
 package com.thevirtualforge.musicalog.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -9,11 +10,13 @@ import lombok.Setter;
 @Setter
 @EqualsAndHashCode(callSuper = false)
 @Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class AlbumDTO {
     private String id;
     private String title;
     private String artistName;
     private String type;
-    private int stock;
+    private Integer stock;
     private String coverImageUrl;
+    private Float score;
 }
\ No newline at end of file
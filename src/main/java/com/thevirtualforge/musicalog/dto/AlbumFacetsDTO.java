@@ -0,0 +1,18 @@
+package com.thevirtualforge.musicalog.dto;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@Builder
+public class AlbumFacetsDTO {
+    private List<FacetCountDTO> types;
+    private List<FacetCountDTO> artistNames;
+    private long total;
+}
@@ -1,5 +1,8 @@
 package com.thevirtualforge.musicalog.dto;
 
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.validation.ValueOfEnum;
+import jakarta.validation.constraints.Min;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -8,8 +11,44 @@ import lombok.Setter;
 @Getter
 @Setter
 @EqualsAndHashCode
-@Builder
+@Builder(toBuilder = true)
 public class AlbumFilterDTO {
     private String title;
     private String artistName;
+    private String search;
+    private Boolean regex;
+    private Boolean fuzzy;
+
+    @ValueOfEnum(enumClass = AlbumType.class)
+    private String type;
+
+    @Min(0)
+    private Integer minStock;
+
+    @Min(0)
+    private Integer maxStock;
+
+    private Boolean inStock;
+
+    public boolean hasCriteria() {
+        return title != null
+            || artistName != null
+            || search != null
+            || type != null
+            || minStock != null
+            || maxStock != null
+            || inStock != null;
+    }
+
+    public boolean usesTextSearch() {
+        return search != null && !Boolean.TRUE.equals(regex);
+    }
+
+    public boolean usesFuzzySearch() {
+        return Boolean.TRUE.equals(fuzzy) && (title != null || artistName != null);
+    }
+
+    public boolean isRanked() {
+        return usesTextSearch() || usesFuzzySearch();
+    }
 }
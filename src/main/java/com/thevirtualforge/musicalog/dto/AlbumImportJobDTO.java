@@ -0,0 +1,32 @@
+package com.thevirtualforge.musicalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AlbumImportJobDTO {
+    private String id;
+    private String source;
+    private String format;
+    private String status;
+    private long committedRows;
+    private long imported;
+    private long rejected;
+    private long failed;
+    private double rowsPerSecond;
+    private List<String> errors;
+    private String failure;
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,27 @@
+package com.thevirtualforge.musicalog.dto;
+
+import com.thevirtualforge.musicalog.model.enums.AlbumImportFormat;
+import com.thevirtualforge.musicalog.validation.ValueOfEnum;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class AlbumImportRequestDTO {
+
+    @NotBlank
+    private String source;
+
+    @NotBlank
+    @ValueOfEnum(enumClass = AlbumImportFormat.class)
+    private String format;
+}
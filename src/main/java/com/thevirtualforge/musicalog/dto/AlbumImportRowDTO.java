@@ -0,0 +1,36 @@
+package com.thevirtualforge.musicalog.dto;
+
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.validation.ValueOfEnum;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class AlbumImportRowDTO {
+
+    @NotBlank
+    private String title;
+
+    @NotBlank
+    private String artistName;
+
+    @NotBlank
+    @ValueOfEnum(enumClass = AlbumType.class)
+    private String type;
+
+    @NotNull
+    @DecimalMin(value = "0")
+    private Integer stock;
+}
@@ -0,0 +1,13 @@
+package com.thevirtualforge.musicalog.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class AlbumJsonPageDTO {
+    private final List<byte[]> albums;
+    private final String next;
+}
@@ -0,0 +1,15 @@
+package com.thevirtualforge.musicalog.dto;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@EqualsAndHashCode
+@Builder
+public class AlbumPageDTO {
+    private final List<AlbumDTO> albums;
+    private final String next;
+}
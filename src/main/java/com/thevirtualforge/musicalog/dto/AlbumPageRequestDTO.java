@@ -0,0 +1,21 @@
+package com.thevirtualforge.musicalog.dto;
+
+import jakarta.validation.constraints.Min;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@Builder(toBuilder = true)
+public class AlbumPageRequestDTO {
+
+    @Min(1)
+    private Integer limit;
+
+    private String cursor;
+
+    private String sort;
+}
@@ -0,0 +1,29 @@
+package com.thevirtualforge.musicalog.dto;
+
+import com.thevirtualforge.musicalog.validation.NotZero;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class AlbumStockAdjustmentDTO {
+
+    public static final int MAX_DELTA = 1_000_000;
+
+    @NotNull
+    @NotZero
+    @Min(-MAX_DELTA)
+    @Max(MAX_DELTA)
+    private Integer delta;
+}
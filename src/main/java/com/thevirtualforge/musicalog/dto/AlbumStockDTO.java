@@ -0,0 +1,15 @@
+package com.thevirtualforge.musicalog.dto;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@Builder
+public class AlbumStockDTO {
+    private String id;
+    private int stock;
+}
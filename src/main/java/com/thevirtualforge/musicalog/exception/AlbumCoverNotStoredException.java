@@ -0,0 +1,17 @@
+package com.thevirtualforge.musicalog.exception;
+
+import lombok.Getter;
+
+// the update itself was applied, so the new version is carried for the response's ETag
+@Getter
+public class AlbumCoverNotStoredException extends RuntimeException {
+
+    private final String id;
+    private final long version;
+
+    public AlbumCoverNotStoredException(String id, long version, Throwable cause) {
+        super("album " + id + " was updated but its cover could not be stored", cause);
+        this.id = id;
+        this.version = version;
+    }
+}
@@ -0,0 +1,7 @@
+package com.thevirtualforge.musicalog.exception;
+
+public class AlbumImportNotFoundException extends RuntimeException {
+    public AlbumImportNotFoundException(String message) {
+        super(message, null, false, false);
+    }
+}
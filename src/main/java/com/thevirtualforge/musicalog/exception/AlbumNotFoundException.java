@@ -2,6 +2,6 @@ package com.thevirtualforge.musicalog.exception;
 
 public class AlbumNotFoundException extends RuntimeException {
     public AlbumNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,7 @@
+package com.thevirtualforge.musicalog.exception;
+
+public class AlbumStockOverflowException extends RuntimeException {
+    public AlbumStockOverflowException(String message) {
+        super(message, null, false, false);
+    }
+}
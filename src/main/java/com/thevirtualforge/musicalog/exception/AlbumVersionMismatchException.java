@@ -0,0 +1,7 @@
+package com.thevirtualforge.musicalog.exception;
+
+public class AlbumVersionMismatchException extends RuntimeException {
+    public AlbumVersionMismatchException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package com.thevirtualforge.musicalog.exception;
+
+public class InsufficientAlbumStockException extends RuntimeException {
+    public InsufficientAlbumStockException(String message) {
+        super(message, null, false, false);
+    }
+}
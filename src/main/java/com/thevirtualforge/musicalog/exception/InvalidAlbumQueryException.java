@@ -0,0 +1,7 @@
+package com.thevirtualforge.musicalog.exception;
+
+public class InvalidAlbumQueryException extends RuntimeException {
+    public InvalidAlbumQueryException(String message) {
+        super(message);
+    }
+}
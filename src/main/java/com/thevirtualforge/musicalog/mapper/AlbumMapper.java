@@ -1,15 +1,23 @@
 package com.thevirtualforge.musicalog.mapper;
 
 import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
+import com.thevirtualforge.musicalog.dto.AlbumImportJobDTO;
+import com.thevirtualforge.musicalog.dto.AlbumImportRowDTO;
 import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
 import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.AlbumFacets;
+import com.thevirtualforge.musicalog.model.AlbumImportJob;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
 import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.search.SearchTermNormaliser;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import org.mapstruct.Named;
 
 import java.util.List;
+import java.util.Set;
 
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
 public interface AlbumMapper {
@@ -18,11 +26,58 @@ public interface AlbumMapper {
 
     AlbumDTO albumToAlbumDTO(Album album);
 
+    default List<AlbumDTO> albumsToAlbumDTOs(List<Album> albums, Set<AlbumField> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return albumsToAlbumDTOs(albums);
+        }
+        if (albums == null) {
+            return null;
+        }
+        return albums.stream()
+            .map(album -> albumToAlbumDTO(album, fields))
+            .toList();
+    }
+
+    default AlbumDTO albumToAlbumDTO(Album album, Set<AlbumField> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return albumToAlbumDTO(album);
+        }
+        if (album == null) {
+            return null;
+        }
+        return AlbumDTO.builder()
+            .id(fields.contains(AlbumField.ID) ? album.getId() : null)
+            .title(fields.contains(AlbumField.TITLE) ? album.getTitle() : null)
+            .artistName(fields.contains(AlbumField.ARTIST_NAME) ? album.getArtistName() : null)
+            .type(fields.contains(AlbumField.TYPE) && album.getType() != null ? album.getType().name() : null)
+            .stock(fields.contains(AlbumField.STOCK) ? album.getStock() : null)
+            .coverImageUrl(fields.contains(AlbumField.COVER_IMAGE_URL) ? album.getCoverImageUrl() : null)
+            .score(album.getScore())
+            .build();
+    }
+
+    AlbumFacetsDTO albumFacetsToAlbumFacetsDTO(AlbumFacets albumFacets);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "coverImageUrl", ignore = true)
+    @Mapping(target = "score", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(source = "type", target = "type", qualifiedByName = "TypeToEnum")
+    @Mapping(source = "title", target = "titleNormalised", qualifiedByName = "Normalise")
+    @Mapping(source = "artistName", target = "artistNameNormalised", qualifiedByName = "Normalise")
     Album albumPayloadDTOToAlbum(AlbumPayloadDTO albumPayload);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "coverImageUrl", ignore = true)
+    @Mapping(target = "score", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(source = "type", target = "type", qualifiedByName = "TypeToEnum")
+    @Mapping(source = "title", target = "titleNormalised", qualifiedByName = "Normalise")
+    @Mapping(source = "artistName", target = "artistNameNormalised", qualifiedByName = "Normalise")
+    Album albumImportRowDTOToAlbum(AlbumImportRowDTO row);
+
+    AlbumImportJobDTO albumImportJobToAlbumImportJobDTO(AlbumImportJob albumImportJob);
+
     @Named("TypeToEnum")
     default AlbumType typeToEnum(String albumType) {
         if (albumType == null) {
@@ -30,4 +85,9 @@ public interface AlbumMapper {
         }
         return AlbumType.valueOf(albumType.toUpperCase());
     }
+
+    @Named("Normalise")
+    default String normalise(String value) {
+        return SearchTermNormaliser.normalise(value);
+    }
 }
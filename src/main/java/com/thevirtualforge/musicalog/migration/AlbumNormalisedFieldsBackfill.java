@@ -0,0 +1,89 @@
+package com.thevirtualforge.musicalog.migration;
+
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.search.SearchTermNormaliser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "album-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class AlbumNormalisedFieldsBackfill implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int batchSize;
+
+    public AlbumNormalisedFieldsBackfill(
+        MongoTemplate mongoTemplate,
+        @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+        @Value("${album-backfill.batch-size:500}") int batchSize) {
+
+        this.mongoTemplate = mongoTemplate;
+        this.taskExecutor = taskExecutor;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        taskExecutor.execute(this::backfill);
+    }
+
+    long backfill() {
+        long updated = 0;
+        String lastId = null;
+        List<Album> batch;
+        do {
+            batch = mongoTemplate.find(missingNormalisedFields(lastId), Album.class);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+                BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Album.class);
+                for (Album album : batch) {
+                    bulkOperations.updateOne(unchangedSince(album), new Update()
+                        .set(Album.TITLE_NORMALISED, SearchTermNormaliser.normalise(album.getTitle()))
+                        .set(Album.ARTIST_NAME_NORMALISED, SearchTermNormaliser.normalise(album.getArtistName())));
+                }
+                updated += bulkOperations.execute().getModifiedCount();
+            }
+        } while (batch.size() == batchSize);
+
+        log.info("backfilled normalised fields on {} albums", updated);
+        return updated;
+    }
+
+    // resumes after the previous batch's last id, so each batch walks the _id index instead of rescanning
+    // everything already backfilled
+    private Query missingNormalisedFields(String lastId) {
+        Criteria missing = new Criteria().orOperator(
+            Criteria.where(Album.TITLE_NORMALISED).exists(false),
+            Criteria.where(Album.ARTIST_NAME_NORMALISED).exists(false));
+        Criteria criteria = lastId == null
+            ? missing
+            : new Criteria().andOperator(Criteria.where(Album.ID).gt(lastId), missing);
+        Query query = new Query(criteria)
+            .with(Sort.by(Album.ID))
+            .limit(batchSize);
+        query.fields().include(Album.TITLE, Album.ARTIST_NAME);
+        return query;
+    }
+
+    private Query unchangedSince(Album album) {
+        return new Query(Criteria.where(Album.ID).is(album.getId())
+            .and(Album.TITLE).is(album.getTitle())
+            .and(Album.ARTIST_NAME).is(album.getArtistName()));
+    }
+}
@@ -3,10 +3,21 @@ package com.thevirtualforge.musicalog.model;
 import com.thevirtualforge.musicalog.model.enums.AlbumType;
 import lombok.*;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 @Document(collection = "albums")
+@CompoundIndexes({
+    @CompoundIndex(name = "title_id", def = "{'title': 1, '_id': 1}"),
+    @CompoundIndex(name = "artistName_id", def = "{'artistName': 1, '_id': 1}"),
+    @CompoundIndex(name = "titleNormalised_id", def = "{'titleNormalised': 1, '_id': 1}"),
+    @CompoundIndex(name = "artistNameNormalised_id", def = "{'artistNameNormalised': 1, '_id': 1}"),
+    @CompoundIndex(name = "type_stock_id", def = "{'type': 1, 'stock': 1, '_id': 1}"),
+    @CompoundIndex(name = "stock_id", def = "{'stock': 1, '_id': 1}")
+})
 @Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
@@ -15,20 +26,35 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Album {
 
+    public static final String ID = "_id";
     public static final String TITLE = "title";
     public static final String ARTIST_NAME = "artistName";
+    public static final String TYPE = "type";
+    public static final String STOCK = "stock";
+    public static final String COVER_IMAGE_URL = "coverImageUrl";
+    public static final String TITLE_NORMALISED = "titleNormalised";
+    public static final String ARTIST_NAME_NORMALISED = "artistNameNormalised";
+    public static final String VERSION = "version";
 
     @Id
     @EqualsAndHashCode.Include
     private String id;
 
-    @Indexed
+    @TextIndexed
     private String title;
 
-    @Indexed
+    @TextIndexed
     private String artistName;
 
     private AlbumType type;
     private int stock;
     private String coverImageUrl;
+
+    private String titleNormalised;
+    private String artistNameNormalised;
+
+    private long version;
+
+    @TextScore
+    private Float score;
 }
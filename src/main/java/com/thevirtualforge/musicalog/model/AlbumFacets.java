@@ -0,0 +1,22 @@
+package com.thevirtualforge.musicalog.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class AlbumFacets {
+
+    public static final String TYPES = "types";
+    public static final String ARTIST_NAMES = "artistNames";
+    public static final String TOTAL = "total";
+
+    private List<FacetCount> types;
+    private List<FacetCount> artistNames;
+    private long total;
+}
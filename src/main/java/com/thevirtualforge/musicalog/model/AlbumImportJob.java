@@ -0,0 +1,55 @@
+package com.thevirtualforge.musicalog.model;
+
+import com.thevirtualforge.musicalog.model.enums.AlbumImportFormat;
+import com.thevirtualforge.musicalog.model.enums.AlbumImportStatus;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Document(collection = "albumImportJobs")
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class AlbumImportJob {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    private String rowIdPrefix;
+
+    private String source;
+    private AlbumImportFormat format;
+    private AlbumImportStatus status;
+
+    private long committedRows;
+    private long imported;
+    private long rejected;
+    private long failed;
+
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+    private String failure;
+
+    private Instant startedAt;
+    private Instant runStartedAt;
+    private long runStartRows;
+    private Instant updatedAt;
+    private Instant completedAt;
+
+    public double getRowsPerSecond() {
+        if (runStartedAt == null || updatedAt == null) {
+            return 0;
+        }
+        long millis = Duration.between(runStartedAt, updatedAt).toMillis();
+        return millis < 1 ? 0 : (committedRows - runStartRows) * 1000.0 / millis;
+    }
+}
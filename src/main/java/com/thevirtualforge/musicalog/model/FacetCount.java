@@ -0,0 +1,20 @@
+package com.thevirtualforge.musicalog.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class FacetCount {
+
+    public static final String COUNT = "count";
+
+    @Id
+    private String value;
+
+    private long count;
+}
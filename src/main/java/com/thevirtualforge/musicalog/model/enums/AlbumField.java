@@ -0,0 +1,55 @@
+package com.thevirtualforge.musicalog.model.enums;
+
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.model.Album;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public enum AlbumField {
+    ID("id", Album.ID),
+    TITLE("title", Album.TITLE),
+    ARTIST_NAME("artistName", Album.ARTIST_NAME),
+    TYPE("type", Album.TYPE),
+    STOCK("stock", Album.STOCK),
+    COVER_IMAGE_URL("coverImageUrl", Album.COVER_IMAGE_URL);
+
+    private final String paramName;
+    private final String field;
+
+    AlbumField(String paramName, String field) {
+        this.paramName = paramName;
+        this.field = field;
+    }
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public static Set<AlbumField> fromParams(Collection<String> paramNames) {
+        Set<AlbumField> fields = EnumSet.noneOf(AlbumField.class);
+        if (paramNames == null) {
+            return fields;
+        }
+
+        for (String paramName : paramNames) {
+            if (paramName.isBlank()) {
+                continue;
+            }
+            fields.add(Stream.of(values())
+                .filter(field -> field.paramName.equals(paramName.trim()))
+                .findFirst()
+                .orElseThrow(() -> new InvalidAlbumQueryException("fields must be any of: " + Stream.of(values())
+                    .map(AlbumField::getParamName)
+                    .collect(Collectors.joining(", ")))));
+        }
+        return fields;
+    }
+}
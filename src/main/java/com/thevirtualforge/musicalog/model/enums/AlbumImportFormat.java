@@ -0,0 +1,6 @@
+package com.thevirtualforge.musicalog.model.enums;
+
+public enum AlbumImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,7 @@
+package com.thevirtualforge.musicalog.model.enums;
+
+public enum AlbumImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,56 @@
+package com.thevirtualforge.musicalog.model.enums;
+
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.model.Album;
+import org.springframework.data.domain.Sort;
+
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public enum AlbumSort {
+    ID("id", Album.ID, Album::getId),
+    TITLE("title", Album.TITLE, Album::getTitle),
+    ARTIST_NAME("artistName", Album.ARTIST_NAME, Album::getArtistName);
+
+    private final String paramName;
+    private final String field;
+    private final Function<Album, String> valueExtractor;
+
+    AlbumSort(String paramName, String field, Function<Album, String> valueExtractor) {
+        this.paramName = paramName;
+        this.field = field;
+        this.valueExtractor = valueExtractor;
+    }
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String valueOf(Album album) {
+        return valueExtractor.apply(album);
+    }
+
+    public Sort toSort() {
+        if (this == ID) {
+            return Sort.by(Sort.Direction.ASC, Album.ID);
+        }
+        return Sort.by(Sort.Direction.ASC, field, Album.ID);
+    }
+
+    public static AlbumSort fromParam(String paramName) {
+        if (paramName == null || paramName.isBlank()) {
+            return ID;
+        }
+        return Stream.of(values())
+            .filter(sort -> sort.paramName.equals(paramName))
+            .findFirst()
+            .orElseThrow(() -> new InvalidAlbumQueryException("sort must be one of: " + Stream.of(values())
+                .map(AlbumSort::getParamName)
+                .collect(Collectors.joining(", "))));
+    }
+}
@@ -0,0 +1,50 @@
+package com.thevirtualforge.musicalog.repository;
+
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+@EqualsAndHashCode
+public class AlbumCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private final AlbumSort sort;
+    private final String lastId;
+    private final String lastValue;
+
+    private AlbumCursor(AlbumSort sort, String lastId, String lastValue) {
+        this.sort = sort;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public static AlbumCursor after(AlbumSort sort, Album album) {
+        return new AlbumCursor(sort, album.getId(), sort == AlbumSort.ID ? album.getId() : sort.valueOf(album));
+    }
+
+    public String encode() {
+        String raw = sort.getParamName() + SEPARATOR + lastId + SEPARATOR + (lastValue == null ? "" : lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AlbumCursor decode(String cursor, AlbumSort sort) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidAlbumQueryException("cursor is invalid");
+        }
+
+        if (parts.length != 3 || !sort.getParamName().equals(parts[0]) || parts[1].isEmpty()) {
+            throw new InvalidAlbumQueryException("cursor is invalid");
+        }
+        return new AlbumCursor(sort, parts[1], parts[2]);
+    }
+}
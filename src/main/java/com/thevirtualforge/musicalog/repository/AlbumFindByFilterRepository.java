@@ -2,10 +2,30 @@ package com.thevirtualforge.musicalog.repository;
 
 import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
 import com.thevirtualforge.musicalog.model.Album;
-import org.springframework.stereotype.Repository;
+import com.thevirtualforge.musicalog.model.AlbumFacets;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface AlbumFindByFilterRepository {
-    List<Album> findBy(AlbumFilterDTO filter);
+    List<Album> findBy(AlbumFilterDTO filter, AlbumSort sort, AlbumCursor after, int limit, Set<AlbumField> fields);
+
+    List<Album> findAllByIds(Collection<String> ids, Set<AlbumField> fields);
+
+    Optional<Long> findVersionById(String id);
+
+    Stream<Album> streamBy(AlbumFilterDTO filter, Set<AlbumField> fields);
+
+    AlbumFacets facetsBy(AlbumFilterDTO filter, int topArtistNames);
+
+    Optional<Album> updateById(String id, AlbumUpdate update, Collection<Long> expectedVersions);
+
+    Optional<Album> adjustStock(String id, int delta);
+
+    Set<Integer> insertUnordered(List<Album> albums);
 }
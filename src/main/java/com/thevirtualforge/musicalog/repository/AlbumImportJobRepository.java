@@ -0,0 +1,9 @@
+package com.thevirtualforge.musicalog.repository;
+
+import com.thevirtualforge.musicalog.model.AlbumImportJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AlbumImportJobRepository extends MongoRepository<AlbumImportJob, String> {
+}
@@ -0,0 +1,18 @@
+package com.thevirtualforge.musicalog.repository;
+
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@Getter
+@EqualsAndHashCode
+@Builder
+public class AlbumUpdate {
+    private final String title;
+    private final String titleNormalised;
+    private final String artistName;
+    private final String artistNameNormalised;
+    private final AlbumType type;
+    private final Integer stock;
+}
@@ -0,0 +1,28 @@
+package com.thevirtualforge.musicalog.repository;
+
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.AlbumFacets;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface ReactiveAlbumFindByFilterRepository {
+    Flux<Album> findBy(AlbumFilterDTO filter, AlbumSort sort, AlbumCursor after, int limit, Set<AlbumField> fields);
+
+    Flux<Album> findAllByIds(Collection<String> ids, Set<AlbumField> fields);
+
+    Mono<Long> findVersionById(String id);
+
+    Flux<Album> streamBy(AlbumFilterDTO filter, Set<AlbumField> fields);
+
+    Mono<AlbumFacets> facetsBy(AlbumFilterDTO filter, int topArtistNames);
+
+    Mono<Album> updateById(String id, AlbumUpdate update, Collection<Long> expectedVersions);
+
+    Mono<Album> adjustStock(String id, int delta);
+}
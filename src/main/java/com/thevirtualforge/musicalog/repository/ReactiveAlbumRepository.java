@@ -0,0 +1,9 @@
+package com.thevirtualforge.musicalog.repository;
+
+import com.thevirtualforge.musicalog.model.Album;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveAlbumRepository extends ReactiveMongoRepository<Album, String>, ReactiveAlbumFindByFilterRepository {
+}
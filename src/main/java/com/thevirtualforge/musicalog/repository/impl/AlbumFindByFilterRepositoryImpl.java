@@ -1,39 +1,120 @@
 package com.thevirtualforge.musicalog.repository.impl;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
 import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.AlbumFacets;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import com.thevirtualforge.musicalog.repository.AlbumCursor;
 import com.thevirtualforge.musicalog.repository.AlbumFindByFilterRepository;
-import lombok.RequiredArgsConstructor;
+import com.thevirtualforge.musicalog.repository.AlbumUpdate;
+import com.thevirtualforge.musicalog.search.FuzzyAlbumIndex;
+import com.thevirtualforge.musicalog.search.TitleTrigramIndex;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
-@RequiredArgsConstructor
 public class AlbumFindByFilterRepositoryImpl implements AlbumFindByFilterRepository {
 
-    private static final String CASE_INSENSITIVE = "i";
-
     private final MongoTemplate mongoTemplate;
+    private final AlbumQueries albumQueries;
 
-    @Override
-    public List<Album> findBy(AlbumFilterDTO filter) {
-        Query query = new Query();
+    public AlbumFindByFilterRepositoryImpl(
+        MongoTemplate mongoTemplate,
+        Optional<TitleTrigramIndex> titleTrigramIndex,
+        Optional<FuzzyAlbumIndex> fuzzyAlbumIndex) {
 
-        if (filter.getArtistName() != null) {
-            query.addCriteria(Criteria.where(Album.ARTIST_NAME)
-                .regex("^" + Pattern.quote(filter.getArtistName()) + "$", CASE_INSENSITIVE));
-        }
+        this.mongoTemplate = mongoTemplate;
+        this.albumQueries = new AlbumQueries(titleTrigramIndex, fuzzyAlbumIndex);
+    }
 
-        if (filter.getTitle() != null) {
-            query.addCriteria(Criteria.where(Album.TITLE)
-                .regex(Pattern.quote(filter.getTitle()), CASE_INSENSITIVE));
+    @Override
+    public List<Album> findBy(AlbumFilterDTO filter, AlbumSort sort, AlbumCursor after, int limit, Set<AlbumField> fields) {
+        Map<String, Integer> distances = albumQueries.fuzzyDistances(filter);
+        if (distances == null) {
+            return mongoTemplate.find(albumQueries.findBy(filter, null, sort, after, limit, fields), Album.class);
         }
 
-        return mongoTemplate.find(query, Album.class);
+        Query query = albumQueries.findBy(filter, distances, AlbumSort.ID, null, distances.size(), fields);
+        return mongoTemplate.find(query, Album.class).stream()
+            .sorted(AlbumQueries.byDistance(distances))
+            .limit(limit)
+            .toList();
+    }
+
+    Query findByQuery(AlbumFilterDTO filter, AlbumSort sort, AlbumCursor after, int limit, Set<AlbumField> fields) {
+        return albumQueries.findBy(filter, albumQueries.fuzzyDistances(filter), sort, after, limit, fields);
+    }
+
+    @Override
+    public List<Album> findAllByIds(Collection<String> ids, Set<AlbumField> fields) {
+        return mongoTemplate.find(albumQueries.findAllByIds(ids, fields), Album.class);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(String id) {
+        return Optional.ofNullable(mongoTemplate.findOne(albumQueries.findVersionById(id), Album.class))
+            .map(Album::getVersion);
+    }
+
+    @Override
+    public Stream<Album> streamBy(AlbumFilterDTO filter, Set<AlbumField> fields) {
+        return mongoTemplate.stream(albumQueries.streamBy(filter, fields), Album.class);
+    }
+
+    @Override
+    public AlbumFacets facetsBy(AlbumFilterDTO filter, int topArtistNames) {
+        return mongoTemplate.aggregate(albumQueries.facetsBy(filter, topArtistNames), Album.class, AlbumFacets.class)
+            .getUniqueMappedResult();
+    }
+
+    @Override
+    public Optional<Album> updateById(String id, AlbumUpdate update, Collection<Long> expectedVersions) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            albumQueries.updateById(id, expectedVersions),
+            AlbumQueries.update(update),
+            FindAndModifyOptions.options().returnNew(true),
+            Album.class));
+    }
+
+    @Override
+    public Optional<Album> adjustStock(String id, int delta) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            albumQueries.adjustStock(id, delta),
+            AlbumQueries.stockAdjustment(delta),
+            FindAndModifyOptions.options().returnNew(true),
+            Album.class));
+    }
+
+    @Override
+    public Set<Integer> insertUnordered(List<Album> albums) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Album.class)
+                .insert(albums)
+                .execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            // a write concern error leaves every insert unacknowledged, not only those with a write error
+            if (e.getCause() instanceof MongoBulkWriteException cause && cause.getWriteConcernError() != null) {
+                throw e;
+            }
+            return e.getErrors().stream()
+                .map(BulkWriteError::getIndex)
+                .collect(Collectors.toSet());
+        }
     }
 }
@@ -0,0 +1,282 @@
+package com.thevirtualforge.musicalog.repository.impl;
+
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.AlbumFacets;
+import com.thevirtualforge.musicalog.model.FacetCount;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.repository.AlbumCursor;
+import com.thevirtualforge.musicalog.repository.AlbumUpdate;
+import com.thevirtualforge.musicalog.search.FuzzyAlbumIndex;
+import com.thevirtualforge.musicalog.search.SearchTermNormaliser;
+import com.thevirtualforge.musicalog.search.TitleTrigramIndex;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+class AlbumQueries {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    private final TitleTrigramIndex titleTrigramIndex;
+    private final FuzzyAlbumIndex fuzzyAlbumIndex;
+
+    AlbumQueries(Optional<TitleTrigramIndex> titleTrigramIndex, Optional<FuzzyAlbumIndex> fuzzyAlbumIndex) {
+        this.titleTrigramIndex = titleTrigramIndex.orElse(null);
+        this.fuzzyAlbumIndex = fuzzyAlbumIndex.orElse(null);
+    }
+
+    static Comparator<Album> byDistance(Map<String, Integer> distances) {
+        return Comparator.comparing((Album album) -> distances.get(album.getId())).thenComparing(Album::getId);
+    }
+
+    Query findBy(
+        AlbumFilterDTO filter,
+        Map<String, Integer> distances,
+        AlbumSort sort,
+        AlbumCursor after,
+        int limit,
+        Set<AlbumField> fields) {
+
+        List<Criteria> criteria = filterCriteria(filter, distances);
+        if (after != null) {
+            criteria.add(afterCursor(after));
+        }
+
+        Query query = filterQuery(filter, criteria);
+        if (!fields.isEmpty()) {
+            includeFields(query, fields);
+            query.fields().include(sort.getField(), Album.VERSION);
+        }
+
+        if (filter.usesTextSearch()) {
+            query.with(AlbumSort.ID.toSort());
+        } else {
+            query.with(sort.toSort());
+        }
+        return query.limit(limit);
+    }
+
+    Query findAllByIds(Collection<String> ids, Set<AlbumField> fields) {
+        Query query = new Query(Criteria.where(Album.ID).in(ids));
+        includeFields(query, fields);
+        return query;
+    }
+
+    Query updateById(String id, Collection<Long> expectedVersions) {
+        Criteria criteria = Criteria.where(Album.ID).is(id);
+        if (expectedVersions != null) {
+            Criteria version = Criteria.where(Album.VERSION).in(expectedVersions);
+            // albums written before versioning have no version field, which reads back as version 0
+            if (expectedVersions.contains(0L)) {
+                version = new Criteria().orOperator(version, Criteria.where(Album.VERSION).exists(false));
+            }
+            criteria.andOperator(version);
+        }
+        return new Query(criteria);
+    }
+
+    static Update update(AlbumUpdate albumUpdate) {
+        Update update = new Update().inc(Album.VERSION, 1);
+        if (albumUpdate.getTitle() != null) {
+            update.set(Album.TITLE, albumUpdate.getTitle())
+                .set(Album.TITLE_NORMALISED, albumUpdate.getTitleNormalised());
+        }
+        if (albumUpdate.getArtistName() != null) {
+            update.set(Album.ARTIST_NAME, albumUpdate.getArtistName())
+                .set(Album.ARTIST_NAME_NORMALISED, albumUpdate.getArtistNameNormalised());
+        }
+        if (albumUpdate.getType() != null) {
+            update.set(Album.TYPE, albumUpdate.getType());
+        }
+        if (albumUpdate.getStock() != null) {
+            update.set(Album.STOCK, albumUpdate.getStock());
+        }
+        return update;
+    }
+
+    // a decrement only matches while enough stock is left, so stock can never go below zero, and an increment only
+    // while the sum still fits an int, as $inc would otherwise store it as a long that Album cannot read back
+    Query adjustStock(String id, int delta) {
+        if (delta == 0) {
+            throw new IllegalArgumentException("stock delta must not be zero");
+        }
+
+        Criteria criteria = Criteria.where(Album.ID).is(id);
+        if (delta < 0) {
+            criteria.and(Album.STOCK).gte(-(long) delta);
+        } else {
+            criteria.and(Album.STOCK).lte(Integer.MAX_VALUE - delta);
+        }
+        return new Query(criteria);
+    }
+
+    static Update stockAdjustment(int delta) {
+        return new Update().inc(Album.STOCK, delta).inc(Album.VERSION, 1);
+    }
+
+    Query findVersionById(String id) {
+        Query query = new Query(Criteria.where(Album.ID).is(id));
+        query.fields().include(Album.VERSION);
+        return query;
+    }
+
+    Query streamBy(AlbumFilterDTO filter, Set<AlbumField> fields) {
+        Query query = filterQuery(filter, filterCriteria(filter, fuzzyDistances(filter)))
+            .with(AlbumSort.ID.toSort())
+            .cursorBatchSize(STREAM_BATCH_SIZE);
+        includeFields(query, fields);
+        return query;
+    }
+
+    Aggregation facetsBy(AlbumFilterDTO filter, int topArtistNames) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (filter.usesTextSearch()) {
+            stages.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(filter.getSearch())));
+        }
+
+        List<Criteria> criteria = filterCriteria(filter, fuzzyDistances(filter));
+        if (criteria.size() == 1) {
+            stages.add(Aggregation.match(criteria.get(0)));
+        } else if (!criteria.isEmpty()) {
+            stages.add(Aggregation.match(new Criteria().andOperator(criteria)));
+        }
+
+        Sort byCount = Sort.by(Sort.Direction.DESC, FacetCount.COUNT).and(Sort.by(Album.ID));
+        stages.add(Aggregation
+            .facet(Aggregation.group(Album.TYPE).count().as(FacetCount.COUNT), Aggregation.sort(byCount))
+            .as(AlbumFacets.TYPES)
+            .and(Aggregation.group(Album.ARTIST_NAME).count().as(FacetCount.COUNT), Aggregation.sort(byCount), Aggregation.limit(topArtistNames))
+            .as(AlbumFacets.ARTIST_NAMES)
+            .and(Aggregation.count().as(FacetCount.COUNT))
+            .as(AlbumFacets.TOTAL));
+        stages.add(Aggregation.project(AlbumFacets.TYPES, AlbumFacets.ARTIST_NAMES)
+            .and(ArrayOperators.ArrayElemAt.arrayOf(AlbumFacets.TOTAL + "." + FacetCount.COUNT).elementAt(0))
+            .as(AlbumFacets.TOTAL));
+
+        return Aggregation.newAggregation(stages);
+    }
+
+    Map<String, Integer> fuzzyDistances(AlbumFilterDTO filter) {
+        if (!filter.usesFuzzySearch() || fuzzyAlbumIndex == null || !fuzzyAlbumIndex.isLoaded()) {
+            return null;
+        }
+
+        return fuzzyAlbumIndex.find(
+            SearchTermNormaliser.normalise(filter.getTitle()),
+            SearchTermNormaliser.normalise(filter.getArtistName()));
+    }
+
+    private Query filterQuery(AlbumFilterDTO filter, List<Criteria> criteria) {
+        Query query = filter.usesTextSearch()
+            ? TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(filter.getSearch())).sortByScore()
+            : new Query();
+
+        if (criteria.size() == 1) {
+            query.addCriteria(criteria.get(0));
+        } else if (!criteria.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(criteria));
+        }
+        return query;
+    }
+
+    private List<Criteria> filterCriteria(AlbumFilterDTO filter, Map<String, Integer> distances) {
+        List<Criteria> criteria = new ArrayList<>();
+
+        if (distances != null) {
+            criteria.add(Criteria.where(Album.ID).in(distances.keySet()));
+        } else {
+            if (filter.getArtistName() != null) {
+                criteria.add(Criteria.where(Album.ARTIST_NAME_NORMALISED)
+                    .is(SearchTermNormaliser.normalise(filter.getArtistName())));
+            }
+
+            if (filter.getTitle() != null) {
+                criteria.add(titleContains(SearchTermNormaliser.normalise(filter.getTitle())));
+            }
+        }
+
+        if (filter.getType() != null) {
+            criteria.add(Criteria.where(Album.TYPE).is(AlbumType.valueOf(filter.getType().toUpperCase())));
+        }
+
+        Criteria stock = stockCriteria(filter);
+        if (stock != null) {
+            criteria.add(stock);
+        }
+
+        // stands in for the text index, which covers the artist name as well as the title
+        if (filter.getSearch() != null && !filter.usesTextSearch()) {
+            String search = Pattern.quote(SearchTermNormaliser.normalise(filter.getSearch()));
+            criteria.add(new Criteria().orOperator(
+                Criteria.where(Album.TITLE_NORMALISED).regex(search),
+                Criteria.where(Album.ARTIST_NAME_NORMALISED).regex(search)));
+        }
+
+        return criteria;
+    }
+
+    private Criteria stockCriteria(AlbumFilterDTO filter) {
+        Integer min = filter.getMinStock();
+        Integer max = filter.getMaxStock();
+        if (Boolean.TRUE.equals(filter.getInStock())) {
+            min = min == null ? 1 : Math.max(min, 1);
+        } else if (Boolean.FALSE.equals(filter.getInStock())) {
+            max = max == null ? 0 : Math.min(max, 0);
+        }
+
+        if (min == null && max == null) {
+            return null;
+        }
+
+        Criteria stock = Criteria.where(Album.STOCK);
+        if (min != null) {
+            stock.gte(min);
+        }
+        if (max != null) {
+            stock.lte(max);
+        }
+        return stock;
+    }
+
+    private Criteria titleContains(String title) {
+        Optional<Set<String>> ids = titleTrigramIndex == null ? Optional.empty() : titleTrigramIndex.findContaining(title);
+
+        return ids.map(found -> Criteria.where(Album.ID).in(found))
+            .orElseGet(() -> Criteria.where(Album.TITLE_NORMALISED).regex(Pattern.quote(title)));
+    }
+
+    private void includeFields(Query query, Set<AlbumField> fields) {
+        for (AlbumField field : fields) {
+            query.fields().include(field.getField());
+        }
+    }
+
+    private Criteria afterCursor(AlbumCursor after) {
+        if (after.getSort() == AlbumSort.ID) {
+            return Criteria.where(Album.ID).gt(after.getLastId());
+        }
+
+        String field = after.getSort().getField();
+        return new Criteria().orOperator(
+            Criteria.where(field).gt(after.getLastValue()),
+            Criteria.where(field).is(after.getLastValue()).and(Album.ID).gt(after.getLastId()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.thevirtualforge.musicalog.repository.impl;
+
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.AlbumFacets;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import com.thevirtualforge.musicalog.repository.AlbumCursor;
+import com.thevirtualforge.musicalog.repository.AlbumUpdate;
+import com.thevirtualforge.musicalog.repository.ReactiveAlbumFindByFilterRepository;
+import com.thevirtualforge.musicalog.search.FuzzyAlbumIndex;
+import com.thevirtualforge.musicalog.search.TitleTrigramIndex;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public class ReactiveAlbumFindByFilterRepositoryImpl implements ReactiveAlbumFindByFilterRepository {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final AlbumQueries albumQueries;
+
+    public ReactiveAlbumFindByFilterRepositoryImpl(
+        ReactiveMongoTemplate reactiveMongoTemplate,
+        Optional<TitleTrigramIndex> titleTrigramIndex,
+        Optional<FuzzyAlbumIndex> fuzzyAlbumIndex) {
+
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.albumQueries = new AlbumQueries(titleTrigramIndex, fuzzyAlbumIndex);
+    }
+
+    @Override
+    public Flux<Album> findBy(AlbumFilterDTO filter, AlbumSort sort, AlbumCursor after, int limit, Set<AlbumField> fields) {
+        Map<String, Integer> distances = albumQueries.fuzzyDistances(filter);
+        if (distances == null) {
+            return reactiveMongoTemplate.find(albumQueries.findBy(filter, null, sort, after, limit, fields), Album.class);
+        }
+
+        Query query = albumQueries.findBy(filter, distances, AlbumSort.ID, null, distances.size(), fields);
+        return reactiveMongoTemplate.find(query, Album.class)
+            .sort(AlbumQueries.byDistance(distances))
+            .take(limit);
+    }
+
+    @Override
+    public Flux<Album> findAllByIds(Collection<String> ids, Set<AlbumField> fields) {
+        return reactiveMongoTemplate.find(albumQueries.findAllByIds(ids, fields), Album.class);
+    }
+
+    @Override
+    public Mono<Long> findVersionById(String id) {
+        return reactiveMongoTemplate.findOne(albumQueries.findVersionById(id), Album.class)
+            .map(Album::getVersion);
+    }
+
+    @Override
+    public Flux<Album> streamBy(AlbumFilterDTO filter, Set<AlbumField> fields) {
+        return reactiveMongoTemplate.find(albumQueries.streamBy(filter, fields), Album.class);
+    }
+
+    @Override
+    public Mono<AlbumFacets> facetsBy(AlbumFilterDTO filter, int topArtistNames) {
+        return reactiveMongoTemplate.aggregate(albumQueries.facetsBy(filter, topArtistNames), Album.class, AlbumFacets.class)
+            .next();
+    }
+
+    @Override
+    public Mono<Album> updateById(String id, AlbumUpdate update, Collection<Long> expectedVersions) {
+        return reactiveMongoTemplate.findAndModify(
+            albumQueries.updateById(id, expectedVersions),
+            AlbumQueries.update(update),
+            FindAndModifyOptions.options().returnNew(true),
+            Album.class);
+    }
+
+    @Override
+    public Mono<Album> adjustStock(String id, int delta) {
+        return reactiveMongoTemplate.findAndModify(
+            albumQueries.adjustStock(id, delta),
+            AlbumQueries.stockAdjustment(delta),
+            FindAndModifyOptions.options().returnNew(true),
+            Album.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.thevirtualforge.musicalog.search;
+
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumsInvalidatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Component
+// a negative answer is final, so the filter needs the change stream to hear about albums written outside this JVM
+@ConditionalOnExpression("${album-id-filter.enabled:false} and ${album-change-stream.enabled:false}")
+public class AlbumIdFilter implements ApplicationRunner {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int expectedAlbums;
+    private final double falsePositiveRate;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile ScalableBloomFilter ids;
+    private volatile ScalableBloomFilter rebuilding;
+
+    public AlbumIdFilter(
+        MongoTemplate mongoTemplate,
+        @Value("${album-id-filter.expected-albums:100000}") int expectedAlbums,
+        @Value("${album-id-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+
+        this.mongoTemplate = mongoTemplate;
+        this.expectedAlbums = expectedAlbums;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(
+        initialDelayString = "${album-id-filter.resync-interval:PT10M}",
+        fixedDelayString = "${album-id-filter.resync-interval:PT10M}")
+    public void resync() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onAlbumSaved(AlbumSavedEvent event) {
+        put(event.getAlbum().getId());
+    }
+
+    // changes were missed, so every id may exist until the rebuild has read them all back
+    @EventListener
+    public void onAlbumsInvalidated(AlbumsInvalidatedEvent event) {
+        ids = null;
+        rebuild();
+    }
+
+    public boolean isLoaded() {
+        return ids != null;
+    }
+
+    public void put(String id) {
+        ScalableBloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.put(id);
+        }
+        ScalableBloomFilter current = ids;
+        if (current != null) {
+            current.put(id);
+        }
+    }
+
+    public boolean mightContain(String id) {
+        ScalableBloomFilter current = ids;
+        return current == null || current.mightContain(id);
+    }
+
+    void rebuild() {
+        rebuildLock.lock();
+        try {
+            ScalableBloomFilter rebuilt = new ScalableBloomFilter(expectedAlbums, falsePositiveRate);
+            rebuilding = rebuilt;
+
+            Query query = new Query().cursorBatchSize(LOAD_BATCH_SIZE);
+            query.fields().include(Album.ID);
+
+            try (Stream<Album> albums = mongoTemplate.stream(query, Album.class)) {
+                albums.forEach(album -> rebuilt.put(album.getId()));
+                ids = rebuilt;
+            } finally {
+                rebuilding = null;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.thevirtualforge.musicalog.search;
+
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.repository.AlbumRepository;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumsInvalidatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+@Component
+public class AlbumSuggestionIndex implements ApplicationRunner {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final Set<AlbumField> INDEXED_FIELDS = EnumSet.of(AlbumField.ID, AlbumField.TITLE, AlbumField.ARTIST_NAME);
+
+    private final AlbumRepository albumRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    private final ConcurrentNavigableMap<String, Integer> entries = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Set<String>> entriesByAlbum = new ConcurrentHashMap<>();
+
+    public AlbumSuggestionIndex(
+        AlbumRepository albumRepository,
+        @Value("${album-suggest.default-limit:10}") int defaultLimit,
+        @Value("${album-suggest.max-limit:50}") int maxLimit) {
+
+        this.albumRepository = albumRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+    }
+
+    @EventListener
+    public void onAlbumSaved(AlbumSavedEvent event) {
+        put(event.getAlbum());
+    }
+
+    @EventListener
+    public void onAlbumDeleted(AlbumDeletedEvent event) {
+        remove(event.getId());
+    }
+
+    // changes were missed, so albums may have been renamed or removed without an event
+    @EventListener
+    public void onAlbumsInvalidated(AlbumsInvalidatedEvent event) {
+        entriesByAlbum.clear();
+        entries.clear();
+        load();
+    }
+
+    public void put(Album album) {
+        Set<String> keys = new LinkedHashSet<>();
+        addKeys(keys, AlbumField.TITLE, album.getTitle());
+        addKeys(keys, AlbumField.ARTIST_NAME, album.getArtistName());
+
+        entriesByAlbum.compute(album.getId(), (id, previousKeys) -> {
+            if (previousKeys != null) {
+                previousKeys.forEach(this::decrement);
+            }
+            keys.forEach(key -> entries.merge(key, 1, Integer::sum));
+            return keys;
+        });
+    }
+
+    public void remove(String id) {
+        entriesByAlbum.computeIfPresent(id, (albumId, previousKeys) -> {
+            previousKeys.forEach(this::decrement);
+            return null;
+        });
+    }
+
+    public List<AlbumSuggestionDTO> suggest(String query, Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new InvalidAlbumQueryException("limit must be greater than or equal to 1");
+        }
+        int maxResults = limit == null ? defaultLimit : Math.min(limit, maxLimit);
+
+        String prefix = SearchTermNormaliser.normalise(query);
+        if (prefix == null || prefix.isEmpty()) {
+            return List.of();
+        }
+
+        Set<AlbumSuggestionDTO> suggestions = new LinkedHashSet<>();
+        for (String key : entries.subMap(prefix, prefix + Character.MAX_VALUE).keySet()) {
+            String[] parts = key.split(String.valueOf(SEPARATOR), 3);
+            suggestions.add(AlbumSuggestionDTO.builder()
+                .field(parts[1])
+                .value(parts[2])
+                .build());
+            if (suggestions.size() == maxResults) {
+                break;
+            }
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    private void load() {
+        try (Stream<Album> albums = albumRepository.streamBy(AlbumFilterDTO.builder().build(), INDEXED_FIELDS)) {
+            albums.forEach(this::put);
+        }
+    }
+
+    private void addKeys(Set<String> keys, AlbumField field, String value) {
+        String normalised = SearchTermNormaliser.normalise(value);
+        if (normalised == null || normalised.isEmpty()) {
+            return;
+        }
+
+        String suffix = SEPARATOR + field.getParamName() + SEPARATOR + value;
+        for (int start = 0; start >= 0; start = nextWordStart(normalised, start)) {
+            keys.add(normalised.substring(start) + suffix);
+        }
+    }
+
+    private int nextWordStart(String normalised, int from) {
+        int space = normalised.indexOf(' ', from);
+        return space < 0 ? -1 : space + 1;
+    }
+
+    private void decrement(String key) {
+        entries.computeIfPresent(key, (entry, count) -> count == 1 ? null : count - 1);
+    }
+}
@@ -0,0 +1,209 @@
+package com.thevirtualforge.musicalog.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// SymSpell's symmetric delete: each term is filed under every string left by deleting up to maxDistance characters
+// from its first PREFIX_LENGTH characters. Terms within maxDistance edits of a query always share one of those with
+// the query, so a lookup probes the query's own few dozen deletions and checks only the terms filed under them.
+class DeletionIndex {
+
+    static final int PREFIX_LENGTH = 7;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int EMPTY = 0;
+    private static final int REMOVED = -1;
+
+    private final int maxDistance;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // an open-addressed multimap from deletion hash to term number, kept in arrays so that a large dictionary costs
+    // eight bytes per deletion; colliding hashes only add candidates, which the distance check drops
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] termNumbers = new int[INITIAL_CAPACITY];
+    private int live;
+    private int used;
+
+    private final List<String> terms = new ArrayList<>();
+    private final Map<String, Integer> numbersByTerm = new HashMap<>();
+    private final Deque<Integer> freeNumbers = new ArrayDeque<>();
+
+    DeletionIndex(int maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
+    void add(String term) {
+        lock.writeLock().lock();
+        try {
+            if (numbersByTerm.containsKey(term)) {
+                return;
+            }
+
+            int number;
+            if (freeNumbers.isEmpty()) {
+                terms.add(term);
+                number = terms.size();
+            } else {
+                number = freeNumbers.pop();
+                terms.set(number - 1, term);
+            }
+            numbersByTerm.put(term, number);
+
+            for (String deletion : deletions(term, maxDistance)) {
+                insert(hash(deletion), number);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String term) {
+        lock.writeLock().lock();
+        try {
+            Integer number = numbersByTerm.remove(term);
+            if (number == null) {
+                return;
+            }
+
+            int mask = hashes.length - 1;
+            for (String deletion : deletions(term, maxDistance)) {
+                int hash = hash(deletion);
+                for (int slot = hash & mask; termNumbers[slot] != EMPTY; slot = (slot + 1) & mask) {
+                    if (termNumbers[slot] == number && hashes[slot] == hash) {
+                        termNumbers[slot] = REMOVED;
+                        live--;
+                        break;
+                    }
+                }
+            }
+            terms.set(number - 1, null);
+            freeNumbers.push(number);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            hashes = new int[INITIAL_CAPACITY];
+            termNumbers = new int[INITIAL_CAPACITY];
+            live = 0;
+            used = 0;
+            terms.clear();
+            numbersByTerm.clear();
+            freeNumbers.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Map<String, Integer> search(String query, int maxDistance) {
+        if (maxDistance > this.maxDistance) {
+            throw new IllegalArgumentException("max distance " + maxDistance + " is beyond the indexed " + this.maxDistance);
+        }
+
+        Map<String, Integer> matches = new HashMap<>();
+        Set<Integer> checked = new HashSet<>();
+
+        lock.readLock().lock();
+        try {
+            int mask = hashes.length - 1;
+            for (String deletion : deletions(query, maxDistance)) {
+                int hash = hash(deletion);
+                for (int slot = hash & mask; termNumbers[slot] != EMPTY; slot = (slot + 1) & mask) {
+                    int number = termNumbers[slot];
+                    if (hashes[slot] != hash || number == REMOVED || !checked.add(number)) {
+                        continue;
+                    }
+                    String term = terms.get(number - 1);
+                    int distance = Levenshtein.distance(query, term, maxDistance);
+                    if (distance <= maxDistance) {
+                        matches.put(term, distance);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    static Set<String> deletions(String term, int maxDistance) {
+        String prefix = term.length() > PREFIX_LENGTH ? term.substring(0, PREFIX_LENGTH) : term;
+
+        Set<String> deletions = new HashSet<>();
+        deletions.add(prefix);
+        List<String> previous = List.of(prefix);
+        for (int distance = 1; distance <= maxDistance; distance++) {
+            List<String> current = new ArrayList<>();
+            for (String value : previous) {
+                for (int i = 0; i < value.length(); i++) {
+                    String deletion = value.substring(0, i) + value.substring(i + 1);
+                    if (deletions.add(deletion)) {
+                        current.add(deletion);
+                    }
+                }
+            }
+            previous = current;
+        }
+        return deletions;
+    }
+
+    private void insert(int hash, int number) {
+        if ((used + 1) * 4L > hashes.length * 3L) {
+            resize();
+        }
+
+        int mask = hashes.length - 1;
+        int slot = hash & mask;
+        while (termNumbers[slot] != EMPTY && termNumbers[slot] != REMOVED) {
+            slot = (slot + 1) & mask;
+        }
+        if (termNumbers[slot] == EMPTY) {
+            used++;
+        }
+        hashes[slot] = hash;
+        termNumbers[slot] = number;
+        live++;
+    }
+
+    // also drops the REMOVED markers, which would otherwise lengthen every probe that runs across them
+    private void resize() {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < (live + 1) * 2L) {
+            capacity <<= 1;
+        }
+
+        int[] previousHashes = hashes;
+        int[] previousTermNumbers = termNumbers;
+        hashes = new int[capacity];
+        termNumbers = new int[capacity];
+        live = 0;
+        used = 0;
+
+        for (int slot = 0; slot < previousTermNumbers.length; slot++) {
+            if (previousTermNumbers[slot] != EMPTY && previousTermNumbers[slot] != REMOVED) {
+                insert(previousHashes[slot], previousTermNumbers[slot]);
+            }
+        }
+    }
+
+    private static int hash(String deletion) {
+        int hash = deletion.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
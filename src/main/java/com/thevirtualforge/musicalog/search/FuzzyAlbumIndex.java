@@ -0,0 +1,132 @@
+package com.thevirtualforge.musicalog.search;
+
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumsInvalidatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// fuzzy filters are answered from the index alone, so like the title index it is only trusted while the
+// change stream delivers writes made by other nodes or straight to the database
+@Component
+@ConditionalOnExpression("${album-fuzzy-index.enabled:true} and ${album-change-stream.enabled:false}")
+public class FuzzyAlbumIndex implements ApplicationRunner {
+
+    public static final int MAX_DISTANCE = 2;
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxMatches;
+
+    private final FuzzyTermDictionary titles = new FuzzyTermDictionary();
+    private final FuzzyTermDictionary artistNames = new FuzzyTermDictionary();
+    private volatile boolean loaded;
+
+    public FuzzyAlbumIndex(
+        MongoTemplate mongoTemplate,
+        @Value("${album-fuzzy-index.max-matches:1000}") int maxMatches) {
+
+        this.mongoTemplate = mongoTemplate;
+        this.maxMatches = maxMatches;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+    }
+
+    @EventListener
+    public void onAlbumSaved(AlbumSavedEvent event) {
+        put(event.getAlbum());
+    }
+
+    @EventListener
+    public void onAlbumDeleted(AlbumDeletedEvent event) {
+        remove(event.getId());
+    }
+
+    // changes were missed, so fuzzy filters match exactly until the index is rebuilt from Mongo
+    @EventListener
+    public void onAlbumsInvalidated(AlbumsInvalidatedEvent event) {
+        loaded = false;
+        titles.clear();
+        artistNames.clear();
+        load();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private void load() {
+        Query query = new Query().cursorBatchSize(LOAD_BATCH_SIZE);
+        query.fields().include(Album.TITLE, Album.ARTIST_NAME);
+
+        try (Stream<Album> albums = mongoTemplate.stream(query, Album.class)) {
+            albums.forEach(this::put);
+        }
+        loaded = true;
+    }
+
+    public void put(Album album) {
+        titles.put(album.getId(), SearchTermNormaliser.normalise(album.getTitle()));
+        artistNames.put(album.getId(), SearchTermNormaliser.normalise(album.getArtistName()));
+    }
+
+    public void remove(String id) {
+        titles.remove(id);
+        artistNames.remove(id);
+    }
+
+    public Map<String, Integer> findTitles(String normalisedQuery) {
+        return find(normalisedQuery, null);
+    }
+
+    public Map<String, Integer> findArtistNames(String normalisedQuery) {
+        return find(null, normalisedQuery);
+    }
+
+    // both sides are intersected before keeping the nearest maxMatches, so a close combined match
+    // is never lost to a cap on either side
+    public Map<String, Integer> find(String normalisedTitle, String normalisedArtistName) {
+        Map<String, Integer> distances = null;
+        if (normalisedArtistName != null) {
+            distances = artistNames.find(normalisedArtistName, maxDistance(normalisedArtistName));
+        }
+        if (normalisedTitle != null) {
+            Map<String, Integer> titleDistances = titles.find(normalisedTitle, maxDistance(normalisedTitle));
+            if (distances == null) {
+                distances = titleDistances;
+            } else {
+                Map<String, Integer> artistNameDistances = distances;
+                distances = new HashMap<>();
+                for (Map.Entry<String, Integer> match : titleDistances.entrySet()) {
+                    Integer artistNameDistance = artistNameDistances.get(match.getKey());
+                    if (artistNameDistance != null) {
+                        distances.put(match.getKey(), artistNameDistance + match.getValue());
+                    }
+                }
+            }
+        }
+        return distances == null ? Map.of() : FuzzyTermDictionary.nearest(distances, maxMatches);
+    }
+
+    static int maxDistance(String normalisedQuery) {
+        if (normalisedQuery.length() < 3) {
+            return 0;
+        }
+        return normalisedQuery.length() <= 5 ? 1 : MAX_DISTANCE;
+    }
+}
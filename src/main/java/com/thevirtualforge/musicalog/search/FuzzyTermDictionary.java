@@ -0,0 +1,84 @@
+package com.thevirtualforge.musicalog.search;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+class FuzzyTermDictionary {
+
+    private final DeletionIndex terms = new DeletionIndex(FuzzyAlbumIndex.MAX_DISTANCE);
+    private final ConcurrentMap<String, Set<String>> idsByTerm = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> termById = new ConcurrentHashMap<>();
+
+    void put(String id, String term) {
+        if (term == null || term.isEmpty()) {
+            remove(id);
+            return;
+        }
+
+        termById.compute(id, (albumId, previousTerm) -> {
+            if (previousTerm != null) {
+                removePosting(previousTerm, albumId);
+            }
+            idsByTerm.compute(term, (key, ids) -> {
+                Set<String> updated = ids;
+                if (updated == null) {
+                    updated = ConcurrentHashMap.newKeySet();
+                    terms.add(term);
+                }
+                updated.add(albumId);
+                return updated;
+            });
+            return term;
+        });
+    }
+
+    void remove(String id) {
+        termById.computeIfPresent(id, (albumId, previousTerm) -> {
+            removePosting(previousTerm, albumId);
+            return null;
+        });
+    }
+
+    void clear() {
+        termById.clear();
+        idsByTerm.clear();
+        terms.clear();
+    }
+
+    Map<String, Integer> find(String query, int maxDistance) {
+        Map<String, Integer> distances = new HashMap<>();
+        terms.search(query, maxDistance).forEach((term, distance) -> {
+            Set<String> ids = idsByTerm.get(term);
+            if (ids != null) {
+                ids.forEach(id -> distances.merge(id, distance, Math::min));
+            }
+        });
+        return distances;
+    }
+
+    static Map<String, Integer> nearest(Map<String, Integer> distances, int maxMatches) {
+        if (distances.size() <= maxMatches) {
+            return distances;
+        }
+        return distances.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+            .limit(maxMatches)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    // the term leaves the deletion index under the same lock that adds it, so a concurrent put cannot lose it
+    private void removePosting(String term, String id) {
+        idsByTerm.computeIfPresent(term, (key, ids) -> {
+            ids.remove(id);
+            if (!ids.isEmpty()) {
+                return ids;
+            }
+            terms.remove(term);
+            return null;
+        });
+    }
+}
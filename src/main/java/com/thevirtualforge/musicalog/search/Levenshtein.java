@@ -0,0 +1,59 @@
+package com.thevirtualforge.musicalog.search;
+
+public final class Levenshtein {
+
+    private Levenshtein() {
+    }
+
+    public static int distance(String a, String b) {
+        return distance(a, b, Math.max(a.length(), b.length()));
+    }
+
+    // only fills the diagonal band of width maxDistance and stops once a whole row is beyond it,
+    // returning maxDistance + 1 for anything further apart
+    public static int distance(String a, String b, int maxDistance) {
+        if (a.equals(b)) {
+            return 0;
+        }
+
+        int beyond = maxDistance + 1;
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return beyond;
+        }
+
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = Math.min(j, beyond);
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(b.length(), i + maxDistance);
+
+            current[0] = Math.min(i, beyond);
+            if (from > 1) {
+                current[from - 1] = beyond;
+            }
+
+            int rowMinimum = from == 1 ? current[0] : beyond;
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(beyond, Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1));
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (to < b.length()) {
+                current[to + 1] = beyond;
+            }
+            if (rowMinimum > maxDistance) {
+                return beyond;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
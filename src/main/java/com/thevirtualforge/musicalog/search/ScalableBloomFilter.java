@@ -0,0 +1,127 @@
+package com.thevirtualforge.musicalog.search;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+class ScalableBloomFilter {
+
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final ReentrantLock growLock = new ReentrantLock();
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+
+    ScalableBloomFilter(int initialCapacity, double falsePositiveRate) {
+        stages.add(new Stage(Math.max(initialCapacity, 1), falsePositiveRate));
+    }
+
+    void put(String value) {
+        long hash = hash(value);
+        if (contains(hash)) {
+            return;
+        }
+
+        Stage stage = stages.get(stages.size() - 1);
+        if (stage.isFull()) {
+            stage = grow(stage);
+        }
+        stage.put(hash);
+    }
+
+    boolean mightContain(String value) {
+        return contains(hash(value));
+    }
+
+    private boolean contains(long hash) {
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Stage grow(Stage full) {
+        growLock.lock();
+        try {
+            Stage last = stages.get(stages.size() - 1);
+            if (last != full) {
+                return last;
+            }
+            Stage next = new Stage(full.capacity * GROWTH_FACTOR, full.falsePositiveRate * TIGHTENING_RATIO);
+            stages.add(next);
+            return next;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    // MongoDB reads an ObjectId from hex in either case, so both spellings of an id must hash alike
+    private static long hash(String value) {
+        String canonical = ObjectId.isValid(value) ? value.toLowerCase(Locale.ROOT) : value;
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : canonical.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static class Stage {
+        private final int capacity;
+        private final double falsePositiveRate;
+        private final int hashCount;
+        private final long bitCount;
+        private final AtomicLongArray words;
+        private final AtomicInteger size = new AtomicInteger();
+
+        private Stage(int capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            this.bitCount = Math.max(64, (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        }
+
+        private boolean isFull() {
+            return size.get() >= capacity;
+        }
+
+        private void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+            size.incrementAndGet();
+        }
+
+        private boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.thevirtualforge.musicalog.search;
+
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumsInvalidatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+// answers title filters without a regex fallback, so it is only trusted while the change stream
+// delivers writes made by other nodes or straight to the database
+@Component
+@ConditionalOnExpression("${album-title-index.enabled:true} and ${album-change-stream.enabled:false}")
+public class TitleTrigramIndex implements ApplicationRunner {
+
+    public static final int GRAM_LENGTH = 3;
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxMatches;
+
+    private final ConcurrentMap<String, Set<String>> postings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> titles = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public TitleTrigramIndex(
+        MongoTemplate mongoTemplate,
+        @Value("${album-title-index.max-matches:10000}") int maxMatches) {
+
+        this.mongoTemplate = mongoTemplate;
+        this.maxMatches = maxMatches;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+    }
+
+    @EventListener
+    public void onAlbumSaved(AlbumSavedEvent event) {
+        put(event.getAlbum());
+    }
+
+    @EventListener
+    public void onAlbumDeleted(AlbumDeletedEvent event) {
+        remove(event.getId());
+    }
+
+    // changes were missed, so title filters use the regex until the index is rebuilt from Mongo
+    @EventListener
+    public void onAlbumsInvalidated(AlbumsInvalidatedEvent event) {
+        loaded = false;
+        titles.clear();
+        postings.clear();
+        load();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private void load() {
+        Query query = new Query().cursorBatchSize(LOAD_BATCH_SIZE);
+        query.fields().include(Album.TITLE);
+
+        try (Stream<Album> albums = mongoTemplate.stream(query, Album.class)) {
+            albums.forEach(this::put);
+        }
+        loaded = true;
+    }
+
+    public void put(Album album) {
+        String title = SearchTermNormaliser.normalise(album.getTitle());
+        if (title == null) {
+            remove(album.getId());
+            return;
+        }
+
+        titles.compute(album.getId(), (id, previousTitle) -> {
+            if (previousTitle != null) {
+                trigrams(previousTitle).forEach(trigram -> removePosting(trigram, id));
+            }
+            trigrams(title).forEach(trigram -> addPosting(trigram, id));
+            return title;
+        });
+    }
+
+    public void remove(String id) {
+        titles.computeIfPresent(id, (albumId, previousTitle) -> {
+            trigrams(previousTitle).forEach(trigram -> removePosting(trigram, albumId));
+            return null;
+        });
+    }
+
+    public Optional<Set<String>> findContaining(String normalisedQuery) {
+        if (!loaded || normalisedQuery == null || normalisedQuery.length() < GRAM_LENGTH) {
+            return Optional.empty();
+        }
+
+        List<Set<String>> postingLists = new ArrayList<>();
+        for (String trigram : trigrams(normalisedQuery)) {
+            Set<String> ids = postings.get(trigram);
+            if (ids == null) {
+                return Optional.of(Set.of());
+            }
+            postingLists.add(ids);
+        }
+        postingLists.sort(Comparator.comparingInt(Set::size));
+
+        Set<String> matches = new HashSet<>();
+        for (String id : postingLists.get(0)) {
+            if (containsAll(postingLists, id) && contains(id, normalisedQuery)) {
+                matches.add(id);
+                if (matches.size() > maxMatches) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.of(matches);
+    }
+
+    private boolean containsAll(List<Set<String>> postingLists, String id) {
+        for (int i = 1; i < postingLists.size(); i++) {
+            if (!postingLists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean contains(String id, String normalisedQuery) {
+        String title = titles.get(id);
+        return title != null && title.contains(normalisedQuery);
+    }
+
+    private void addPosting(String trigram, String id) {
+        postings.compute(trigram, (key, ids) -> {
+            Set<String> updated = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            updated.add(id);
+            return updated;
+        });
+    }
+
+    private void removePosting(String trigram, String id) {
+        postings.computeIfPresent(trigram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    static Set<String> trigrams(String value) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,13 @@
+package com.thevirtualforge.musicalog.service;
+
+import com.thevirtualforge.musicalog.dto.AlbumImportJobDTO;
+import com.thevirtualforge.musicalog.dto.AlbumImportRequestDTO;
+
+public interface AlbumImportService {
+
+    AlbumImportJobDTO startImport(final AlbumImportRequestDTO request);
+
+    AlbumImportJobDTO resumeImport(final String id);
+
+    AlbumImportJobDTO getImport(final String id);
+}
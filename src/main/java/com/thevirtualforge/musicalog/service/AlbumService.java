@@ -1,22 +1,55 @@
 package com.thevirtualforge.musicalog.service;
 
+import com.thevirtualforge.musicalog.dto.AlbumBatchDTO;
+import com.thevirtualforge.musicalog.dto.AlbumBulkCreateDTO;
 import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
 import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumJsonPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
 import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface AlbumService {
 
-    List<AlbumDTO> getAllAlbums();
+    AlbumPageDTO getAllAlbums(final AlbumPageRequestDTO page, final Set<AlbumField> fields);
 
-    AlbumDTO getAlbum(final String key);
+    AlbumJsonPageDTO getAllAlbumsJson(final AlbumPageRequestDTO page, final Set<AlbumField> fields);
 
-    List<AlbumDTO> getMatchingAlbums(final AlbumFilterDTO filter);
+    Stream<AlbumDTO> streamAlbums(final AlbumFilterDTO filter, final Set<AlbumField> fields);
+
+    AlbumDTO getAlbum(final String key, final Set<AlbumField> fields);
+
+    long getAlbumVersion(final String key);
+
+    OptionalLong getWriteGeneration();
+
+    AlbumBatchDTO getAlbums(final List<String> ids, final Set<AlbumField> fields);
+
+    AlbumPageDTO getMatchingAlbums(final AlbumFilterDTO filter, final AlbumPageRequestDTO page, final Set<AlbumField> fields);
+
+    AlbumJsonPageDTO getMatchingAlbumsJson(final AlbumFilterDTO filter, final AlbumPageRequestDTO page, final Set<AlbumField> fields);
+
+    AlbumFacetsDTO getAlbumFacets(final AlbumFilterDTO filter);
+
+    List<AlbumSuggestionDTO> suggestAlbums(final String query, final Integer limit);
 
     AlbumDTO createAlbum(final AlbumPayloadDTO payload);
 
-    void updateAlbum(final String id, final AlbumPayloadDTO payload);
+    AlbumBulkCreateDTO createAlbums(final List<AlbumPayloadDTO> payloads);
+
+    long updateAlbum(final String id, final AlbumPayloadDTO payload, final Collection<Long> expectedVersions);
+
+    AlbumStockDTO adjustStock(final String id, final int delta);
 
     void deleteAlbum(final String id);
 }
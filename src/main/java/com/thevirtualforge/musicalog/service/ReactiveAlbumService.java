@@ -0,0 +1,48 @@
+package com.thevirtualforge.musicalog.service;
+
+import com.thevirtualforge.musicalog.dto.AlbumBatchDTO;
+import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+
+public interface ReactiveAlbumService {
+
+    Mono<AlbumPageDTO> getAllAlbums(final AlbumPageRequestDTO page, final Set<AlbumField> fields);
+
+    Flux<AlbumDTO> streamAlbums(final AlbumFilterDTO filter, final Set<AlbumField> fields);
+
+    Mono<AlbumDTO> getAlbum(final String key, final Set<AlbumField> fields);
+
+    Mono<Long> getAlbumVersion(final String key);
+
+    OptionalLong getWriteGeneration();
+
+    Mono<AlbumBatchDTO> getAlbums(final List<String> ids, final Set<AlbumField> fields);
+
+    Mono<AlbumPageDTO> getMatchingAlbums(final AlbumFilterDTO filter, final AlbumPageRequestDTO page, final Set<AlbumField> fields);
+
+    Mono<AlbumFacetsDTO> getAlbumFacets(final AlbumFilterDTO filter);
+
+    Mono<List<AlbumSuggestionDTO>> suggestAlbums(final String query, final Integer limit);
+
+    Mono<AlbumDTO> createAlbum(final AlbumPayloadDTO payload);
+
+    Mono<Long> updateAlbum(final String id, final AlbumPayloadDTO payload, final Collection<Long> expectedVersions);
+
+    Mono<AlbumStockDTO> adjustStock(final String id, final int delta);
+
+    Mono<Void> deleteAlbum(final String id);
+}
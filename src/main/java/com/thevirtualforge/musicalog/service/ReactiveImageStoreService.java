@@ -0,0 +1,11 @@
+package com.thevirtualforge.musicalog.service;
+
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveImageStoreService {
+
+    Mono<Void> storeImage(final String key, final MultipartFile file);
+
+    Mono<Void> deleteImage(final String key);
+}
@@ -0,0 +1,12 @@
+package com.thevirtualforge.musicalog.service.event;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class AlbumDeletedEvent {
+    private final String id;
+}
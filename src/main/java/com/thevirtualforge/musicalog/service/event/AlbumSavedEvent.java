@@ -0,0 +1,13 @@
+package com.thevirtualforge.musicalog.service.event;
+
+import com.thevirtualforge.musicalog.model.Album;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class AlbumSavedEvent {
+    private final Album album;
+}
@@ -0,0 +1,7 @@
+package com.thevirtualforge.musicalog.service.event;
+
+import lombok.EqualsAndHashCode;
+
+@EqualsAndHashCode
+public class AlbumsInvalidatedEvent {
+}
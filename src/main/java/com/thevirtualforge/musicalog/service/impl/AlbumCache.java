@@ -0,0 +1,154 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.thevirtualforge.musicalog.model.Album;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+@Component
+public class AlbumCache implements MeterBinder {
+
+    static final String NAME = "albums";
+
+    // object headers, references and the boxed id, on top of one byte per Latin-1 character
+    private static final int ALBUM_OVERHEAD = 160;
+
+    private final long maxWeight;
+    private final Cache<String, Album> cache;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long invalidations;
+
+    @Autowired
+    public AlbumCache(
+        @Value("${album-cache.max-weight:32MB}") DataSize maxWeight,
+        @Value("${album-cache.ttl:5m}") Duration ttl) {
+
+        this(maxWeight.toBytes(), ttl, Ticker.systemTicker());
+    }
+
+    AlbumCache(long maxWeight, Duration ttl, Ticker ticker) {
+        this.maxWeight = maxWeight;
+        // maintenance runs on the calling thread, so evictions are counted before the call returns
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(Math.max(maxWeight, 0))
+            .weigher(AlbumCache::weigh)
+            .expireAfterWrite(ttl)
+            .ticker(ticker)
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
+    }
+
+    static int weigh(String id, Album album) {
+        return ALBUM_OVERHEAD
+            + length(id)
+            + length(album.getTitle())
+            + length(album.getArtistName())
+            + length(album.getCoverImageUrl())
+            + length(album.getTitleNormalised())
+            + length(album.getArtistNameNormalised());
+    }
+
+    public Optional<Album> get(String id, Function<String, Optional<Album>> loader) {
+        if (maxWeight < 1) {
+            return loader.apply(id);
+        }
+
+        Album cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long invalidationsBeforeLoad;
+        lock.lock();
+        try {
+            invalidationsBeforeLoad = invalidations;
+        } finally {
+            lock.unlock();
+        }
+
+        // loaded outside the cache so a slow read never holds a lock on the cache's hash bin
+        Optional<Album> loaded = loader.apply(id);
+        loaded.ifPresent(album -> put(id, album, invalidationsBeforeLoad));
+        return loaded;
+    }
+
+    public Optional<Album> getIfPresent(String id) {
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    public void invalidate(String id) {
+        lock.lock();
+        try {
+            cache.invalidate(id);
+            invalidations++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            cache.invalidateAll();
+            invalidations++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats getStats() {
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        return new Stats(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    private void put(String id, Album album, long invalidationsBeforeLoad) {
+        lock.lock();
+        try {
+            // a write landed while loading, so the loaded album may already be stale
+            if (invalidations != invalidationsBeforeLoad) {
+                return;
+            }
+            cache.put(id, album);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long size;
+    }
+}
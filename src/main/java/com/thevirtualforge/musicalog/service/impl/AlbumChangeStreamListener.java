@@ -0,0 +1,239 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.thevirtualforge.musicalog.model.Album;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "album-change-stream.enabled", havingValue = "true")
+public class AlbumChangeStreamListener implements SmartLifecycle {
+
+    static final String RESUME_TOKENS_COLLECTION = "albumChangeStreamResumeTokens";
+    static final String TOKEN = "token";
+    private static final String ID = "_id";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final MongoTemplate mongoTemplate;
+    private final AlbumChanges albumChanges;
+    private final String nodeId;
+    private final Duration retryDelay;
+    private final int checkpointEvery;
+    private final Duration checkpointInterval;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AlbumChangeStreamListener(
+        MongoTemplate mongoTemplate,
+        AlbumCache albumCache,
+        AlbumJsonCache albumJsonCache,
+        AlbumFacetCache albumFacetCache,
+        AlbumReadCoalescer albumReadCoalescer,
+        ApplicationEventPublisher eventPublisher,
+        @Value("${album-change-stream.node-id:${HOSTNAME:musicalog}}") String nodeId,
+        @Value("${album-change-stream.retry-delay:5s}") Duration retryDelay,
+        @Value("${album-change-stream.checkpoint-every:100}") int checkpointEvery,
+        @Value("${album-change-stream.checkpoint-interval:5s}") Duration checkpointInterval) {
+
+        this.mongoTemplate = mongoTemplate;
+        this.albumChanges = new AlbumChanges(albumReadCoalescer, albumCache, albumJsonCache, albumFacetCache, eventPublisher);
+        this.nodeId = nodeId;
+        this.retryDelay = retryDelay;
+        this.checkpointEvery = checkpointEvery;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = null;
+        try {
+            cursor = open();
+        } catch (RuntimeException e) {
+            log.warn("could not open album change stream for node {}, retrying in the background", nodeId, e);
+        }
+
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> initialCursor = cursor;
+        worker = new Thread(() -> listen(initialCursor), "album-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(retryDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen(MongoChangeStreamCursor<ChangeStreamDocument<Document>> initialCursor) {
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> next = initialCursor;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = next != null ? next : open()) {
+                next = null;
+                consume(cursor);
+            } catch (RuntimeException e) {
+                next = null;
+                if (e instanceof MongoException mongoException && mongoException.getCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    log.warn("album change stream fell off the oplog for node {}, flushing caches", nodeId, e);
+                    deleteResumeToken();
+                    flush();
+                } else if (running) {
+                    log.warn("album change stream failed for node {}, reopening in {}", nodeId, retryDelay, e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        BsonDocument resumeToken = loadResumeToken();
+        if (resumeToken == null) {
+            return changeStream().cursor();
+        }
+
+        try {
+            return changeStream().resumeAfter(resumeToken).cursor();
+        } catch (MongoCommandException e) {
+            log.warn("album change stream could not resume for node {}, flushing caches", nodeId, e);
+            deleteResumeToken();
+            flush();
+            return changeStream().cursor();
+        }
+    }
+
+    private ChangeStreamIterable<Document> changeStream() {
+        return albums().watch()
+            .fullDocument(FullDocument.UPDATE_LOOKUP)
+            .maxAwaitTime(1, TimeUnit.SECONDS);
+    }
+
+    // invalidations are idempotent, so after a crash replaying up to checkpointEvery changes is harmless
+    private void consume(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        BsonDocument savedToken = null;
+        int unsavedChanges = 0;
+        long lastCheckpoint = System.nanoTime();
+
+        while (running) {
+            ChangeStreamDocument<Document> change = cursor.tryNext();
+            if (change != null) {
+                if (change.getOperationType() == OperationType.INVALIDATE) {
+                    deleteResumeToken();
+                    flush();
+                    return;
+                }
+                apply(change);
+                unsavedChanges++;
+            }
+
+            // while the collection is quiet the post-batch token still advances, so an idle node keeps up with the oplog
+            BsonDocument resumeToken = cursor.getResumeToken();
+            boolean due = unsavedChanges >= checkpointEvery
+                || System.nanoTime() - lastCheckpoint >= checkpointInterval.toNanos();
+            if (due && resumeToken != null && !resumeToken.equals(savedToken)) {
+                saveResumeToken(resumeToken);
+                savedToken = resumeToken;
+                unsavedChanges = 0;
+                lastCheckpoint = System.nanoTime();
+            }
+        }
+
+        if (unsavedChanges > 0) {
+            saveResumeToken(cursor.getResumeToken());
+        }
+    }
+
+    private void apply(ChangeStreamDocument<Document> change) {
+        switch (change.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                // the album was deleted again before its full document was looked up
+                Document fullDocument = change.getFullDocument();
+                if (fullDocument == null) {
+                    albumChanges.albumRemoved(albumId(change.getDocumentKey()));
+                } else {
+                    albumChanges.albumChanged(mongoTemplate.getConverter().read(Album.class, fullDocument));
+                }
+            }
+            case DELETE -> albumChanges.albumRemoved(albumId(change.getDocumentKey()));
+            case DROP, DROP_DATABASE, RENAME -> flush();
+            default -> {
+            }
+        }
+    }
+
+    private void flush() {
+        albumChanges.allChanged();
+    }
+
+    private String albumId(BsonDocument documentKey) {
+        BsonValue id = documentKey.get(ID);
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private BsonDocument loadResumeToken() {
+        BsonDocument stored = resumeTokens().find(Filters.eq(ID, nodeId)).first();
+        return stored == null ? null : stored.getDocument(TOKEN);
+    }
+
+    private void saveResumeToken(BsonDocument resumeToken) {
+        resumeTokens().replaceOne(
+            Filters.eq(ID, nodeId),
+            new BsonDocument(ID, new BsonString(nodeId)).append(TOKEN, resumeToken),
+            new ReplaceOptions().upsert(true));
+    }
+
+    private void deleteResumeToken() {
+        resumeTokens().deleteOne(Filters.eq(ID, nodeId));
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private MongoCollection<Document> albums() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Album.class));
+    }
+
+    private MongoCollection<BsonDocument> resumeTokens() {
+        return mongoTemplate.getDb().getCollection(RESUME_TOKENS_COLLECTION, BsonDocument.class);
+    }
+}
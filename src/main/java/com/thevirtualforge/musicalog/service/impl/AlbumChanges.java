@@ -0,0 +1,70 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumsInvalidatedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collection;
+
+// drops every copy of an album this node holds, whether the write was made here or arrived on the change stream;
+// in-flight reads are forgotten first so they cannot put the old album back into the caches
+class AlbumChanges {
+
+    private final AlbumReadCoalescer albumReadCoalescer;
+    private final AlbumCache albumCache;
+    private final AlbumJsonCache albumJsonCache;
+    private final AlbumFacetCache albumFacetCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    AlbumChanges(
+        AlbumReadCoalescer albumReadCoalescer,
+        AlbumCache albumCache,
+        AlbumJsonCache albumJsonCache,
+        AlbumFacetCache albumFacetCache,
+        ApplicationEventPublisher eventPublisher) {
+
+        this.albumReadCoalescer = albumReadCoalescer;
+        this.albumCache = albumCache;
+        this.albumJsonCache = albumJsonCache;
+        this.albumFacetCache = albumFacetCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    void albumChanged(Album album) {
+        forget(album.getId());
+        albumFacetCache.bumpGeneration();
+        eventPublisher.publishEvent(new AlbumSavedEvent(album));
+    }
+
+    // one generation bump covers the whole batch
+    void albumsChanged(Collection<Album> albums) {
+        if (albums.isEmpty()) {
+            return;
+        }
+        albums.forEach(album -> forget(album.getId()));
+        albumFacetCache.bumpGeneration();
+        albums.forEach(album -> eventPublisher.publishEvent(new AlbumSavedEvent(album)));
+    }
+
+    void albumRemoved(String id) {
+        forget(id);
+        albumFacetCache.bumpGeneration();
+        eventPublisher.publishEvent(new AlbumDeletedEvent(id));
+    }
+
+    void allChanged() {
+        albumReadCoalescer.forgetAll();
+        albumCache.invalidateAll();
+        albumJsonCache.invalidateAll();
+        albumFacetCache.bumpGeneration();
+        eventPublisher.publishEvent(new AlbumsInvalidatedEvent());
+    }
+
+    private void forget(String id) {
+        albumReadCoalescer.forget(id);
+        albumCache.invalidate(id);
+        albumJsonCache.invalidate(id);
+    }
+}
@@ -0,0 +1,46 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.thevirtualforge.musicalog.service.ImageStoreService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class AlbumCoverUploader implements DisposableBean {
+
+    private final ImageStoreService imageStoreService;
+    private final ExecutorService executor;
+
+    public AlbumCoverUploader(
+        ImageStoreService imageStoreService,
+        @Value("${album-bulk.upload-concurrency:16}") int concurrency) {
+
+        this.imageStoreService = imageStoreService;
+        this.executor = Executors.newFixedThreadPool(concurrency, uploadThreads());
+    }
+
+    public CompletableFuture<Void> upload(String key, MultipartFile coverImage) {
+        return CompletableFuture.runAsync(() -> imageStoreService.storeImage(key, coverImage), executor);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory uploadThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "album-cover-upload-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
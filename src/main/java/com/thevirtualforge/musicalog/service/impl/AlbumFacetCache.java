@@ -0,0 +1,92 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@Component
+public class AlbumFacetCache {
+
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Ticker ticker;
+    private final boolean seesEveryWrite;
+    private final AtomicReference<Generation> generation;
+
+    @Autowired
+    public AlbumFacetCache(
+        @Value("${album-facets.cache.max-entries:1000}") int maxEntries,
+        @Value("${album-facets.cache.ttl:1m}") Duration ttl,
+        @Value("${album-change-stream.enabled:false}") boolean seesEveryWrite) {
+
+        this(maxEntries, ttl, Ticker.systemTicker(), seesEveryWrite);
+    }
+
+    AlbumFacetCache(int maxEntries, Duration ttl, Ticker ticker, boolean seesEveryWrite) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.ticker = ticker;
+        this.seesEveryWrite = seesEveryWrite;
+        this.generation = new AtomicReference<>(new Generation(0));
+    }
+
+    AlbumFacetCache(int maxEntries) {
+        this(maxEntries, DEFAULT_TTL, Ticker.systemTicker(), false);
+    }
+
+    public long getGeneration() {
+        return generation.get().number;
+    }
+
+    // without the change stream, writes from other nodes or straight to Mongo never bump the generation
+    public OptionalLong getWriteGeneration() {
+        return seesEveryWrite ? OptionalLong.of(getGeneration()) : OptionalLong.empty();
+    }
+
+    public void bumpGeneration() {
+        generation.updateAndGet(current -> new Generation(current.number + 1));
+    }
+
+    public AlbumFacetsDTO get(AlbumFilterDTO filter, Supplier<AlbumFacetsDTO> loader) {
+        Generation current = generation.get();
+        AlbumFilterKey key = AlbumFilterKey.of(filter);
+
+        AlbumFacetsDTO cached = current.entries.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        AlbumFacetsDTO loaded = loader.get();
+        if (current.entries.estimatedSize() < maxEntries) {
+            current.entries.asMap().putIfAbsent(key, loaded);
+        }
+        return loaded;
+    }
+
+    // only local writes bump the generation without the change stream, so the ttl bounds how stale facets get
+    private class Generation {
+        private final long number;
+        private final Cache<AlbumFilterKey, AlbumFacetsDTO> entries;
+
+        private Generation(long number) {
+            this.number = number;
+            this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .build();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.search.SearchTermNormaliser;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+@EqualsAndHashCode
+@RequiredArgsConstructor
+class AlbumFilterKey {
+    private final String title;
+    private final String artistName;
+    private final String search;
+    private final boolean regex;
+    private final boolean fuzzy;
+    private final String type;
+    private final Integer minStock;
+    private final Integer maxStock;
+    private final Boolean inStock;
+
+    static AlbumFilterKey of(AlbumFilterDTO filter) {
+        return new AlbumFilterKey(
+            SearchTermNormaliser.normalise(filter.getTitle()),
+            SearchTermNormaliser.normalise(filter.getArtistName()),
+            SearchTermNormaliser.normalise(filter.getSearch()),
+            Boolean.TRUE.equals(filter.getRegex()),
+            filter.usesFuzzySearch(),
+            filter.getType() == null ? null : filter.getType().toUpperCase(),
+            filter.getMinStock(),
+            filter.getMaxStock(),
+            filter.getInStock());
+    }
+}
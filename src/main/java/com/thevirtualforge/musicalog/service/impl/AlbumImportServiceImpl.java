@@ -0,0 +1,357 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.thevirtualforge.musicalog.dto.AlbumImportJobDTO;
+import com.thevirtualforge.musicalog.dto.AlbumImportRequestDTO;
+import com.thevirtualforge.musicalog.dto.AlbumImportRowDTO;
+import com.thevirtualforge.musicalog.exception.AlbumImportNotFoundException;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.mapper.AlbumMapper;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.AlbumImportJob;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumImportFormat;
+import com.thevirtualforge.musicalog.model.enums.AlbumImportStatus;
+import com.thevirtualforge.musicalog.repository.AlbumImportJobRepository;
+import com.thevirtualforge.musicalog.repository.AlbumRepository;
+import com.thevirtualforge.musicalog.service.AlbumImportService;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import io.awspring.cloud.s3.S3Template;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class AlbumImportServiceImpl implements AlbumImportService, DisposableBean {
+
+    private static final String S3_SCHEME = "s3://";
+    private static final int MAX_ERRORS = 20;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final AlbumImportJobRepository albumImportJobRepository;
+    private final AlbumRepository albumRepository;
+    private final AlbumMapper albumMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final S3Template s3Template;
+    private final AlbumFacetCache albumFacetCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path directory;
+    private final int batchSize;
+    private final Duration staleAfter;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+
+    public AlbumImportServiceImpl(
+        AlbumImportJobRepository albumImportJobRepository,
+        AlbumRepository albumRepository,
+        AlbumMapper albumMapper,
+        Validator validator,
+        ObjectMapper objectMapper,
+        S3Template s3Template,
+        AlbumFacetCache albumFacetCache,
+        ApplicationEventPublisher eventPublisher,
+        @Value("${album-import.directory:imports}") String directory,
+        @Value("${album-import.batch-size:1000}") int batchSize,
+        @Value("${album-import.concurrency:2}") int concurrency,
+        @Value("${album-import.stale-after:5m}") Duration staleAfter) {
+
+        this.albumImportJobRepository = albumImportJobRepository;
+        this.albumRepository = albumRepository;
+        this.albumMapper = albumMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.s3Template = s3Template;
+        this.albumFacetCache = albumFacetCache;
+        this.eventPublisher = eventPublisher;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.batchSize = batchSize;
+        this.staleAfter = staleAfter;
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "album-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public AlbumImportJobDTO startImport(final AlbumImportRequestDTO request) {
+        if (!request.getSource().startsWith(S3_SCHEME)) {
+            localFile(request.getSource());
+        }
+
+        Instant now = Instant.now();
+        AlbumImportJob job = albumImportJobRepository.insert(AlbumImportJob.builder()
+            .id(new ObjectId().toHexString())
+            .rowIdPrefix(newRowIdPrefix())
+            .source(request.getSource())
+            .format(AlbumImportFormat.valueOf(request.getFormat().toUpperCase()))
+            .status(AlbumImportStatus.RUNNING)
+            .startedAt(now)
+            .runStartedAt(now)
+            .updatedAt(now)
+            .build());
+
+        AlbumImportJobDTO started = albumMapper.albumImportJobToAlbumImportJobDTO(job);
+        submit(job);
+        return started;
+    }
+
+    @Override
+    public AlbumImportJobDTO resumeImport(final String id) {
+        AlbumImportJob job = findJob(id);
+        if (job.getStatus() == AlbumImportStatus.COMPLETED) {
+            throw new InvalidAlbumQueryException("album import " + id + " has already completed");
+        }
+
+        Instant now = Instant.now();
+        // a running job checkpoints after every batch, so only a stale one has lost its worker
+        if (running.contains(id)
+            || (job.getStatus() == AlbumImportStatus.RUNNING && job.getUpdatedAt().isAfter(now.minus(staleAfter)))) {
+            throw new InvalidAlbumQueryException("album import " + id + " is still running");
+        }
+
+        job.setStatus(AlbumImportStatus.RUNNING);
+        job.setFailure(null);
+        job.setRunStartedAt(now);
+        job.setRunStartRows(job.getCommittedRows());
+        job.setUpdatedAt(now);
+        albumImportJobRepository.save(job);
+
+        AlbumImportJobDTO resumed = albumMapper.albumImportJobToAlbumImportJobDTO(job);
+        submit(job);
+        return resumed;
+    }
+
+    @Override
+    public AlbumImportJobDTO getImport(final String id) {
+        return albumMapper.albumImportJobToAlbumImportJobDTO(findJob(id));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private AlbumImportJob findJob(String id) {
+        return albumImportJobRepository.findById(id)
+            .orElseThrow(() -> new AlbumImportNotFoundException("album import " + id + " not found"));
+    }
+
+    private void submit(AlbumImportJob job) {
+        running.add(job.getId());
+        executor.execute(() -> {
+            try {
+                run(job);
+            } finally {
+                running.remove(job.getId());
+            }
+        });
+    }
+
+    private void run(AlbumImportJob job) {
+        try (InputStream input = open(job.getSource());
+             MappingIterator<AlbumImportRowDTO> rows = reader(job.getFormat()).readValues(input)) {
+
+            long rowNumber = 0;
+            Batch batch = new Batch();
+            while (!Thread.currentThread().isInterrupted() && rows.hasNextValue()) {
+                AlbumImportRowDTO row;
+                rowNumber++;
+                try {
+                    row = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    row = null;
+                    if (rowNumber > job.getCommittedRows()) {
+                        batch.reject(rowNumber, List.of("row is malformed: " + e.getOriginalMessage()));
+                    }
+                }
+                // rows up to the checkpoint were committed by an earlier run
+                if (rowNumber <= job.getCommittedRows()) {
+                    continue;
+                }
+                if (row != null) {
+                    add(job, batch, rowNumber, row);
+                }
+                if (rowNumber - job.getCommittedRows() >= batchSize) {
+                    commit(job, batch, rowNumber);
+                    batch = new Batch();
+                }
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            commit(job, batch, rowNumber);
+            job.setStatus(AlbumImportStatus.COMPLETED);
+            job.setCompletedAt(job.getUpdatedAt());
+            albumImportJobRepository.save(job);
+            log.info("album import {} completed: {} imported, {} rejected, {} failed",
+                job.getId(), job.getImported(), job.getRejected(), job.getFailed());
+        } catch (IOException | RuntimeException e) {
+            log.warn("album import {} failed after {} rows", job.getId(), job.getCommittedRows(), e);
+            job.setStatus(AlbumImportStatus.FAILED);
+            job.setFailure(e.getMessage());
+            job.setUpdatedAt(Instant.now());
+            albumImportJobRepository.save(job);
+        }
+    }
+
+    private void add(AlbumImportJob job, Batch batch, long rowNumber, AlbumImportRowDTO row) {
+        List<String> errors = validator.validate(row).stream()
+            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+            .sorted()
+            .toList();
+        if (!errors.isEmpty()) {
+            batch.reject(rowNumber, errors);
+            return;
+        }
+
+        Album album = albumMapper.albumImportRowDTOToAlbum(row);
+        album.setId(rowId(job, rowNumber));
+        batch.albums.add(album);
+        batch.rowNumbers.add(rowNumber);
+    }
+
+    private void commit(AlbumImportJob job, Batch batch, long rowNumber) {
+        if (!batch.albums.isEmpty()) {
+            Set<Integer> failedIndexes = albumRepository.insertUnordered(batch.albums);
+            Set<String> alreadyImported = alreadyImported(batch.albums, failedIndexes);
+
+            for (int index = 0; index < batch.albums.size(); index++) {
+                Album album = batch.albums.get(index);
+                if (failedIndexes.contains(index) && !alreadyImported.contains(album.getId())) {
+                    batch.failed++;
+                    batch.errors.add("row " + batch.rowNumbers.get(index) + ": album could not be stored");
+                    continue;
+                }
+                batch.imported++;
+                eventPublisher.publishEvent(new AlbumSavedEvent(album));
+            }
+            albumFacetCache.bumpGeneration();
+        }
+
+        job.setCommittedRows(rowNumber);
+        job.setImported(job.getImported() + batch.imported);
+        job.setRejected(job.getRejected() + batch.rejected);
+        job.setFailed(job.getFailed() + batch.failed);
+        batch.errors.stream()
+            .limit(Math.max(0, MAX_ERRORS - job.getErrors().size()))
+            .forEach(job.getErrors()::add);
+        job.setUpdatedAt(Instant.now());
+        albumImportJobRepository.save(job);
+    }
+
+    // a crash between writing a batch and checkpointing it replays the batch, and the
+    // deterministic ids turn its already written rows into duplicate key failures
+    private Set<String> alreadyImported(List<Album> albums, Set<Integer> failedIndexes) {
+        if (failedIndexes.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> failedIds = failedIndexes.stream()
+            .map(index -> albums.get(index).getId())
+            .collect(Collectors.toSet());
+        return albumRepository.findAllByIds(failedIds, Set.of(AlbumField.ID)).stream()
+            .map(Album::getId)
+            .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    // the first eight bytes of a job id are its second and the process, so two jobs started in the same second
+    // would share them; a random prefix keeps each job's row ids apart
+    static String newRowIdPrefix() {
+        byte[] random = new byte[4];
+        RANDOM.nextBytes(random);
+        return HEX.formatHex(ByteBuffer.allocate(8)
+            .putInt((int) Instant.now().getEpochSecond())
+            .put(random)
+            .array());
+    }
+
+    static String rowId(AlbumImportJob job, long rowNumber) {
+        // jobs started before the prefix was stored keep deriving row ids from the job id, so they resume cleanly
+        byte[] prefix = job.getRowIdPrefix() == null
+            ? new ObjectId(job.getId()).toByteArray()
+            : HEX.parseHex(job.getRowIdPrefix());
+        return new ObjectId(ByteBuffer.allocate(12)
+            .put(prefix, 0, 8)
+            .putInt((int) rowNumber)
+            .array()).toHexString();
+    }
+
+    private InputStream open(String source) throws IOException {
+        if (source.startsWith(S3_SCHEME)) {
+            String location = source.substring(S3_SCHEME.length());
+            int slash = location.indexOf('/');
+            if (slash < 1 || slash == location.length() - 1) {
+                throw new InvalidAlbumQueryException("source " + source + " is not an s3://bucket/key url");
+            }
+            return s3Template.download(location.substring(0, slash), location.substring(slash + 1)).getInputStream();
+        }
+        return Files.newInputStream(localFile(source));
+    }
+
+    private Path localFile(String source) {
+        Path file = directory.resolve(source).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new InvalidAlbumQueryException("source " + source + " is not a file in the import directory");
+        }
+        return file;
+    }
+
+    private ObjectReader reader(AlbumImportFormat format) {
+        ObjectReader reader = switch (format) {
+            case CSV -> csvMapper.readerFor(AlbumImportRowDTO.class).with(CsvSchema.emptySchema().withHeader());
+            case NDJSON -> objectMapper.readerFor(AlbumImportRowDTO.class);
+        };
+        return reader.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    private static class Batch {
+        private final List<Album> albums = new ArrayList<>();
+        private final List<Long> rowNumbers = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+        private long failed;
+
+        private void reject(long rowNumber, List<String> rowErrors) {
+            rejected++;
+            errors.add("row " + rowNumber + ": " + String.join(", ", rowErrors));
+        }
+    }
+}
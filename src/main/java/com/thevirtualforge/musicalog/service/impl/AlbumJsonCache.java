@@ -0,0 +1,161 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.thevirtualforge.musicalog.mapper.AlbumMapper;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class AlbumJsonCache implements MeterBinder {
+
+    static final String NAME = "album-json";
+
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final AlbumMapper albumMapper;
+    private final ObjectMapper objectMapper;
+    private final long maxWeight;
+
+    // hits and misses are per representation, so they are recorded here rather than by lookups of the album entry
+    private final ConcurrentStatsCounter statsCounter = new ConcurrentStatsCounter();
+    private final Cache<String, Entry> cache;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long invalidations;
+
+    public AlbumJsonCache(
+        AlbumMapper albumMapper,
+        ObjectMapper objectMapper,
+        @Value("${album-json-cache.max-weight:64MB}") DataSize maxWeight,
+        @Value("${album-json-cache.ttl:10m}") Duration ttl) {
+
+        this.albumMapper = albumMapper;
+        this.objectMapper = objectMapper;
+        this.maxWeight = maxWeight.toBytes();
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(Math.max(this.maxWeight, 0))
+            .weigher((String id, Entry entry) -> entry.weight)
+            .expireAfterWrite(ttl)
+            .executor(Runnable::run)
+            .recordStats(() -> statsCounter)
+            .build();
+    }
+
+    public byte[] toJson(Album album, Set<AlbumField> fields) {
+        // scores belong to a single search, so scored albums are never cached
+        if (maxWeight < 1 || album.getScore() != null) {
+            return serialise(album, fields);
+        }
+
+        Entry entry = cache.asMap().get(album.getId());
+        if (entry != null && entry.version == album.getVersion()) {
+            byte[] json = entry.representations.get(fields);
+            if (json != null) {
+                statsCounter.recordHits(1);
+                return json;
+            }
+        }
+
+        long invalidationsBeforeLoad;
+        lock.lock();
+        try {
+            invalidationsBeforeLoad = invalidations;
+        } finally {
+            lock.unlock();
+        }
+
+        statsCounter.recordMisses(1);
+        byte[] json = serialise(album, fields);
+        put(album, Set.copyOf(fields), json, invalidationsBeforeLoad);
+        return json;
+    }
+
+    public void invalidate(String id) {
+        lock.lock();
+        try {
+            cache.invalidate(id);
+            invalidations++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            cache.invalidateAll();
+            invalidations++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public AlbumCache.Stats getStats() {
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        return new AlbumCache.Stats(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    private void put(Album album, Set<AlbumField> fields, byte[] json, long invalidationsBeforeLoad) {
+        lock.lock();
+        try {
+            if (invalidations != invalidationsBeforeLoad) {
+                return;
+            }
+
+            // entries are replaced rather than mutated so the cache re-weighs them
+            Map<Set<AlbumField>, byte[]> representations = new HashMap<>();
+            Entry entry = cache.asMap().get(album.getId());
+            if (entry != null && entry.version == album.getVersion()) {
+                representations.putAll(entry.representations);
+            }
+            representations.put(fields, json);
+            cache.put(album.getId(), new Entry(album.getVersion(), representations));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] serialise(Album album, Set<AlbumField> fields) {
+        try {
+            return objectMapper.writeValueAsBytes(albumMapper.albumToAlbumDTO(album, fields));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final long version;
+        private final Map<Set<AlbumField>, byte[]> representations;
+        private final int weight;
+
+        Entry(long version, Map<Set<AlbumField>, byte[]> representations) {
+            this(version, representations, ENTRY_OVERHEAD + representations.values().stream().mapToInt(json -> json.length).sum());
+        }
+    }
+}
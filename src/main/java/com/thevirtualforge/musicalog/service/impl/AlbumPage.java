@@ -0,0 +1,25 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import com.thevirtualforge.musicalog.repository.AlbumCursor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+class AlbumPage {
+    private final List<Album> albums;
+    private final String next;
+
+    // albums are fetched one past the limit so a next cursor is only issued when another page exists
+    static AlbumPage of(List<Album> albums, AlbumSort sort, int limit) {
+        if (albums.size() <= limit) {
+            return new AlbumPage(albums, null);
+        }
+        List<Album> page = albums.subList(0, limit);
+        return new AlbumPage(page, AlbumCursor.after(sort, page.get(limit - 1)).encode());
+    }
+}
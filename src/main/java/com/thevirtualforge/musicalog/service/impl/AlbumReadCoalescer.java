@@ -0,0 +1,85 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class AlbumReadCoalescer implements MeterBinder {
+
+    private final SingleFlight<String, Optional<Album>> albumsById = new SingleFlight<>();
+    private final SingleFlight<PageKey, AlbumPage> matchingPages = new SingleFlight<>();
+
+    public Optional<Album> findById(String id, Function<String, Optional<Album>> loader) {
+        return albumsById.execute(id, () -> loader.apply(id));
+    }
+
+    AlbumPage findMatchingPage(
+        AlbumFilterDTO filter,
+        AlbumPageRequestDTO page,
+        Set<AlbumField> fields,
+        Supplier<AlbumPage> loader) {
+
+        PageKey key = new PageKey(AlbumFilterKey.of(filter), page.getSort(), page.getCursor(), page.getLimit(), fields);
+        return matchingPages.execute(key, loader);
+    }
+
+    // a read that started before a write may return the old album, so this runs before the caches are invalidated
+    // and nobody who reads the new invalidation count can still join it
+    public void forget(String id) {
+        albumsById.forget(id);
+        matchingPages.forgetAll();
+    }
+
+    public void forgetAll() {
+        albumsById.forgetAll();
+        matchingPages.forgetAll();
+    }
+
+    public SingleFlight.Stats getAlbumByIdStats() {
+        return albumsById.getStats();
+    }
+
+    public SingleFlight.Stats getMatchingPageStats() {
+        return matchingPages.getStats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "by-id", albumsById);
+        bind(registry, "matching-page", matchingPages);
+    }
+
+    private static void bind(MeterRegistry registry, String read, SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder("album.reads.executions", singleFlight, flight -> flight.getStats().getExecutions())
+            .description("Album reads that went to Mongo")
+            .tag("read", read)
+            .register(registry);
+        FunctionCounter.builder("album.reads.coalesced", singleFlight, flight -> flight.getStats().getCoalesced())
+            .description("Album reads that joined an identical read already in flight")
+            .tag("read", read)
+            .register(registry);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class PageKey {
+        private final AlbumFilterKey filter;
+        private final String sort;
+        private final String cursor;
+        private final Integer limit;
+        private final Set<AlbumField> fields;
+    }
+}
@@ -1,114 +1,482 @@
 package com.thevirtualforge.musicalog.service.impl;
 
+import com.mongodb.MongoException;
+import com.thevirtualforge.musicalog.dto.AlbumBatchDTO;
+import com.thevirtualforge.musicalog.dto.AlbumBulkCreateDTO;
+import com.thevirtualforge.musicalog.dto.AlbumBulkItemDTO;
 import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
 import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumJsonPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
 import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
+import com.thevirtualforge.musicalog.exception.AlbumCoverNotStoredException;
 import com.thevirtualforge.musicalog.exception.AlbumNotFoundException;
+import com.thevirtualforge.musicalog.exception.AlbumStockOverflowException;
+import com.thevirtualforge.musicalog.exception.AlbumVersionMismatchException;
+import com.thevirtualforge.musicalog.exception.InsufficientAlbumStockException;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
 import com.thevirtualforge.musicalog.mapper.AlbumMapper;
 import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
 import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.repository.AlbumCursor;
 import com.thevirtualforge.musicalog.repository.AlbumRepository;
+import com.thevirtualforge.musicalog.repository.AlbumUpdate;
+import com.thevirtualforge.musicalog.search.AlbumIdFilter;
+import com.thevirtualforge.musicalog.search.AlbumSuggestionIndex;
+import com.thevirtualforge.musicalog.search.SearchTermNormaliser;
 import com.thevirtualforge.musicalog.service.AlbumService;
 import com.thevirtualforge.musicalog.service.ImageStoreService;
+import com.thevirtualforge.musicalog.validation.group.Create;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 public class AlbumServiceImpl implements AlbumService {
 
     private final AlbumRepository albumRepository;
     private final AlbumMapper albumMapper;
     private final ImageStoreService imageStoreService;
+    private final AlbumSuggestionIndex albumSuggestionIndex;
+    private final AlbumFacetCache albumFacetCache;
+    private final AlbumCache albumCache;
+    private final AlbumJsonCache albumJsonCache;
+    private final AlbumReadCoalescer albumReadCoalescer;
+    private final Optional<AlbumIdFilter> albumIdFilter;
+    private final Validator validator;
+    private final AlbumCoverUploader albumCoverUploader;
+    private final AlbumChanges albumChanges;
     private final String bucketName;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int topArtistNames;
+    private final int maxBatchSize;
+    private final int maxBulkSize;
 
     public AlbumServiceImpl(
         AlbumRepository albumRepository,
         AlbumMapper albumMapper,
         ImageStoreService imageStoreService,
-        @Value("${image-store.bucket-name}") String bucketName) {
+        AlbumSuggestionIndex albumSuggestionIndex,
+        ApplicationEventPublisher eventPublisher,
+        AlbumFacetCache albumFacetCache,
+        AlbumCache albumCache,
+        AlbumJsonCache albumJsonCache,
+        AlbumReadCoalescer albumReadCoalescer,
+        Optional<AlbumIdFilter> albumIdFilter,
+        Validator validator,
+        AlbumCoverUploader albumCoverUploader,
+        @Value("${image-store.bucket-name}") String bucketName,
+        @Value("${album-page.default-size:100}") int defaultPageSize,
+        @Value("${album-page.max-size:1000}") int maxPageSize,
+        @Value("${album-facets.top-artist-names:10}") int topArtistNames,
+        @Value("${album-batch.max-size:200}") int maxBatchSize,
+        @Value("${album-bulk.max-size:1000}") int maxBulkSize) {
 
         this.albumRepository = albumRepository;
         this.albumMapper = albumMapper;
         this.imageStoreService = imageStoreService;
+        this.albumSuggestionIndex = albumSuggestionIndex;
+        this.albumFacetCache = albumFacetCache;
+        this.albumCache = albumCache;
+        this.albumJsonCache = albumJsonCache;
+        this.albumReadCoalescer = albumReadCoalescer;
+        this.albumIdFilter = albumIdFilter;
+        this.validator = validator;
+        this.albumCoverUploader = albumCoverUploader;
+        this.albumChanges = new AlbumChanges(albumReadCoalescer, albumCache, albumJsonCache, albumFacetCache, eventPublisher);
         this.bucketName = bucketName;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.topArtistNames = topArtistNames;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBulkSize = maxBulkSize;
     }
 
     @Override
-    public List<AlbumDTO> getAllAlbums() {
-        List<Album> allAlbums = albumRepository.findAll();
-        return albumMapper.albumsToAlbumDTOs(allAlbums);
+    public AlbumPageDTO getAllAlbums(final AlbumPageRequestDTO page, final Set<AlbumField> fields) {
+        return toAlbumPageDTO(findPage(AlbumFilterDTO.builder().build(), page, fields), fields);
     }
 
     @Override
-    public AlbumDTO getAlbum(String key) {
-        Optional<Album> album = albumRepository.findById(key);
-        return album.map(albumMapper::albumToAlbumDTO)
+    public AlbumJsonPageDTO getAllAlbumsJson(final AlbumPageRequestDTO page, final Set<AlbumField> fields) {
+        return toAlbumJsonPageDTO(findPage(AlbumFilterDTO.builder().build(), page, fields), fields);
+    }
+
+    @Override
+    public Stream<AlbumDTO> streamAlbums(final AlbumFilterDTO filter, final Set<AlbumField> fields) {
+        return albumRepository.streamBy(filter, fields)
+            .map(album -> albumMapper.albumToAlbumDTO(album, fields));
+    }
+
+    @Override
+    public AlbumDTO getAlbum(String key, final Set<AlbumField> fields) {
+        if (albumIdFilter.isPresent() && !albumIdFilter.get().mightContain(key)) {
+            throw new AlbumNotFoundException("album " + key + " not found");
+        }
+        Optional<Album> album = albumCache.get(key, id -> albumReadCoalescer.findById(id, albumRepository::findById));
+        return album.map(found -> albumMapper.albumToAlbumDTO(found, fields))
+            .orElseThrow(() -> new AlbumNotFoundException("album " + key + " not found"));
+    }
+
+    @Override
+    public long getAlbumVersion(final String key) {
+        if (albumIdFilter.isPresent() && !albumIdFilter.get().mightContain(key)) {
+            throw new AlbumNotFoundException("album " + key + " not found");
+        }
+        return albumCache.getIfPresent(key)
+            .map(Album::getVersion)
+            .or(() -> albumRepository.findVersionById(key))
             .orElseThrow(() -> new AlbumNotFoundException("album " + key + " not found"));
     }
 
     @Override
-    public List<AlbumDTO> getMatchingAlbums(final AlbumFilterDTO filter) {
-        List<Album> matchingAlbums = albumRepository.findBy(filter);
-        return albumMapper.albumsToAlbumDTOs(matchingAlbums);
+    public OptionalLong getWriteGeneration() {
+        return albumFacetCache.getWriteGeneration();
+    }
+
+    @Override
+    public AlbumBatchDTO getAlbums(final List<String> ids, final Set<AlbumField> fields) {
+        Set<String> requestedIds = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id != null && !id.isBlank()) {
+                requestedIds.add(id.trim());
+            }
+        }
+        if (requestedIds.size() > maxBatchSize) {
+            throw new InvalidAlbumQueryException("ids must contain at most " + maxBatchSize + " ids");
+        }
+
+        Map<String, Album> albumsById = new HashMap<>();
+        if (!requestedIds.isEmpty()) {
+            albumRepository.findAllByIds(requestedIds, fields)
+                .forEach(album -> albumsById.put(album.getId(), album));
+        }
+
+        List<AlbumDTO> albums = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : requestedIds) {
+            Album album = albumsById.get(id);
+            if (album == null) {
+                missing.add(id);
+            } else {
+                albums.add(albumMapper.albumToAlbumDTO(album, fields));
+            }
+        }
+
+        return AlbumBatchDTO.builder()
+            .albums(albums)
+            .missing(missing)
+            .build();
+    }
+
+    @Override
+    public AlbumPageDTO getMatchingAlbums(final AlbumFilterDTO filter, final AlbumPageRequestDTO page, final Set<AlbumField> fields) {
+        return toAlbumPageDTO(findMatchingPage(filter, page, fields), fields);
+    }
+
+    @Override
+    public AlbumJsonPageDTO getMatchingAlbumsJson(final AlbumFilterDTO filter, final AlbumPageRequestDTO page, final Set<AlbumField> fields) {
+        return toAlbumJsonPageDTO(findMatchingPage(filter, page, fields), fields);
+    }
+
+    private AlbumPage findMatchingPage(AlbumFilterDTO filter, AlbumPageRequestDTO page, Set<AlbumField> fields) {
+        return albumReadCoalescer.findMatchingPage(filter, page, fields, () -> findPage(filter, page, fields));
+    }
+
+    private AlbumPageDTO toAlbumPageDTO(AlbumPage page, Set<AlbumField> fields) {
+        return AlbumPageDTO.builder()
+            .albums(albumMapper.albumsToAlbumDTOs(page.getAlbums(), fields))
+            .next(page.getNext())
+            .build();
+    }
+
+    private AlbumJsonPageDTO toAlbumJsonPageDTO(AlbumPage page, Set<AlbumField> fields) {
+        return AlbumJsonPageDTO.builder()
+            .albums(page.getAlbums().stream()
+                .map(album -> albumJsonCache.toJson(album, fields))
+                .toList())
+            .next(page.getNext())
+            .build();
+    }
+
+    private AlbumPage findPage(AlbumFilterDTO filter, AlbumPageRequestDTO page, Set<AlbumField> fields) {
+        AlbumSort sort = AlbumSort.fromParam(page.getSort());
+        AlbumCursor after = page.getCursor() == null ? null : AlbumCursor.decode(page.getCursor(), sort);
+        int limit = page.getLimit() == null ? defaultPageSize : Math.min(page.getLimit(), maxPageSize);
+
+        if (filter.isRanked()) {
+            if (after != null) {
+                throw new InvalidAlbumQueryException("cursor is not supported for ranked search");
+            }
+            return new AlbumPage(albumRepository.findBy(filter, sort, null, limit, fields), null);
+        }
+
+        return AlbumPage.of(albumRepository.findBy(filter, sort, after, limit + 1, fields), sort, limit);
+    }
+
+    @Override
+    public AlbumFacetsDTO getAlbumFacets(final AlbumFilterDTO filter) {
+        return albumFacetCache.get(filter, () ->
+            albumMapper.albumFacetsToAlbumFacetsDTO(albumRepository.facetsBy(filter, topArtistNames)));
+    }
+
+    @Override
+    public List<AlbumSuggestionDTO> suggestAlbums(final String query, final Integer limit) {
+        return albumSuggestionIndex.suggest(query, limit);
     }
 
     @Override
     @Transactional
     public AlbumDTO createAlbum(final AlbumPayloadDTO payload) {
         Album insertedAlbum = insertAlbumFromPayload(payload);
+        albumChanges.albumChanged(insertedAlbum);
         return albumMapper.albumToAlbumDTO(insertedAlbum);
     }
 
     private Album insertAlbumFromPayload(AlbumPayloadDTO payload) {
-        Album album = albumMapper.albumPayloadDTOToAlbum(payload);
-        Album insertedAlbum = albumRepository.insert(album);
-
-        imageStoreService.storeImage(insertedAlbum.getId(), payload.getCoverImage());
-        insertedAlbum.setCoverImageUrl("s3://" + bucketName + "/" + insertedAlbum.getId());
+        Album album = albumFromPayload(payload);
+        imageStoreService.storeImage(album.getId(), payload.getCoverImage());
 
         try {
-            albumRepository.save(insertedAlbum);
+            return albumRepository.insert(album);
         } catch (Exception e) {
-            imageStoreService.deleteImage(insertedAlbum.getId());
+            imageStoreService.deleteImage(album.getId());
             throw e;
         }
+    }
+
+    private Album albumFromPayload(AlbumPayloadDTO payload) {
+        Album album = albumMapper.albumPayloadDTOToAlbum(payload);
+        assignId(album, bucketName);
+        return album;
+    }
+
+    // the id is assigned up front so the cover url is known before the album is written
+    static void assignId(Album album, String bucketName) {
+        album.setId(new ObjectId().toHexString());
+        album.setCoverImageUrl("s3://" + bucketName + "/" + album.getId());
+    }
+
+    @Override
+    public AlbumBulkCreateDTO createAlbums(final List<AlbumPayloadDTO> payloads) {
+        if (payloads.size() > maxBulkSize) {
+            throw new InvalidAlbumQueryException("albums must contain at most " + maxBulkSize + " albums");
+        }
+
+        AlbumBulkItemDTO[] results = new AlbumBulkItemDTO[payloads.size()];
+        List<List<String>> errors = payloads.stream()
+            .map(this::validationErrors)
+            .toList();
+
+        Map<Integer, Album> albums = new HashMap<>();
+        Map<Integer, CompletableFuture<Void>> uploads = new HashMap<>();
+        for (int index = 0; index < payloads.size(); index++) {
+            if (!errors.get(index).isEmpty()) {
+                results[index] = bulkItem(index, null, AlbumBulkItemDTO.Status.INVALID, errors.get(index));
+                continue;
+            }
+
+            Album album = albumFromPayload(payloads.get(index));
+            albums.put(index, album);
+            uploads.put(index, albumCoverUploader.upload(album.getId(), payloads.get(index).getCoverImage()));
+        }
+
+        List<Integer> uploaded = new ArrayList<>();
+        for (int index = 0; index < payloads.size(); index++) {
+            if (!uploads.containsKey(index)) {
+                continue;
+            }
+            try {
+                uploads.get(index).join();
+                uploaded.add(index);
+            } catch (CompletionException e) {
+                results[index] = bulkItem(index, null, AlbumBulkItemDTO.Status.FAILED, List.of("coverImage could not be stored"));
+            }
+        }
+
+        BulkInsert insert = insertUnordered(uploaded.stream().map(albums::get).toList());
+
+        List<Album> created = new ArrayList<>();
+        for (int position = 0; position < uploaded.size(); position++) {
+            int index = uploaded.get(position);
+            Album album = albums.get(index);
+            if (insert.failed.contains(position)) {
+                if (!insert.coversInUse) {
+                    deleteCover(album.getId());
+                }
+                results[index] = bulkItem(index, null, AlbumBulkItemDTO.Status.FAILED, List.of("album could not be stored"));
+                continue;
+            }
+
+            results[index] = bulkItem(index, album.getId(), AlbumBulkItemDTO.Status.CREATED, null);
+            created.add(album);
+        }
+        albumChanges.albumsChanged(created);
+
+        return AlbumBulkCreateDTO.builder()
+            .created(created.size())
+            .failed(payloads.size() - created.size())
+            .albums(Arrays.asList(results))
+            .build();
+    }
+
+    // a failure of the whole write leaves it unknown which inserts landed, so every album is removed and reported
+    // failed rather than failing a batch whose covers are already uploaded
+    private BulkInsert insertUnordered(List<Album> albums) {
+        if (albums.isEmpty()) {
+            return new BulkInsert(Set.of(), false);
+        }
+        try {
+            return new BulkInsert(albumRepository.insertUnordered(albums), false);
+        } catch (DataAccessException | MongoException e) {
+            log.warn("Bulk insert of {} albums failed, removing them", albums.size(), e);
+            Set<Integer> all = IntStream.range(0, albums.size()).boxed().collect(Collectors.toSet());
+            try {
+                albumRepository.deleteAllById(albums.stream().map(Album::getId).toList());
+                return new BulkInsert(all, false);
+            } catch (DataAccessException | MongoException removalFailure) {
+                log.warn("Could not remove albums of a failed bulk insert, keeping their covers", removalFailure);
+                return new BulkInsert(all, true);
+            }
+        }
+    }
+
+    private void deleteCover(String id) {
+        try {
+            imageStoreService.deleteImage(id);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete cover of album {} that failed to insert", id, e);
+        }
+    }
+
+    private List<String> validationErrors(AlbumPayloadDTO payload) {
+        if (payload == null) {
+            return List.of("album must not be null");
+        }
+        return validator.validate(payload, Create.class).stream()
+            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+            .sorted()
+            .toList();
+    }
 
-        return insertedAlbum;
+    private static AlbumBulkItemDTO bulkItem(int index, String id, AlbumBulkItemDTO.Status status, List<String> errors) {
+        return AlbumBulkItemDTO.builder()
+            .index(index)
+            .id(id)
+            .status(status)
+            .errors(errors)
+            .build();
     }
 
     @Override
-    public void updateAlbum(final String id, final AlbumPayloadDTO payload) {
-        Optional<Album> optionalAlbum = albumRepository.findById(id);
-        if (optionalAlbum.isEmpty()) {
-            throw new AlbumNotFoundException("album " + id + " not found");
+    public long updateAlbum(final String id, final AlbumPayloadDTO payload, final Collection<Long> expectedVersions) {
+        Album album = albumRepository.updateById(id, albumUpdate(payload), expectedVersions)
+            .orElseThrow(() -> updateFailure(id, expectedVersions));
+        albumChanges.albumChanged(album);
+
+        // the cover is only stored once the update matched, so a stale or missing album keeps its cover; the fields
+        // are committed by then, so a failed upload is reported with the new version rather than as a failed update
+        if (payload.getCoverImage() != null) {
+            try {
+                imageStoreService.storeImage(id, payload.getCoverImage());
+            } catch (Exception e) {
+                throw new AlbumCoverNotStoredException(id, album.getVersion(), e);
+            }
         }
+        return album.getVersion();
+    }
 
-        Album album = optionalAlbum.get();
+    static AlbumUpdate albumUpdate(AlbumPayloadDTO payload) {
+        AlbumUpdate.AlbumUpdateBuilder update = AlbumUpdate.builder();
         if (payload.getTitle() != null && !payload.getTitle().isBlank()) {
-            album.setTitle(payload.getTitle());
+            update.title(payload.getTitle())
+                .titleNormalised(SearchTermNormaliser.normalise(payload.getTitle()));
         }
         if (payload.getArtistName() != null && !payload.getArtistName().isBlank()) {
-            album.setArtistName(payload.getArtistName());
+            update.artistName(payload.getArtistName())
+                .artistNameNormalised(SearchTermNormaliser.normalise(payload.getArtistName()));
         }
         if (payload.getType() != null && !payload.getType().isBlank()) {
-            album.setType(AlbumType.valueOf(payload.getType()));
+            update.type(AlbumType.valueOf(payload.getType().toUpperCase()));
+        }
+        return update.stock(payload.getStock()).build();
+    }
+
+    // only a missed conditional update needs a read, to tell a stale version from a missing album
+    private RuntimeException updateFailure(String id, Collection<Long> expectedVersions) {
+        if (expectedVersions != null && albumRepository.findVersionById(id).isPresent()) {
+            return new AlbumVersionMismatchException("album " + id + " has changed");
         }
-        if (payload.getStock() != null) {
-            album.setStock(payload.getStock());
+        return new AlbumNotFoundException("album " + id + " not found");
+    }
+
+    @Override
+    public AlbumStockDTO adjustStock(final String id, final int delta) {
+        Album album = albumRepository.adjustStock(id, delta)
+            .orElseThrow(() -> stockAdjustmentFailure(id, delta));
+        albumChanges.albumChanged(album);
+        return albumStock(album);
+    }
+
+    static AlbumStockDTO albumStock(Album album) {
+        return AlbumStockDTO.builder()
+            .id(album.getId())
+            .stock(album.getStock())
+            .build();
+    }
+
+    // a missed adjustment of an album that exists was refused by the stock bounds
+    private RuntimeException stockAdjustmentFailure(String id, int delta) {
+        if (albumRepository.findVersionById(id).isEmpty()) {
+            return new AlbumNotFoundException("album " + id + " not found");
         }
-        if (payload.getCoverImage() != null) {
-            imageStoreService.storeImage(id, payload.getCoverImage());
+        if (delta < 0) {
+            return new InsufficientAlbumStockException("album " + id + " has insufficient stock");
         }
-        albumRepository.save(album);
+        return new AlbumStockOverflowException("album " + id + " stock would exceed " + Integer.MAX_VALUE);
     }
 
     @Override
     public void deleteAlbum(String id) {
         albumRepository.deleteById(id);
+        albumChanges.albumRemoved(id);
         imageStoreService.deleteImage(id);
     }
+
+    @RequiredArgsConstructor
+    private static class BulkInsert {
+        private final Set<Integer> failed;
+        // some of the albums may still be stored, so their covers have to stay
+        private final boolean coversInUse;
+    }
 }
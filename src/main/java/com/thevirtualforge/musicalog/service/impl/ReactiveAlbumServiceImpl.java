@@ -0,0 +1,283 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.thevirtualforge.musicalog.dto.AlbumBatchDTO;
+import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
+import com.thevirtualforge.musicalog.exception.AlbumCoverNotStoredException;
+import com.thevirtualforge.musicalog.exception.AlbumNotFoundException;
+import com.thevirtualforge.musicalog.exception.AlbumStockOverflowException;
+import com.thevirtualforge.musicalog.exception.AlbumVersionMismatchException;
+import com.thevirtualforge.musicalog.exception.InsufficientAlbumStockException;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.mapper.AlbumMapper;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import com.thevirtualforge.musicalog.repository.AlbumCursor;
+import com.thevirtualforge.musicalog.repository.ReactiveAlbumRepository;
+import com.thevirtualforge.musicalog.search.AlbumIdFilter;
+import com.thevirtualforge.musicalog.search.AlbumSuggestionIndex;
+import com.thevirtualforge.musicalog.service.ReactiveAlbumService;
+import com.thevirtualforge.musicalog.service.ReactiveImageStoreService;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAlbumServiceImpl implements ReactiveAlbumService {
+
+    private final ReactiveAlbumRepository albumRepository;
+    private final AlbumMapper albumMapper;
+    private final ReactiveImageStoreService imageStoreService;
+    private final AlbumSuggestionIndex albumSuggestionIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AlbumFacetCache albumFacetCache;
+    private final AlbumCache albumCache;
+    private final AlbumJsonCache albumJsonCache;
+    private final Optional<AlbumIdFilter> albumIdFilter;
+    private final String bucketName;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int topArtistNames;
+    private final int maxBatchSize;
+
+    public ReactiveAlbumServiceImpl(
+        ReactiveAlbumRepository albumRepository,
+        AlbumMapper albumMapper,
+        ReactiveImageStoreService imageStoreService,
+        AlbumSuggestionIndex albumSuggestionIndex,
+        ApplicationEventPublisher eventPublisher,
+        AlbumFacetCache albumFacetCache,
+        AlbumCache albumCache,
+        AlbumJsonCache albumJsonCache,
+        Optional<AlbumIdFilter> albumIdFilter,
+        @Value("${image-store.bucket-name}") String bucketName,
+        @Value("${album-page.default-size:100}") int defaultPageSize,
+        @Value("${album-page.max-size:1000}") int maxPageSize,
+        @Value("${album-facets.top-artist-names:10}") int topArtistNames,
+        @Value("${album-batch.max-size:200}") int maxBatchSize) {
+
+        this.albumRepository = albumRepository;
+        this.albumMapper = albumMapper;
+        this.imageStoreService = imageStoreService;
+        this.albumSuggestionIndex = albumSuggestionIndex;
+        this.eventPublisher = eventPublisher;
+        this.albumFacetCache = albumFacetCache;
+        this.albumCache = albumCache;
+        this.albumJsonCache = albumJsonCache;
+        this.albumIdFilter = albumIdFilter;
+        this.bucketName = bucketName;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.topArtistNames = topArtistNames;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public Mono<AlbumPageDTO> getAllAlbums(final AlbumPageRequestDTO page, final Set<AlbumField> fields) {
+        return getMatchingAlbums(AlbumFilterDTO.builder().build(), page, fields);
+    }
+
+    @Override
+    public Flux<AlbumDTO> streamAlbums(final AlbumFilterDTO filter, final Set<AlbumField> fields) {
+        return albumRepository.streamBy(filter, fields)
+            .map(album -> albumMapper.albumToAlbumDTO(album, fields));
+    }
+
+    @Override
+    public Mono<AlbumDTO> getAlbum(final String key, final Set<AlbumField> fields) {
+        if (albumIdFilter.isPresent() && !albumIdFilter.get().mightContain(key)) {
+            return Mono.error(new AlbumNotFoundException("album " + key + " not found"));
+        }
+        return albumRepository.findById(key)
+            .map(album -> albumMapper.albumToAlbumDTO(album, fields))
+            .switchIfEmpty(Mono.error(() -> new AlbumNotFoundException("album " + key + " not found")));
+    }
+
+    @Override
+    public Mono<Long> getAlbumVersion(final String key) {
+        if (albumIdFilter.isPresent() && !albumIdFilter.get().mightContain(key)) {
+            return Mono.error(new AlbumNotFoundException("album " + key + " not found"));
+        }
+        return albumRepository.findVersionById(key)
+            .switchIfEmpty(Mono.error(() -> new AlbumNotFoundException("album " + key + " not found")));
+    }
+
+    @Override
+    public OptionalLong getWriteGeneration() {
+        return albumFacetCache.getWriteGeneration();
+    }
+
+    @Override
+    public Mono<AlbumBatchDTO> getAlbums(final List<String> ids, final Set<AlbumField> fields) {
+        Set<String> requestedIds = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id != null && !id.isBlank()) {
+                requestedIds.add(id.trim());
+            }
+        }
+        if (requestedIds.size() > maxBatchSize) {
+            return Mono.error(new InvalidAlbumQueryException("ids must contain at most " + maxBatchSize + " ids"));
+        }
+
+        Mono<Map<String, Album>> found = requestedIds.isEmpty()
+            ? Mono.just(Map.of())
+            : albumRepository.findAllByIds(requestedIds, fields).collectMap(Album::getId);
+
+        return found.map(albumsById -> {
+            List<AlbumDTO> albums = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            for (String id : requestedIds) {
+                Album album = albumsById.get(id);
+                if (album == null) {
+                    missing.add(id);
+                } else {
+                    albums.add(albumMapper.albumToAlbumDTO(album, fields));
+                }
+            }
+
+            return AlbumBatchDTO.builder()
+                .albums(albums)
+                .missing(missing)
+                .build();
+        });
+    }
+
+    @Override
+    public Mono<AlbumPageDTO> getMatchingAlbums(final AlbumFilterDTO filter, final AlbumPageRequestDTO page, final Set<AlbumField> fields) {
+        return Mono.defer(() -> findPage(filter, page, fields))
+            .map(albums -> AlbumPageDTO.builder()
+                .albums(albumMapper.albumsToAlbumDTOs(albums.getAlbums(), fields))
+                .next(albums.getNext())
+                .build());
+    }
+
+    private Mono<AlbumPage> findPage(AlbumFilterDTO filter, AlbumPageRequestDTO page, Set<AlbumField> fields) {
+        AlbumSort sort = AlbumSort.fromParam(page.getSort());
+        AlbumCursor after = page.getCursor() == null ? null : AlbumCursor.decode(page.getCursor(), sort);
+        int limit = page.getLimit() == null ? defaultPageSize : Math.min(page.getLimit(), maxPageSize);
+
+        if (filter.isRanked()) {
+            if (after != null) {
+                return Mono.error(new InvalidAlbumQueryException("cursor is not supported for ranked search"));
+            }
+            return albumRepository.findBy(filter, sort, null, limit, fields)
+                .collectList()
+                .map(albums -> new AlbumPage(albums, null));
+        }
+
+        return albumRepository.findBy(filter, sort, after, limit + 1, fields)
+            .collectList()
+            .map(albums -> AlbumPage.of(albums, sort, limit));
+    }
+
+    @Override
+    public Mono<AlbumFacetsDTO> getAlbumFacets(final AlbumFilterDTO filter) {
+        return albumRepository.facetsBy(filter, topArtistNames)
+            .map(albumMapper::albumFacetsToAlbumFacetsDTO);
+    }
+
+    @Override
+    public Mono<List<AlbumSuggestionDTO>> suggestAlbums(final String query, final Integer limit) {
+        return Mono.fromSupplier(() -> albumSuggestionIndex.suggest(query, limit));
+    }
+
+    @Override
+    public Mono<AlbumDTO> createAlbum(final AlbumPayloadDTO payload) {
+        return Mono.fromSupplier(() -> {
+                Album album = albumMapper.albumPayloadDTOToAlbum(payload);
+                AlbumServiceImpl.assignId(album, bucketName);
+                return album;
+            })
+            .flatMap(album -> imageStoreService.storeImage(album.getId(), payload.getCoverImage())
+                .then(Mono.defer(() -> albumRepository.insert(album)
+                    .onErrorResume(e -> imageStoreService.deleteImage(album.getId()).then(Mono.error(e))))))
+            .doOnNext(insertedAlbum -> {
+                albumCache.invalidate(insertedAlbum.getId());
+                albumJsonCache.invalidate(insertedAlbum.getId());
+                albumFacetCache.bumpGeneration();
+                eventPublisher.publishEvent(new AlbumSavedEvent(insertedAlbum));
+            })
+            .map(albumMapper::albumToAlbumDTO);
+    }
+
+    @Override
+    public Mono<Long> updateAlbum(final String id, final AlbumPayloadDTO payload, final Collection<Long> expectedVersions) {
+        return albumRepository.updateById(id, AlbumServiceImpl.albumUpdate(payload), expectedVersions)
+            .switchIfEmpty(Mono.defer(() -> updateFailure(id, expectedVersions)))
+            .doOnNext(album -> {
+                albumCache.invalidate(id);
+                albumJsonCache.invalidate(id);
+                albumFacetCache.bumpGeneration();
+                eventPublisher.publishEvent(new AlbumSavedEvent(album));
+            })
+            .flatMap(album -> payload.getCoverImage() == null
+                ? Mono.just(album.getVersion())
+                : imageStoreService.storeImage(id, payload.getCoverImage())
+                    .onErrorMap(e -> new AlbumCoverNotStoredException(id, album.getVersion(), e))
+                    .thenReturn(album.getVersion()));
+    }
+
+    private Mono<Album> updateFailure(String id, Collection<Long> expectedVersions) {
+        if (expectedVersions == null) {
+            return Mono.error(new AlbumNotFoundException("album " + id + " not found"));
+        }
+        return albumRepository.findVersionById(id)
+            .flatMap(version -> Mono.<Album>error(new AlbumVersionMismatchException("album " + id + " has changed")))
+            .switchIfEmpty(Mono.error(() -> new AlbumNotFoundException("album " + id + " not found")));
+    }
+
+    @Override
+    public Mono<AlbumStockDTO> adjustStock(final String id, final int delta) {
+        return albumRepository.adjustStock(id, delta)
+            .switchIfEmpty(Mono.defer(() -> stockAdjustmentFailure(id, delta)))
+            .doOnNext(album -> {
+                albumCache.invalidate(id);
+                albumJsonCache.invalidate(id);
+                albumFacetCache.bumpGeneration();
+                eventPublisher.publishEvent(new AlbumSavedEvent(album));
+            })
+            .map(AlbumServiceImpl::albumStock);
+    }
+
+    private Mono<Album> stockAdjustmentFailure(String id, int delta) {
+        return albumRepository.findVersionById(id)
+            .flatMap(version -> Mono.<Album>error(delta < 0
+                ? new InsufficientAlbumStockException("album " + id + " has insufficient stock")
+                : new AlbumStockOverflowException("album " + id + " stock would exceed " + Integer.MAX_VALUE)))
+            .switchIfEmpty(Mono.error(() -> new AlbumNotFoundException("album " + id + " not found")));
+    }
+
+    @Override
+    public Mono<Void> deleteAlbum(final String id) {
+        return albumRepository.deleteById(id)
+            .then(Mono.fromRunnable(() -> {
+                albumCache.invalidate(id);
+                albumJsonCache.invalidate(id);
+                albumFacetCache.bumpGeneration();
+                eventPublisher.publishEvent(new AlbumDeletedEvent(id));
+            }))
+            .then(imageStoreService.deleteImage(id));
+    }
+}
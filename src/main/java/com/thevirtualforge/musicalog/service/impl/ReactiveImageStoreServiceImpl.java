@@ -0,0 +1,44 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.thevirtualforge.musicalog.service.ReactiveImageStoreService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveImageStoreServiceImpl implements ReactiveImageStoreService {
+
+    private final S3AsyncClient s3AsyncClient;
+    private final String bucketName;
+
+    public ReactiveImageStoreServiceImpl(
+        @Value("${image-store.bucket-name}") String bucketName,
+        S3AsyncClient s3AsyncClient) {
+
+        this.s3AsyncClient = s3AsyncClient;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public Mono<Void> storeImage(final String key, final MultipartFile file) {
+        return Mono.fromCallable(file::getBytes)
+            .flatMap(content -> Mono.fromFuture(() -> s3AsyncClient.putObject(
+                PutObjectRequest.builder().bucket(bucketName).key(key).build(),
+                AsyncRequestBody.fromBytes(content))))
+            .then();
+    }
+
+    @Override
+    public Mono<Void> deleteImage(final String key) {
+        return Mono.fromFuture(() -> s3AsyncClient.deleteObject(
+                DeleteObjectRequest.builder().bucket(bucketName).key(key).build()))
+            .then();
+    }
+}
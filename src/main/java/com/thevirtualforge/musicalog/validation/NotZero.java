@@ -0,0 +1,22 @@
+package com.thevirtualforge.musicalog.validation;
+
+import com.thevirtualforge.musicalog.validation.constraint.NotZeroValidator;
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+@Target({FIELD})
+@Retention(RUNTIME)
+@Documented
+@Constraint(validatedBy = NotZeroValidator.class)
+public @interface NotZero {
+    String message() default "must not be zero";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,13 @@
+package com.thevirtualforge.musicalog.validation.constraint;
+
+import com.thevirtualforge.musicalog.validation.NotZero;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class NotZeroValidator implements ConstraintValidator<NotZero, Integer> {
+
+    @Override
+    public boolean isValid(Integer value, ConstraintValidatorContext context) {
+        return value == null || value != 0;
+    }
+}
@@ -0,0 +1,218 @@
+package com.thevirtualforge.musicalog;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.sun.net.httpserver.HttpServer;
+import com.thevirtualforge.musicalog.configuration.TestMongoContainerConfiguration;
+import com.thevirtualforge.musicalog.model.Album;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("load")
+@Import(AlbumCreateLoadTest.AlbumWrites.class)
+@ContextConfiguration(classes = TestMongoContainerConfiguration.class)
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.threads.virtual.enabled=false")
+class AlbumCreateLoadTest {
+
+    private static final Duration S3_LATENCY = Duration.ofMillis(200);
+    private static final String BOUNDARY = "album-load-test";
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AlbumWrites albumWrites;
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.aws.credentials.access-key", () -> "noop");
+        registry.add("spring.cloud.aws.credentials.secret-key", () -> "noop");
+        registry.add("spring.cloud.aws.s3.region", () -> "eu-west-1");
+        registry.add("spring.cloud.aws.s3.endpoint", () -> "http://localhost:" + SlowS3.PORT);
+        registry.add("image-store.max-connections", () -> "2000");
+        registry.add("server.tomcat.max-connections", () -> "20000");
+        registry.add("server.tomcat.accept-count", () -> "10000");
+    }
+
+    @AfterEach
+    void cleanup() {
+        mongoTemplate.remove(new Query(), Album.class);
+    }
+
+    @ParameterizedTest(name = "{0} concurrent connections")
+    @ValueSource(ints = {1_000, 5_000, 10_000})
+    void createAlbumsAgainstSlowS3(int connections) throws IOException {
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMinutes(1))
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/albums"))
+            .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(albumPayload()))
+            .build();
+
+        albumWrites.reset();
+        long started = System.nanoTime();
+        List<CompletableFuture<Long>> calls = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            long sent = System.nanoTime();
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> response.statusCode() == 201 ? System.nanoTime() - sent : -1L)
+                .exceptionally(e -> -1L));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        long elapsed = System.nanoTime() - started;
+
+        long[] latencies = calls.stream()
+            .mapToLong(CompletableFuture::join)
+            .filter(latency -> latency >= 0)
+            .sorted()
+            .toArray();
+        assertThat(latencies).as("successful creates").isNotEmpty();
+
+        long p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+        double mean = Arrays.stream(latencies).average().orElse(0);
+        System.out.printf("virtual threads %s, %,d connections: %,.0f creates/s, mean %,.0f ms, p99 %,d ms, "
+                + "%.2f album writes per create, %,d failed%n",
+            virtualThreads,
+            connections,
+            latencies.length / (elapsed / 1e9),
+            mean / 1e6,
+            TimeUnit.NANOSECONDS.toMillis(p99),
+            albumWrites.get() / (double) latencies.length,
+            connections - latencies.length);
+
+        // each create is one insert, whether or not it succeeds
+        assertThat(albumWrites.get()).as("album writes").isLessThanOrEqualTo(connections);
+    }
+
+    private byte[] albumPayload() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeField(body, "title", "Load Test");
+        writeField(body, "artistName", "Load Tester");
+        writeField(body, "type", "CD");
+        writeField(body, "stock", "1");
+        write(body, "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"coverImage\"; filename=\"cover.png\"\r\n"
+            + "Content-Type: image/png\r\n\r\n");
+        try (InputStream coverImage = getClass().getResourceAsStream("/cover-image-250x250.png")) {
+            body.write(coverImage.readAllBytes());
+        }
+        write(body, "\r\n--" + BOUNDARY + "--\r\n");
+        return body.toByteArray();
+    }
+
+    private static void writeField(ByteArrayOutputStream body, String name, String value) {
+        write(body, "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+            + value + "\r\n");
+    }
+
+    private static void write(ByteArrayOutputStream body, String text) {
+        body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // counts insert and update commands sent for the albums collection
+    @TestConfiguration
+    static class AlbumWrites {
+
+        private final AtomicLong writes = new AtomicLong();
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer albumWriteCounter() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    String command = event.getCommandName();
+                    if ((command.equals("insert") || command.equals("update"))
+                        && event.getCommand().getString(command).getValue().equals("albums")) {
+                        writes.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        void reset() {
+            writes.set(0);
+        }
+
+        long get() {
+            return writes.get();
+        }
+    }
+
+    // stands in for S3, answering every request after a fixed delay without holding a thread while it waits
+    private static class SlowS3 {
+
+        static final int PORT;
+
+        static {
+            try {
+                ScheduledExecutorService delays = Executors.newScheduledThreadPool(4);
+                HttpServer server = HttpServer.create(new InetSocketAddress(0), 10_000);
+                server.setExecutor(Executors.newFixedThreadPool(16));
+                server.createContext("/", exchange -> {
+                    exchange.getRequestBody().readAllBytes();
+                    delays.schedule(() -> {
+                        try {
+                            exchange.sendResponseHeaders(200, -1);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        } finally {
+                            exchange.close();
+                        }
+                    }, S3_LATENCY.toMillis(), TimeUnit.MILLISECONDS);
+                });
+                server.start();
+                PORT = server.getAddress().getPort();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.thevirtualforge.musicalog;
+
+import com.thevirtualforge.musicalog.configuration.TestMongoContainerConfiguration;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("memory")
+@Testcontainers
+@ContextConfiguration(classes = TestMongoContainerConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CatalogExportMemoryTest {
+
+    private static final int ALBUM_COUNT = 1_000_000;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.aws.credentials.access-key", () -> "noop");
+        registry.add("spring.cloud.aws.credentials.secret-key", () -> "noop");
+        registry.add("spring.cloud.aws.s3.region", () -> "eu-west-1");
+        registry.add("spring.mvc.async.request-timeout", () -> "-1");
+    }
+
+    @BeforeEach
+    void setup() {
+        for (int batchStart = 0; batchStart < ALBUM_COUNT; batchStart += INSERT_BATCH_SIZE) {
+            List<Album> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int i = batchStart; i < batchStart + INSERT_BATCH_SIZE; i++) {
+                batch.add(Album.builder()
+                    .title("Synthetic Album " + i)
+                    .artistName("Synthetic Artist " + (i % 5_000))
+                    .type(i % 2 == 0 ? AlbumType.CD : AlbumType.VINYL)
+                    .stock(i % 10)
+                    .coverImageUrl("s3://image-bucket/" + i)
+                    .build());
+            }
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Album.class)
+                .insert(batch)
+                .execute();
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        mongoTemplate.remove(new Query(), "albums");
+    }
+
+    @Test
+    void givenLargeCatalog_whenStreamedAsNdjson_thenEveryAlbumWrittenWithinSmallHeap() {
+        Long lines = webTestClient.mutate()
+            .responseTimeout(Duration.ofMinutes(10))
+            .build()
+            .get().uri("/api/albums")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(DataBuffer.class)
+            .getResponseBody()
+            .map(buffer -> {
+                long newlines = 0;
+                for (int i = buffer.readPosition(); i < buffer.writePosition(); i++) {
+                    if (buffer.getByte(i) == '\n') {
+                        newlines++;
+                    }
+                }
+                DataBufferUtils.release(buffer);
+                return newlines;
+            })
+            .reduce(0L, Long::sum)
+            .block();
+
+        assertThat(lines).isEqualTo(ALBUM_COUNT);
+    }
+}
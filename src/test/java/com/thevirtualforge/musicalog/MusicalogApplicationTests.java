@@ -1,9 +1,13 @@
 package com.thevirtualforge.musicalog;
 
 import com.thevirtualforge.musicalog.configuration.TestMongoContainerConfiguration;
+import com.thevirtualforge.musicalog.controller.AlbumController;
 import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
 import com.thevirtualforge.musicalog.model.Album;
 import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import org.bson.types.ObjectId;
 import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,16 +15,26 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.stereotype.Component;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.util.MultiValueMap;
 import org.testcontainers.containers.localstack.LocalStackContainer;
@@ -38,7 +52,16 @@ import software.amazon.awssdk.services.s3.model.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -47,6 +70,7 @@ import static org.testcontainers.containers.localstack.LocalStackContainer.Servi
 
 @Testcontainers
 @ContextConfiguration(classes = TestMongoContainerConfiguration.class)
+@Import(MusicalogApplicationTests.RemovedAlbums.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class MusicalogApplicationTests {
 
@@ -64,6 +88,9 @@ class MusicalogApplicationTests {
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private RemovedAlbums removedAlbums;
+
     @Qualifier("webApplicationContext")
     @Autowired
     private ResourceLoader resourceLoader;
@@ -76,6 +103,8 @@ class MusicalogApplicationTests {
         registry.add("spring.cloud.aws.credentials.secret-key", localstack::getSecretKey);
         registry.add("spring.cloud.aws.s3.endpoint", () -> localstack.getEndpointOverride(S3).toString());
         registry.add("spring.cloud.aws.s3.region", localstack::getRegion);
+        registry.add("album-change-stream.enabled", () -> "true");
+        registry.add("album-id-filter.enabled", () -> "true");
     }
 
     @BeforeEach
@@ -137,6 +166,55 @@ class MusicalogApplicationTests {
     @AfterEach
     void cleanup() {
         mongoTemplate.remove(new Query(), "albums");
+        awaitChangeStream();
+    }
+
+    private void insert(Album album) {
+        mongoTemplate.insert(album);
+        awaitChangeStream();
+    }
+
+    private void insertAll(List<Album> albums) {
+        mongoTemplate.insertAll(albums);
+        awaitChangeStream();
+    }
+
+    // changes are applied in order, so once a throwaway album's removal has come through so has every earlier write
+    private void awaitChangeStream() {
+        String id = new ObjectId().toHexString();
+        mongoTemplate.insert(Album.builder()
+            .id(id)
+            .title("Change Stream Barrier")
+            .artistName("Musicalog")
+            .titleNormalised("change stream barrier")
+            .artistNameNormalised("musicalog")
+            .type(AlbumType.CD)
+            .stock(0)
+            .build());
+        mongoTemplate.remove(Query.query(Criteria.where(Album.ID).is(id)), Album.class);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!removedAlbums.ids.contains(id)) {
+            assertThat(System.nanoTime()).as("change stream caught up within 10 seconds").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Component
+    static class RemovedAlbums {
+
+        private final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        @EventListener
+        @Order(Ordered.LOWEST_PRECEDENCE)
+        public void onAlbumDeleted(AlbumDeletedEvent event) {
+            ids.add(event.getId());
+        }
     }
 
     @Test
@@ -154,6 +232,8 @@ class MusicalogApplicationTests {
         Album album1 = Album.builder()
             .title("For All The Dogs")
             .artistName("Drake")
+            .titleNormalised("for all the dogs")
+            .artistNameNormalised("drake")
             .type(AlbumType.CD)
             .stock(1)
             .coverImageUrl("s3://image-store/1.jpeg")
@@ -162,12 +242,14 @@ class MusicalogApplicationTests {
         Album album2 = Album.builder()
             .title("Scorpion")
             .artistName("Adonis")
+            .titleNormalised("scorpion")
+            .artistNameNormalised("adonis")
             .type(AlbumType.VINYL)
             .stock(1)
             .coverImageUrl("s3://image-store/2.jpeg")
             .build();
 
-        mongoTemplate.insertAll(List.of(album1, album2));
+        insertAll(List.of(album1, album2));
 
         webTestClient.get().uri("/api/albums")
             .exchange()
@@ -198,6 +280,129 @@ class MusicalogApplicationTests {
             });
     }
 
+    @Test
+    void givenAlbums_whenGetAllAlbumsEndpointCalledWithLimit_thenAlbumsReturnedInPages() {
+        insertAll(List.of(
+            Album.builder()
+                .title("For All The Dogs")
+                .artistName("Drake")
+                .titleNormalised("for all the dogs")
+                .artistNameNormalised("drake")
+                .type(AlbumType.CD)
+                .stock(1)
+                .coverImageUrl("s3://image-store/1.jpeg")
+                .build(),
+            Album.builder()
+                .title("Scorpion")
+                .artistName("Adonis")
+                .titleNormalised("scorpion")
+                .artistNameNormalised("adonis")
+                .type(AlbumType.VINYL)
+                .stock(1)
+                .coverImageUrl("s3://image-store/2.jpeg")
+                .build()));
+
+        String next = webTestClient.get().uri("/api/albums?limit=1&sort=title")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(AlbumDTO.class)
+            .hasSize(1)
+            .consumeWith(result -> assertThat(result.getResponseBody())
+                .extracting(AlbumDTO::getTitle)
+                .containsExactly("For All The Dogs"))
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst(AlbumController.NEXT_CURSOR_HEADER);
+
+        assertThat(next).isNotNull();
+
+        webTestClient.get().uri("/api/albums?limit=1&sort=title&cursor={cursor}", next)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().doesNotExist(AlbumController.NEXT_CURSOR_HEADER)
+            .expectBodyList(AlbumDTO.class)
+            .hasSize(1)
+            .consumeWith(result -> assertThat(result.getResponseBody())
+                .extracting(AlbumDTO::getTitle)
+                .containsExactly("Scorpion"));
+    }
+
+    @Test
+    void givenAlbums_whenGetAllAlbumsEndpointCalledAcceptingNdjson_thenAllAlbumsStreamed() {
+        insertAll(List.of(
+            Album.builder()
+                .title("For All The Dogs")
+                .artistName("Drake")
+                .titleNormalised("for all the dogs")
+                .artistNameNormalised("drake")
+                .type(AlbumType.CD)
+                .stock(1)
+                .coverImageUrl("s3://image-store/1.jpeg")
+                .build(),
+            Album.builder()
+                .title("Scorpion")
+                .artistName("Adonis")
+                .titleNormalised("scorpion")
+                .artistNameNormalised("adonis")
+                .type(AlbumType.VINYL)
+                .stock(1)
+                .coverImageUrl("s3://image-store/2.jpeg")
+                .build()));
+
+        webTestClient.get().uri("/api/albums")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+            .returnResult(AlbumDTO.class)
+            .getResponseBody()
+            .collectList()
+            .doOnNext(albums -> assertThat(albums)
+                .extracting(AlbumDTO::getTitle)
+                .containsExactlyInAnyOrder("For All The Dogs", "Scorpion"))
+            .block();
+    }
+
+    @Test
+    void givenChangeStreamEnabled_whenAlbumsListedTwice_thenSecondListIsNotModifiedUntilMongoChanges() {
+        insert(Album.builder()
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .titleNormalised("for all the dogs")
+            .artistNameNormalised("drake")
+            .type(AlbumType.CD)
+            .stock(1)
+            .build());
+
+        String eTag = webTestClient.get().uri("/api/albums?artistName=drake")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists(HttpHeaders.ETAG)
+            .returnResult(AlbumDTO.class)
+            .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/albums?artistName=drake")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+            .exchange()
+            .expectStatus().isNotModified();
+
+        insert(Album.builder()
+            .title("Scorpion")
+            .artistName("Drake")
+            .titleNormalised("scorpion")
+            .artistNameNormalised("drake")
+            .type(AlbumType.VINYL)
+            .stock(1)
+            .build());
+
+        webTestClient.get().uri("/api/albums?artistName=drake")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(AlbumDTO.class)
+            .hasSize(2);
+    }
+
     @Test
     void givenNoAlbums_whenGetAlbumsEndpointWithArtistNameFilter_thenNoAlbumsReturned() {
         webTestClient.get().uri("/api/albums?artistName=drake")
@@ -210,10 +415,12 @@ class MusicalogApplicationTests {
 
     @Test
     void givenAlbums_whenGetAlbumsEndpointWithArtistNameFilter_thenAlbumsWithArtistNameReturned() {
-        mongoTemplate.insertAll(List.of(
+        insertAll(List.of(
             Album.builder()
                 .title("For All The Dogs")
                 .artistName("Drake")
+                .titleNormalised("for all the dogs")
+                .artistNameNormalised("drake")
                 .type(AlbumType.CD)
                 .stock(1)
                 .coverImageUrl("s3://image-store/1.jpeg")
@@ -221,6 +428,8 @@ class MusicalogApplicationTests {
             Album.builder()
                 .title("Scorpion")
                 .artistName("Adonis")
+                .titleNormalised("scorpion")
+                .artistNameNormalised("adonis")
                 .type(AlbumType.VINYL)
                 .stock(1)
                 .coverImageUrl("s3://image-store/2.jpeg")
@@ -250,10 +459,12 @@ class MusicalogApplicationTests {
 
     @Test
     void givenAlbums_whenGetAlbumsEndpointWithTitleFilter_thenAlbumsWithTitleReturned() {
-        mongoTemplate.insertAll(List.of(
+        insertAll(List.of(
             Album.builder()
                 .title("For All The Dogs")
                 .artistName("Drake")
+                .titleNormalised("for all the dogs")
+                .artistNameNormalised("drake")
                 .type(AlbumType.CD)
                 .stock(1)
                 .coverImageUrl("s3://image-store/1.jpeg")
@@ -261,6 +472,8 @@ class MusicalogApplicationTests {
             Album.builder()
                 .title("Scorpion")
                 .artistName("Adonis")
+                .titleNormalised("scorpion")
+                .artistNameNormalised("adonis")
                 .type(AlbumType.VINYL)
                 .stock(1)
                 .coverImageUrl("s3://image-store/2.jpeg")
@@ -318,6 +531,8 @@ class MusicalogApplicationTests {
             .isEqualTo(Album.builder()
                 .title("For All The Dogs")
                 .artistName("Drake")
+                .titleNormalised("for all the dogs")
+                .artistNameNormalised("drake")
                 .type(AlbumType.CD)
                 .stock(1)
                 .coverImageUrl("s3://" + BUCKET_NAME + "/" + album.getId())
@@ -333,14 +548,52 @@ class MusicalogApplicationTests {
         assertThat(coverImageObject.readAllBytes()).isEqualTo(coverImageFileContents);
     }
 
+    @Test
+    void whenAlbumCreatedAndDeleted_thenSuggestionsFollow() {
+        Resource coverImage = resourceLoader.getResource("classpath:cover-image-250x250.png");
+
+        MultipartBodyBuilder albumPayload = new MultipartBodyBuilder();
+        albumPayload.part("title", "Lemonade");
+        albumPayload.part("artistName", "Beyoncé");
+        albumPayload.part("type", "CD");
+        albumPayload.part("stock", 1);
+        albumPayload.part("coverImage", coverImage).contentType(MediaType.IMAGE_PNG);
+
+        String location = webTestClient.post().uri("/api/albums")
+            .contentType(MediaType.MULTIPART_FORM_DATA)
+            .bodyValue(albumPayload.build())
+            .exchange()
+            .expectStatus().isCreated()
+            .returnResult(Void.class)
+            .getResponseHeaders().getLocation().toString();
+
+        webTestClient.get().uri("/api/albums/suggest?q=beyo")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(AlbumSuggestionDTO.class)
+            .isEqualTo(List.of(AlbumSuggestionDTO.builder().value("Beyoncé").field("artistName").build()));
+
+        webTestClient.delete().uri(location)
+            .exchange()
+            .expectStatus().isOk();
+
+        webTestClient.get().uri("/api/albums/suggest?q=lemon")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(AlbumSuggestionDTO.class)
+            .hasSize(0);
+    }
+
     @Test
     void whenEditAlbumEndpointCalledWithPartialFormData_thenAlbumEdited() throws IOException {
         final String key = "01";
 
-        mongoTemplate.insert(Album.builder()
+        insert(Album.builder()
             .id(key)
             .title("For All The Dogs")
             .artistName("Drake")
+            .titleNormalised("for all the dogs")
+            .artistNameNormalised("drake")
             .type(AlbumType.CD)
             .stock(1)
             .coverImageUrl("s3://" + BUCKET_NAME + "/" + key)
@@ -378,6 +631,8 @@ class MusicalogApplicationTests {
                 .id("01")
                 .title("For All The Dogs")
                 .artistName("Drake")
+                .titleNormalised("for all the dogs")
+                .artistNameNormalised("drake")
                 .type(AlbumType.CD)
                 .stock(2)
                 .coverImageUrl("s3://" + BUCKET_NAME + "/" + album.getId())
@@ -404,14 +659,142 @@ class MusicalogApplicationTests {
             .expectStatus().isNotFound();
     }
 
+    @Test
+    void whenEditAlbumEndpointCalledWithStaleIfMatch_thenPreconditionFailed() {
+        insert(Album.builder()
+            .id("01")
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .type(AlbumType.CD)
+            .stock(1)
+            .version(2)
+            .build());
+
+        MultipartBodyBuilder albumPayload = new MultipartBodyBuilder();
+        albumPayload.part("stock", 2);
+
+        webTestClient.patch().uri("/api/albums/01")
+            .header(HttpHeaders.IF_MATCH, "\"01-1\"")
+            .contentType(MediaType.MULTIPART_FORM_DATA)
+            .bodyValue(albumPayload.build())
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        assertThat(mongoTemplate.findById("01", Album.class).getStock()).isEqualTo(1);
+    }
+
+    @Test
+    void whenConcurrentConditionalEditsRetried_thenNoUpdateIsLost() throws Exception {
+        final int writers = 8;
+        final int incrementsPerWriter = 5;
+
+        insert(Album.builder()
+            .id("01")
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .type(AlbumType.CD)
+            .stock(0)
+            .build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < incrementsPerWriter; j++) {
+                        incrementStockUntilApplied("01");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Album album = mongoTemplate.findById("01", Album.class);
+        assertThat(album.getStock()).isEqualTo(writers * incrementsPerWriter);
+        assertThat(album.getVersion()).isEqualTo(writers * incrementsPerWriter);
+    }
+
+    private void incrementStockUntilApplied(String id) {
+        while (true) {
+            EntityExchangeResult<AlbumDTO> current = webTestClient.get().uri("/api/albums/" + id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AlbumDTO.class)
+                .returnResult();
+
+            MultipartBodyBuilder albumPayload = new MultipartBodyBuilder();
+            albumPayload.part("stock", current.getResponseBody().getStock() + 1);
+
+            HttpStatusCode status = webTestClient.patch().uri("/api/albums/" + id)
+                .header(HttpHeaders.IF_MATCH, current.getResponseHeaders().getETag())
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(albumPayload.build())
+                .exchange()
+                .returnResult(Void.class)
+                .getStatus();
+
+            if (status.is2xxSuccessful()) {
+                return;
+            }
+            assertThat(status).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+
+    @Test
+    void whenManyConcurrentDecrementsCalled_thenStockEndsAtZeroWithoutOverselling() throws Exception {
+        final int initialStock = 100;
+        final int decrementers = 300;
+
+        insert(Album.builder()
+            .id("01")
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .type(AlbumType.CD)
+            .stock(initialStock)
+            .build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        List<Future<HttpStatusCode>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < decrementers; i++) {
+                futures.add(executor.submit(() -> webTestClient.post().uri("/api/albums/01/stock")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("delta", -1))
+                    .exchange()
+                    .returnResult(Void.class)
+                    .getStatus()));
+            }
+
+            Map<HttpStatusCode, Long> statuses = new HashMap<>();
+            for (Future<HttpStatusCode> future : futures) {
+                statuses.merge(future.get(1, TimeUnit.MINUTES), 1L, Long::sum);
+            }
+            assertThat(statuses).containsOnly(
+                Map.entry(HttpStatus.OK, (long) initialStock),
+                Map.entry(HttpStatus.CONFLICT, (long) (decrementers - initialStock)));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Album album = mongoTemplate.findById("01", Album.class);
+        assertThat(album.getStock()).isZero();
+        assertThat(album.getVersion()).isEqualTo(initialStock);
+    }
+
     @Test
     void whenDeleteAlbumEndpointCalled_thenAlbumDeleted() throws IOException {
         final String key = "01";
 
-        mongoTemplate.insert(Album.builder()
+        insert(Album.builder()
             .id(key)
             .title("For All The Dogs")
             .artistName("Drake")
+            .titleNormalised("for all the dogs")
+            .artistNameNormalised("drake")
             .type(AlbumType.CD)
             .stock(1)
             .coverImageUrl("s3://" + BUCKET_NAME + "/" + key)
@@ -442,10 +825,12 @@ class MusicalogApplicationTests {
     void whenGetAlbumEndpointCalled_thenAlbumIsReturned() {
         final String key = "01";
 
-        mongoTemplate.insert(Album.builder()
+        insert(Album.builder()
             .id(key)
             .title("For All The Dogs")
             .artistName("Drake")
+            .titleNormalised("for all the dogs")
+            .artistNameNormalised("drake")
             .type(AlbumType.CD)
             .stock(1)
             .coverImageUrl("s3://" + BUCKET_NAME + "/" + key)
@@ -472,6 +857,56 @@ class MusicalogApplicationTests {
             });
     }
 
+    @Test
+    void whenGetAlbumEndpointCalledAcceptingCbor_thenResponseVariesByAccept() {
+        insert(Album.builder()
+            .id("01")
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .titleNormalised("for all the dogs")
+            .artistNameNormalised("drake")
+            .type(AlbumType.CD)
+            .stock(1)
+            .build());
+
+        String eTag = webTestClient.get().uri("/api/albums/01")
+            .accept(MediaType.APPLICATION_CBOR)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+            .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .returnResult(byte[].class)
+            .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/albums/01")
+            .accept(MediaType.APPLICATION_CBOR)
+            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void givenIdFilterEnabled_whenAlbumInsertedDirectlyIntoMongo_thenGetAlbumFindsIt() {
+        webTestClient.get().uri("/api/albums/02")
+            .exchange()
+            .expectStatus().isNotFound();
+
+        insert(Album.builder()
+            .id("02")
+            .title("Scorpion")
+            .artistName("Drake")
+            .titleNormalised("scorpion")
+            .artistNameNormalised("drake")
+            .type(AlbumType.VINYL)
+            .stock(1)
+            .build());
+
+        webTestClient.get().uri("/api/albums/02")
+            .exchange()
+            .expectStatus().isOk();
+    }
+
     @Test
     void whenGetAlbumEndpointCalledWithNonExistentAlbum_thenNotFound() {
         webTestClient.get().uri("/api/albums/01")
@@ -0,0 +1,12 @@
+package com.thevirtualforge.musicalog;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// the test context loader only reads the web application type from inlined properties, not from profiles
+@ActiveProfiles("reactive")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.main.web-application-type=reactive")
+class ReactiveMusicalogApplicationTests extends MusicalogApplicationTests {
+}
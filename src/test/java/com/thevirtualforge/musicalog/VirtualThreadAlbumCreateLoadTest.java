@@ -0,0 +1,9 @@
+package com.thevirtualforge.musicalog;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadAlbumCreateLoadTest extends AlbumCreateLoadTest {
+}
@@ -0,0 +1,101 @@
+package com.thevirtualforge.musicalog.configuration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebConfigurationTest {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+    private static final TypeReference<List<AlbumDTO>> ALBUM_LIST = new TypeReference<>() {
+    };
+
+    private final WebConfiguration webConfiguration = new WebConfiguration();
+
+    private final List<AlbumDTO> albums = IntStream.range(0, 10_000)
+        .mapToObj(i -> AlbumDTO.builder()
+            .id(String.format("65b3a8f2c1d4e5f6a7%06d", i))
+            .title("Album " + i)
+            .artistName("Artist " + (i % 500))
+            .type((i % 2 == 0 ? AlbumType.CD : AlbumType.VINYL).name())
+            .stock(i % 50)
+            .coverImageUrl("s3://image-store/" + i + ".jpeg")
+            .build())
+        .toList();
+
+    @Test
+    void binaryFormatsRoundTripTheJsonSchema() throws Exception {
+        ObjectMapper json = new Jackson2ObjectMapperBuilder().build();
+        JsonNode expected = json.readTree(json.writeValueAsBytes(albums));
+
+        for (ObjectMapper binary : binaryFormats().values()) {
+            byte[] encoded = binary.writeValueAsBytes(albums);
+            assertThat(binary.readTree(encoded)).isEqualTo(expected);
+            assertThat(binary.readValue(encoded, ALBUM_LIST)).isEqualTo(albums);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void binaryFormatsComparedWithJsonOnTenThousandAlbums() throws Exception {
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("json", new Jackson2ObjectMapperBuilder().build());
+        formats.putAll(binaryFormats());
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+            ObjectMapper objectMapper = format.getValue();
+            byte[] encoded = objectMapper.writeValueAsBytes(albums);
+            sizes.put(format.getKey(), encoded.length);
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                objectMapper.readValue(objectMapper.writeValueAsBytes(albums), ALBUM_LIST);
+            }
+
+            long[] encodeNanos = new long[MEASURED_ROUNDS];
+            long[] decodeNanos = new long[MEASURED_ROUNDS];
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long started = System.nanoTime();
+                encoded = objectMapper.writeValueAsBytes(albums);
+                encodeNanos[i] = System.nanoTime() - started;
+
+                started = System.nanoTime();
+                objectMapper.readValue(encoded, ALBUM_LIST);
+                decodeNanos[i] = System.nanoTime() - started;
+            }
+
+            System.out.printf("%s: %,d bytes, encode median %.2f ms, decode median %.2f ms%n",
+                format.getKey(), encoded.length, median(encodeNanos) / 1e6, median(decodeNanos) / 1e6);
+        }
+
+        assertThat(sizes.get("cbor")).isLessThan(sizes.get("json"));
+        assertThat(sizes.get("smile")).isLessThan(sizes.get("json"));
+    }
+
+    private Map<String, ObjectMapper> binaryFormats() {
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("cbor", webConfiguration.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper());
+        formats.put("smile", webConfiguration.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper());
+        return formats;
+    }
+
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -1,8 +1,28 @@
 package com.thevirtualforge.musicalog.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.thevirtualforge.musicalog.dto.AlbumBatchDTO;
+import com.thevirtualforge.musicalog.dto.AlbumBulkCreateDTO;
+import com.thevirtualforge.musicalog.dto.AlbumBulkItemDTO;
 import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
 import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumJsonPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
 import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
+import com.thevirtualforge.musicalog.dto.FacetCountDTO;
+import com.thevirtualforge.musicalog.exception.AlbumCoverNotStoredException;
+import com.thevirtualforge.musicalog.exception.AlbumStockOverflowException;
+import com.thevirtualforge.musicalog.exception.AlbumVersionMismatchException;
+import com.thevirtualforge.musicalog.exception.InsufficientAlbumStockException;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
 import com.thevirtualforge.musicalog.model.enums.AlbumType;
 import com.thevirtualforge.musicalog.service.AlbumService;
 import org.junit.jupiter.api.Test;
@@ -12,17 +32,25 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.util.ResourceUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -42,9 +70,12 @@ public class AlbumControllerTest {
     @Autowired
     private ResourceLoader resourceLoader;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     void getAlbums_returnsAllAlbumsGivenNoFilters() throws Exception {
-        doReturn(List.of(
+        doReturn(jsonPage(AlbumPageDTO.builder().albums(List.of(
             AlbumDTO.builder()
                 .id("01")
                 .title("For All The Dogs")
@@ -60,13 +91,14 @@ public class AlbumControllerTest {
                 .type(AlbumType.VINYL.name())
                 .stock(1)
                 .coverImageUrl("s3://image-store/2.jpeg")
-                .build()))
-            .when(albumService).getAllAlbums();
+                .build())).build()))
+            .when(albumService).getAllAlbumsJson(AlbumPageRequestDTO.builder().build(), Set.of());
 
         mockMvc.perform(get("/api/albums")
                 .contentType(MediaType.APPLICATION_JSON_VALUE))
 
             .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(AlbumController.NEXT_CURSOR_HEADER))
             .andExpect(jsonPath("$", hasSize(2)))
 
             .andExpect(jsonPath("$[0].id").value("01"))
@@ -81,12 +113,13 @@ public class AlbumControllerTest {
             .andExpect(jsonPath("$[1].artistName").value("Adonis"))
             .andExpect(jsonPath("$[1].type").value("VINYL"))
             .andExpect(jsonPath("$[1].stock").value("1"))
-            .andExpect(jsonPath("$[1].coverImageUrl").value("s3://image-store/2.jpeg"));
+            .andExpect(jsonPath("$[1].coverImageUrl").value("s3://image-store/2.jpeg"))
+            .andExpect(jsonPath("$[1].score").doesNotExist());
     }
 
     @Test
     void getAlbums_returnsAlbumsMatchingFilterGivenFilter() throws Exception {
-        doReturn(List.of(
+        doReturn(jsonPage(AlbumPageDTO.builder().albums(List.of(
             AlbumDTO.builder()
                 .id("01")
                 .title("For All The Dogs")
@@ -94,10 +127,10 @@ public class AlbumControllerTest {
                 .type(AlbumType.CD.name())
                 .stock(1)
                 .coverImageUrl("s3://image-store/1.jpeg")
-                .build()))
-            .when(albumService).getMatchingAlbums(AlbumFilterDTO.builder()
+                .build())).build()))
+            .when(albumService).getMatchingAlbumsJson(AlbumFilterDTO.builder()
                 .artistName("drake")
-                .build());
+                .build(), AlbumPageRequestDTO.builder().build(), Set.of());
 
         mockMvc.perform(get("/api/albums")
                 .param("artistName", "drake")
@@ -114,6 +147,280 @@ public class AlbumControllerTest {
             .andExpect(jsonPath("$[0].coverImageUrl").value("s3://image-store/1.jpeg"));
     }
 
+    @Test
+    void getAlbums_returnsNextCursorGivenMorePages() throws Exception {
+        doReturn(jsonPage(AlbumPageDTO.builder().albums(List.of(
+            AlbumDTO.builder()
+                .id("02")
+                .title("Scorpion")
+                .artistName("Adonis")
+                .type(AlbumType.VINYL.name())
+                .stock(1)
+                .coverImageUrl("s3://image-store/2.jpeg")
+                .build())).next("next-cursor").build()))
+            .when(albumService).getAllAlbumsJson(AlbumPageRequestDTO.builder()
+                .limit(1)
+                .cursor("cursor")
+                .sort("title")
+                .build(), Set.of());
+
+        mockMvc.perform(get("/api/albums")
+                .param("limit", "1")
+                .param("cursor", "cursor")
+                .param("sort", "title"))
+
+            .andExpect(status().isOk())
+            .andExpect(header().string(AlbumController.NEXT_CURSOR_HEADER, "next-cursor"))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value("02"));
+    }
+
+    @Test
+    void getAlbums_limitMustBePositive() throws Exception {
+        mockMvc.perform(get("/api/albums")
+                .param("limit", "0"))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors", hasSize(1)))
+            .andExpect(jsonPath("$.errors[0]").value("limit must be greater than or equal to 1"));
+    }
+
+    @Test
+    void getAlbums_typeValueOfEnum() throws Exception {
+        mockMvc.perform(get("/api/albums")
+                .param("type", "cassette"))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors", hasSize(1)))
+            .andExpect(jsonPath("$.errors[0]").value("type must be one of: VINYL, CD"));
+    }
+
+    @Test
+    void getAlbums_minStockMustNotBeNegative() throws Exception {
+        mockMvc.perform(get("/api/albums")
+                .param("minStock", "-1"))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors", hasSize(1)))
+            .andExpect(jsonPath("$.errors[0]").value("minStock must be greater than or equal to 0"));
+    }
+
+    @Test
+    void getAlbums_invalidQueryIsBadRequest() throws Exception {
+        doThrow(new InvalidAlbumQueryException("cursor is invalid"))
+            .when(albumService).getAllAlbumsJson(AlbumPageRequestDTO.builder().cursor("???").build(), Set.of());
+
+        mockMvc.perform(get("/api/albums")
+                .param("cursor", "???"))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors", hasSize(1)))
+            .andExpect(jsonPath("$.errors[0]").value("cursor is invalid"));
+    }
+
+    @Test
+    void getAlbums_returnsScoresGivenSearch() throws Exception {
+        doReturn(jsonPage(AlbumPageDTO.builder().albums(List.of(
+            AlbumDTO.builder()
+                .id("01")
+                .title("For All The Dogs")
+                .artistName("Drake")
+                .type(AlbumType.CD.name())
+                .stock(1)
+                .coverImageUrl("s3://image-store/1.jpeg")
+                .score(1.25f)
+                .build())).build()))
+            .when(albumService).getMatchingAlbumsJson(
+                AlbumFilterDTO.builder().search("dogs").build(),
+                AlbumPageRequestDTO.builder().build(),
+                Set.of());
+
+        mockMvc.perform(get("/api/albums")
+                .param("search", "dogs"))
+
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value("01"))
+            .andExpect(jsonPath("$[0].score").value(1.25));
+    }
+
+    @Test
+    void getAlbums_returnsRequestedFieldsOnly() throws Exception {
+        doReturn(jsonPage(AlbumPageDTO.builder().albums(List.of(
+            AlbumDTO.builder()
+                .id("01")
+                .title("For All The Dogs")
+                .artistName("Drake")
+                .build())).build()))
+            .when(albumService).getAllAlbumsJson(
+                AlbumPageRequestDTO.builder().build(),
+                Set.of(AlbumField.ID, AlbumField.TITLE, AlbumField.ARTIST_NAME));
+
+        mockMvc.perform(get("/api/albums")
+                .param("fields", "id,title,artistName"))
+
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value("01"))
+            .andExpect(jsonPath("$[0].title").value("For All The Dogs"))
+            .andExpect(jsonPath("$[0].artistName").value("Drake"))
+            .andExpect(jsonPath("$[0].type").doesNotExist())
+            .andExpect(jsonPath("$[0].stock").doesNotExist())
+            .andExpect(jsonPath("$[0].coverImageUrl").doesNotExist());
+    }
+
+    @Test
+    void getAlbums_unknownFieldIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/albums")
+                .param("fields", "id,price"))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors", hasSize(1)))
+            .andExpect(jsonPath("$.errors[0]")
+                .value("fields must be any of: id, title, artistName, type, stock, coverImageUrl"));
+    }
+
+    @Test
+    void getAlbumsByIds() throws Exception {
+        doReturn(AlbumBatchDTO.builder()
+            .albums(List.of(
+                AlbumDTO.builder().id("02").title("Scorpion").build(),
+                AlbumDTO.builder().id("01").title("For All The Dogs").build()))
+            .missing(List.of("03"))
+            .build())
+            .when(albumService).getAlbums(List.of("02", "01", "03"), Set.of());
+
+        mockMvc.perform(get("/api/albums")
+                .param("ids", "02,01,03"))
+
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.albums", hasSize(2)))
+            .andExpect(jsonPath("$.albums[0].id").value("02"))
+            .andExpect(jsonPath("$.albums[1].id").value("01"))
+            .andExpect(jsonPath("$.missing", hasSize(1)))
+            .andExpect(jsonPath("$.missing[0]").value("03"));
+    }
+
+    @Test
+    void getAlbumsByIds_tooManyIdsIsBadRequest() throws Exception {
+        doThrow(new InvalidAlbumQueryException("ids must contain at most 200 ids"))
+            .when(albumService).getAlbums(anyList(), eq(Set.of()));
+
+        mockMvc.perform(get("/api/albums")
+                .param("ids", "01,02"))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors[0]").value("ids must contain at most 200 ids"));
+    }
+
+    @Test
+    void getAlbumsByIds_isNeverAnsweredWithTheWholeCatalogueStream() throws Exception {
+        mockMvc.perform(get("/api/albums")
+                .param("ids", "01,02")
+                .accept(MediaType.APPLICATION_NDJSON))
+
+            .andExpect(status().isNotAcceptable());
+
+        mockMvc.perform(get("/api/albums")
+                .param("ids", "01,02")
+                .param("stream", "true"))
+
+            .andExpect(status().isBadRequest());
+
+        verify(albumService, never()).streamAlbums(any(AlbumFilterDTO.class), anySet());
+    }
+
+    @Test
+    void getAlbumFacets() throws Exception {
+        doReturn(AlbumFacetsDTO.builder()
+            .types(List.of(FacetCountDTO.builder().value("CD").count(2).build()))
+            .artistNames(List.of(FacetCountDTO.builder().value("Drake").count(2).build()))
+            .total(2)
+            .build())
+            .when(albumService).getAlbumFacets(AlbumFilterDTO.builder().artistName("drake").build());
+
+        mockMvc.perform(get("/api/albums/facets")
+                .param("artistName", "drake"))
+
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.types[0].value").value("CD"))
+            .andExpect(jsonPath("$.types[0].count").value(2))
+            .andExpect(jsonPath("$.artistNames[0].value").value("Drake"))
+            .andExpect(jsonPath("$.total").value(2));
+    }
+
+    @Test
+    void suggestAlbums() throws Exception {
+        doReturn(List.of(
+            AlbumSuggestionDTO.builder().value("Drake").field("artistName").build(),
+            AlbumSuggestionDTO.builder().value("Dark Lane Demo Tapes").field("title").build()))
+            .when(albumService).suggestAlbums("d", 2);
+
+        mockMvc.perform(get("/api/albums/suggest")
+                .param("q", "d")
+                .param("limit", "2"))
+
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].value").value("Drake"))
+            .andExpect(jsonPath("$[0].field").value("artistName"))
+            .andExpect(jsonPath("$[1].value").value("Dark Lane Demo Tapes"))
+            .andExpect(jsonPath("$[1].field").value("title"));
+    }
+
+    @Test
+    void suggestAlbums_queryRequired() throws Exception {
+        mockMvc.perform(get("/api/albums/suggest"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamAlbumsAsNdjson() throws Exception {
+        doReturn(Stream.of(
+            AlbumDTO.builder().id("01").title("For All The Dogs").artistName("Drake").build(),
+            AlbumDTO.builder().id("02").title("Scorpion").artistName("Adonis").build()))
+            .when(albumService).streamAlbums(AlbumFilterDTO.builder().build(), Set.of());
+
+        MvcResult result = mockMvc.perform(get("/api/albums")
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":\"01\"");
+        assertThat(lines[1]).contains("\"id\":\"02\"");
+    }
+
+    @Test
+    void streamAlbumsAsJsonArray() throws Exception {
+        doReturn(Stream.of(
+            AlbumDTO.builder().id("01").title("For All The Dogs").artistName("Drake").build(),
+            AlbumDTO.builder().id("02").title("Scorpion").artistName("Adonis").build()))
+            .when(albumService).streamAlbums(AlbumFilterDTO.builder().artistName("drake").build(), Set.of());
+
+        MvcResult result = mockMvc.perform(get("/api/albums")
+                .param("stream", "true")
+                .param("artistName", "drake"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].id").value("01"))
+            .andExpect(jsonPath("$[1].id").value("02"));
+    }
+
     @Test
     void createAlbum() throws Exception {
         AlbumDTO createdAlbum = AlbumDTO.builder().id("01").build();
@@ -140,6 +447,75 @@ public class AlbumControllerTest {
             .andExpect(header().string("location", "/api/albums/01"));
     }
 
+    @Test
+    void createAlbums_bindsIndexedAlbumsAndReportsEachOutcome() throws Exception {
+        MockMultipartFile firstCoverImage = new MockMultipartFile(
+            "albums[0].coverImage", "cover-image-250x250.png", "image/png", getMultipartCoverImage().getBytes());
+        MockMultipartFile secondCoverImage = new MockMultipartFile(
+            "albums[1].coverImage", "cover-image-250x250.png", "image/png", getMultipartCoverImage().getBytes());
+
+        doReturn(AlbumBulkCreateDTO.builder()
+            .created(1)
+            .failed(1)
+            .albums(List.of(
+                AlbumBulkItemDTO.builder().index(0).id("01").status(AlbumBulkItemDTO.Status.CREATED).build(),
+                AlbumBulkItemDTO.builder()
+                    .index(1)
+                    .status(AlbumBulkItemDTO.Status.INVALID)
+                    .errors(List.of("title must not be blank"))
+                    .build()))
+            .build())
+            .when(albumService).createAlbums(List.of(
+                AlbumPayloadDTO.builder()
+                    .title("For All The Dogs")
+                    .artistName("Drake")
+                    .type(AlbumType.CD.name())
+                    .stock(1)
+                    .coverImage(firstCoverImage)
+                    .build(),
+                AlbumPayloadDTO.builder()
+                    .artistName("Drake")
+                    .type(AlbumType.VINYL.name())
+                    .stock(2)
+                    .coverImage(secondCoverImage)
+                    .build()));
+
+        mockMvc.perform(multipart("/api/albums/bulk")
+                .file(firstCoverImage)
+                .file(secondCoverImage)
+                .param("albums[0].title", "For All The Dogs")
+                .param("albums[0].artistName", "Drake")
+                .param("albums[0].type", "CD")
+                .param("albums[0].stock", "1")
+                .param("albums[1].artistName", "Drake")
+                .param("albums[1].type", "VINYL")
+                .param("albums[1].stock", "2")
+                .contentType(MediaType.MULTIPART_FORM_DATA))
+
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.albums[0].id").value("01"))
+            .andExpect(jsonPath("$.albums[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.albums[0].errors").doesNotExist())
+            .andExpect(jsonPath("$.albums[1].id").doesNotExist())
+            .andExpect(jsonPath("$.albums[1].status").value("INVALID"))
+            .andExpect(jsonPath("$.albums[1].errors[0]").value("title must not be blank"));
+    }
+
+    @Test
+    void createAlbums_rejectsTooManyAlbums() throws Exception {
+        doThrow(new InvalidAlbumQueryException("albums must contain at most 1000 albums"))
+            .when(albumService).createAlbums(anyList());
+
+        mockMvc.perform(multipart("/api/albums/bulk")
+                .param("albums[0].title", "For All The Dogs")
+                .contentType(MediaType.MULTIPART_FORM_DATA))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors[0]").value("albums must contain at most 1000 albums"));
+    }
+
     @Test
     void createAlbum_titleRequired() throws Exception {
         mockMvc.perform(multipart("/api/albums")
@@ -272,17 +648,14 @@ public class AlbumControllerTest {
 
     @Test
     void updateAlbum() throws Exception {
-        AlbumDTO createdAlbum = AlbumDTO.builder().id("01").build();
         MockMultipartFile multipartCoverImage = getMultipartCoverImage();
+        AlbumPayloadDTO payload = AlbumPayloadDTO.builder()
+            .coverImage(multipartCoverImage)
+            .stock(2)
+            .build();
 
-        doReturn(createdAlbum)
-            .when(albumService).createAlbum(AlbumPayloadDTO.builder()
-                .title("For All The Dogs")
-                .artistName("Drake")
-                .type(AlbumType.CD.name())
-                .stock(1)
-                .coverImage(multipartCoverImage)
-                .build());
+        doReturn(4L)
+            .when(albumService).updateAlbum("01", payload, null);
 
         mockMvc.perform(multipart("/api/albums/01")
                 .file(multipartCoverImage)
@@ -293,12 +666,150 @@ public class AlbumControllerTest {
                 .param("stock", "2")
                 .contentType(MediaType.MULTIPART_FORM_DATA))
 
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"01-4\""));
 
-        verify(albumService, times(1)).updateAlbum("01", AlbumPayloadDTO.builder()
-            .coverImage(multipartCoverImage)
-            .stock(2)
-            .build());
+        verify(albumService, times(1)).updateAlbum("01", payload, null);
+    }
+
+    @Test
+    void updateAlbum_ifMatch() throws Exception {
+        AlbumPayloadDTO payload = AlbumPayloadDTO.builder().stock(2).build();
+
+        doReturn(4L)
+            .when(albumService).updateAlbum("01", payload, Set.of(2L, 3L));
+
+        mockMvc.perform(patch("/api/albums/01")
+                .header(HttpHeaders.IF_MATCH, "\"01-3-title\", W/\"01-1\", \"02-1\"", "\"01-2\"")
+                .param("stock", "2")
+                .contentType(MediaType.MULTIPART_FORM_DATA))
+
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"01-4\""));
+    }
+
+    @Test
+    void updateAlbum_versionMismatch() throws Exception {
+        AlbumPayloadDTO payload = AlbumPayloadDTO.builder().stock(2).build();
+
+        doThrow(new AlbumVersionMismatchException("album 01 has changed"))
+            .when(albumService).updateAlbum("01", payload, Set.of(3L));
+
+        mockMvc.perform(patch("/api/albums/01")
+                .header(HttpHeaders.IF_MATCH, "\"01-3\"")
+                .param("stock", "2")
+                .contentType(MediaType.MULTIPART_FORM_DATA))
+
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateAlbum_coverNotStored() throws Exception {
+        AlbumPayloadDTO payload = AlbumPayloadDTO.builder().stock(2).build();
+
+        doThrow(new AlbumCoverNotStoredException("01", 4L, new IllegalStateException("S3 unavailable")))
+            .when(albumService).updateAlbum("01", payload, null);
+
+        mockMvc.perform(patch("/api/albums/01")
+                .param("stock", "2")
+                .contentType(MediaType.MULTIPART_FORM_DATA))
+
+            .andExpect(status().isBadGateway())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"01-4\""))
+            .andExpect(jsonPath("$.errors[0]").value("album 01 was updated but its cover could not be stored"));
+    }
+
+    @Test
+    void adjustStock() throws Exception {
+        doReturn(AlbumStockDTO.builder().id("01").stock(4).build())
+            .when(albumService).adjustStock("01", -1);
+
+        mockMvc.perform(post("/api/albums/01/stock")
+                .content("{\"delta\": -1}")
+                .contentType(MediaType.APPLICATION_JSON))
+
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value("01"))
+            .andExpect(jsonPath("$.stock").value(4));
+    }
+
+    @Test
+    void adjustStock_deltaIsRequired() throws Exception {
+        mockMvc.perform(post("/api/albums/01/stock")
+                .content("{}")
+                .contentType(MediaType.APPLICATION_JSON))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors", hasSize(1)))
+            .andExpect(jsonPath("$.errors[0]").value("delta must not be null"));
+        verifyNoInteractions(albumService);
+    }
+
+    @Test
+    void adjustStock_deltaMustNotBeZero() throws Exception {
+        mockMvc.perform(post("/api/albums/01/stock")
+                .content("{\"delta\": 0}")
+                .contentType(MediaType.APPLICATION_JSON))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors", hasSize(1)))
+            .andExpect(jsonPath("$.errors[0]").value("delta must not be zero"));
+        verifyNoInteractions(albumService);
+    }
+
+    @Test
+    void adjustStock_deltaMustBeWithinBounds() throws Exception {
+        mockMvc.perform(post("/api/albums/01/stock")
+                .content("{\"delta\": " + Integer.MIN_VALUE + "}")
+                .contentType(MediaType.APPLICATION_JSON))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors", hasSize(1)))
+            .andExpect(jsonPath("$.errors[0]").value("delta must be greater than or equal to -1000000"));
+
+        mockMvc.perform(post("/api/albums/01/stock")
+                .content("{\"delta\": 1000001}")
+                .contentType(MediaType.APPLICATION_JSON))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors[0]").value("delta must be less than or equal to 1000000"));
+        verifyNoInteractions(albumService);
+    }
+
+    @Test
+    void adjustStock_deltaOverflowingAnIntIsRejected() throws Exception {
+        mockMvc.perform(post("/api/albums/01/stock")
+                .content("{\"delta\": 2147483648}")
+                .contentType(MediaType.APPLICATION_JSON))
+
+            .andExpect(status().isBadRequest());
+        verifyNoInteractions(albumService);
+    }
+
+    @Test
+    void adjustStock_stockOverflow() throws Exception {
+        doThrow(new AlbumStockOverflowException("album 01 stock would exceed 2147483647"))
+            .when(albumService).adjustStock("01", 2);
+
+        mockMvc.perform(post("/api/albums/01/stock")
+                .content("{\"delta\": 2}")
+                .contentType(MediaType.APPLICATION_JSON))
+
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.errors[0]").value("album 01 stock would exceed 2147483647"));
+    }
+
+    @Test
+    void adjustStock_insufficientStock() throws Exception {
+        doThrow(new InsufficientAlbumStockException("album 01 has insufficient stock"))
+            .when(albumService).adjustStock("01", -2);
+
+        mockMvc.perform(post("/api/albums/01/stock")
+                .content("{\"delta\": -2}")
+                .contentType(MediaType.APPLICATION_JSON))
+
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.errors[0]").value("album 01 has insufficient stock"));
     }
 
     @Test
@@ -373,7 +884,7 @@ public class AlbumControllerTest {
             .stock(1)
             .coverImageUrl("s3://image-store/1.jpeg")
             .build())
-            .when(albumService).getAlbum(key);
+            .when(albumService).getAlbum(key, Set.of());
 
         mockMvc.perform(get("/api/albums/" + key))
             .andExpect(status().isOk())
@@ -385,6 +896,156 @@ public class AlbumControllerTest {
             .andExpect(jsonPath("$.coverImageUrl").value("s3://image-store/1.jpeg"));
     }
 
+    @Test
+    void getAlbum_returnsETagForVersionAndFields() throws Exception {
+        doReturn(3L)
+            .when(albumService).getAlbumVersion("01");
+        doReturn(AlbumDTO.builder().title("For All The Dogs").build())
+            .when(albumService).getAlbum("01", Set.of(AlbumField.TITLE));
+
+        mockMvc.perform(get("/api/albums/01")
+                .param("fields", "title"))
+
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"01-3-title\""));
+    }
+
+    @Test
+    void getAlbum_notModifiedGivenMatchingETag() throws Exception {
+        doReturn(3L)
+            .when(albumService).getAlbumVersion("01");
+
+        mockMvc.perform(get("/api/albums/01")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"01-3\""))
+
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+            .andExpect(content().string(""));
+
+        verify(albumService, never()).getAlbum(anyString(), anySet());
+    }
+
+    @Test
+    void getAlbums_notModifiedUntilWriteGenerationChanges() throws Exception {
+        doReturn(OptionalLong.of(0))
+            .when(albumService).getWriteGeneration();
+        doReturn(jsonPage(AlbumPageDTO.builder().albums(List.of()).build()))
+            .when(albumService).getAllAlbumsJson(AlbumPageRequestDTO.builder().limit(2).build(), Set.of());
+
+        String eTag = mockMvc.perform(get("/api/albums")
+                .param("limit", "2"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/albums")
+                .param("limit", "2")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        doReturn(OptionalLong.of(1))
+            .when(albumService).getWriteGeneration();
+
+        mockMvc.perform(get("/api/albums")
+                .param("limit", "2")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+
+        verify(albumService, times(2)).getAllAlbumsJson(AlbumPageRequestDTO.builder().limit(2).build(), Set.of());
+    }
+
+    @Test
+    void getAlbums_hasNoETagWithoutAWriteGenerationCoveringEveryWrite() throws Exception {
+        doReturn(OptionalLong.empty())
+            .when(albumService).getWriteGeneration();
+        doReturn(jsonPage(AlbumPageDTO.builder().albums(List.of()).build()))
+            .when(albumService).getAllAlbumsJson(AlbumPageRequestDTO.builder().limit(2).build(), Set.of());
+
+        mockMvc.perform(get("/api/albums")
+                .param("limit", "2")
+                .header(HttpHeaders.IF_NONE_MATCH, "*"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getAlbum_encodesCborGivenAcceptCbor() throws Exception {
+        AlbumDTO album = AlbumDTO.builder()
+            .id("01")
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .type(AlbumType.CD.name())
+            .stock(1)
+            .coverImageUrl("s3://image-store/1.jpeg")
+            .build();
+        doReturn(3L)
+            .when(albumService).getAlbumVersion("01");
+        doReturn(album)
+            .when(albumService).getAlbum("01", Set.of());
+
+        MvcResult result = mockMvc.perform(get("/api/albums/01")
+                .accept(MediaType.APPLICATION_CBOR))
+
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"01-3-cbor\""))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+            .andReturn();
+
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(result.getResponse().getContentAsByteArray()))
+            .isEqualTo(objectMapper.valueToTree(album));
+    }
+
+    @Test
+    void getAlbums_encodesSmileGivenAcceptSmile() throws Exception {
+        doReturn(OptionalLong.of(0))
+            .when(albumService).getWriteGeneration();
+        List<AlbumDTO> albums = List.of(
+            AlbumDTO.builder().id("01").title("For All The Dogs").build(),
+            AlbumDTO.builder().id("02").title("Scorpion").build());
+        doReturn(AlbumPageDTO.builder().albums(albums).next("cursor").build())
+            .when(albumService).getAllAlbums(AlbumPageRequestDTO.builder().limit(2).build(), Set.of(AlbumField.TITLE));
+
+        MvcResult result = mockMvc.perform(get("/api/albums")
+                .param("limit", "2")
+                .param("fields", "title")
+                .accept(AlbumController.APPLICATION_SMILE))
+
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(AlbumController.APPLICATION_SMILE))
+            .andExpect(header().string(AlbumController.NEXT_CURSOR_HEADER, "cursor"))
+            .andExpect(header().string(HttpHeaders.ETAG, endsWith("-x-jackson-smile\"")))
+            .andReturn();
+
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray()))
+            .isEqualTo(objectMapper.valueToTree(albums));
+        verify(albumService, never()).getAllAlbumsJson(any(), anySet());
+    }
+
+    @Test
+    void getAlbum_jsonETagDoesNotMatchCborRequest() throws Exception {
+        doReturn(3L)
+            .when(albumService).getAlbumVersion("01");
+        doReturn(AlbumDTO.builder().id("01").build())
+            .when(albumService).getAlbum("01", Set.of());
+
+        mockMvc.perform(get("/api/albums/01")
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"01-3\""))
+
+            .andExpect(status().isOk());
+    }
+
+    private AlbumJsonPageDTO jsonPage(AlbumPageDTO page) throws JsonProcessingException {
+        List<byte[]> albums = new ArrayList<>();
+        for (AlbumDTO album : page.getAlbums()) {
+            albums.add(objectMapper.writeValueAsBytes(album));
+        }
+        return AlbumJsonPageDTO.builder()
+            .albums(albums)
+            .next(page.getNext())
+            .build();
+    }
+
     private MockMultipartFile getMultipartCoverImage() throws IOException {
         File coverImageFile = resourceLoader.getResource("classpath:cover-image-250x250.png").getFile();
         byte[] coverImageFileContent = Files.readAllBytes(coverImageFile.toPath());
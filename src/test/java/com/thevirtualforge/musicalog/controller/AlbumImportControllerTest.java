@@ -0,0 +1,107 @@
+package com.thevirtualforge.musicalog.controller;
+
+import com.thevirtualforge.musicalog.dto.AlbumImportJobDTO;
+import com.thevirtualforge.musicalog.dto.AlbumImportRequestDTO;
+import com.thevirtualforge.musicalog.exception.AlbumImportNotFoundException;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.service.AlbumImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AlbumImportController.class)
+@ExtendWith(SpringExtension.class)
+public class AlbumImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AlbumImportService albumImportService;
+
+    @Test
+    void startImport() throws Exception {
+        doReturn(AlbumImportJobDTO.builder()
+            .id("01")
+            .source("s3://imports/albums.csv")
+            .format("CSV")
+            .status("RUNNING")
+            .build())
+            .when(albumImportService).startImport(AlbumImportRequestDTO.builder()
+                .source("s3://imports/albums.csv")
+                .format("csv")
+                .build());
+
+        mockMvc.perform(post("/api/album-imports")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"source\":\"s3://imports/albums.csv\",\"format\":\"csv\"}"))
+
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("location", "/api/album-imports/01"))
+            .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void startImport_formatMustBeSupported() throws Exception {
+        mockMvc.perform(post("/api/album-imports")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"source\":\"albums.xml\",\"format\":\"xml\"}"))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors", hasSize(1)))
+            .andExpect(jsonPath("$.errors[0]").value("format must be one of: CSV, NDJSON"));
+
+        verifyNoInteractions(albumImportService);
+    }
+
+    @Test
+    void getImport_reportsProgress() throws Exception {
+        doReturn(AlbumImportJobDTO.builder()
+            .id("01")
+            .status("RUNNING")
+            .committedRows(2000)
+            .imported(1990)
+            .rejected(10)
+            .rowsPerSecond(12500.0)
+            .build())
+            .when(albumImportService).getImport("01");
+
+        mockMvc.perform(get("/api/album-imports/01"))
+
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.committedRows").value(2000))
+            .andExpect(jsonPath("$.imported").value(1990))
+            .andExpect(jsonPath("$.rejected").value(10))
+            .andExpect(jsonPath("$.rowsPerSecond").value(12500.0));
+    }
+
+    @Test
+    void getImport_notFound() throws Exception {
+        doThrow(new AlbumImportNotFoundException("album import 01 not found"))
+            .when(albumImportService).getImport("01");
+
+        mockMvc.perform(get("/api/album-imports/01"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void resumeImport_rejectsRunningImport() throws Exception {
+        doThrow(new InvalidAlbumQueryException("album import 01 is still running"))
+            .when(albumImportService).resumeImport("01");
+
+        mockMvc.perform(post("/api/album-imports/01/resume"))
+
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors[0]").value("album import 01 is still running"));
+    }
+}
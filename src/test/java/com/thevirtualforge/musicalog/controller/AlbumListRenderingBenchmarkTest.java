@@ -0,0 +1,130 @@
+package com.thevirtualforge.musicalog.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.mapper.AlbumMapper;
+import com.thevirtualforge.musicalog.mapper.AlbumMapperImpl;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.service.impl.AlbumJsonCache;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+class AlbumListRenderingBenchmarkTest {
+
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP_PAGES = 5_000;
+    private static final int MEASURED_PAGES = 20_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final AlbumMapper albumMapper = new AlbumMapperImpl();
+    private final MappingJackson2HttpMessageConverter dtoConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+    private final JsonFragmentsHttpMessageConverter fragmentsConverter = new JsonFragmentsHttpMessageConverter();
+    private final AlbumJsonCache albumJsonCache =
+        new AlbumJsonCache(albumMapper, objectMapper, DataSize.ofMegabytes(64), Duration.ofHours(1));
+
+    private final List<Album> catalog = catalog();
+
+    @Test
+    void cachedJsonFragmentsComparedWithMappedDtoList() throws IOException {
+        List<Album> firstPage = catalog.subList(0, PAGE_SIZE);
+        assertThat(objectMapper.readTree(renderFragments(firstPage)))
+            .isEqualTo(objectMapper.readTree(renderDtos(firstPage)));
+
+        Result dtos = measure(this::renderDtos);
+        Result fragments = measure(this::renderFragments);
+
+        System.out.printf("%d-album pages, ResponseEntity<List<AlbumDTO>>: mean %.1f us, p99 %.1f us, %,d bytes allocated per page%n",
+            PAGE_SIZE, dtos.meanMicros, dtos.p99Micros, dtos.allocatedPerPage);
+        System.out.printf("%d-album pages, cached JSON fragments: mean %.1f us, p99 %.1f us, %,d bytes allocated per page%n",
+            PAGE_SIZE, fragments.meanMicros, fragments.p99Micros, fragments.allocatedPerPage);
+    }
+
+    private Result measure(PageRenderer renderer) throws IOException {
+        Random random = new Random(17);
+        for (int i = 0; i < WARMUP_PAGES; i++) {
+            renderer.render(randomPage(random));
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long[] latencies = new long[MEASURED_PAGES];
+        for (int i = 0; i < MEASURED_PAGES; i++) {
+            List<Album> page = randomPage(random);
+            long started = System.nanoTime();
+            renderer.render(page);
+            latencies[i] = System.nanoTime() - started;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Arrays.sort(latencies);
+
+        return new Result(
+            Arrays.stream(latencies).average().orElse(0) / 1e3,
+            latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1e3,
+            allocated / MEASURED_PAGES);
+    }
+
+    // what the controller returned before the cache: mapped DTOs written by Jackson's message converter
+    private byte[] renderDtos(List<Album> page) throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        List<AlbumDTO> albums = albumMapper.albumsToAlbumDTOs(page, Set.of());
+        dtoConverter.write(albums, List.class, MediaType.APPLICATION_JSON, outputMessage);
+        return outputMessage.getBodyAsBytes();
+    }
+
+    private byte[] renderFragments(List<Album> page) throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        List<byte[]> albums = page.stream()
+            .map(album -> albumJsonCache.toJson(album, Set.of()))
+            .toList();
+        fragmentsConverter.write(new JsonFragments(albums), MediaType.APPLICATION_JSON, outputMessage);
+        return outputMessage.getBodyAsBytes();
+    }
+
+    private List<Album> randomPage(Random random) {
+        int start = random.nextInt(CATALOG_SIZE - PAGE_SIZE);
+        return catalog.subList(start, start + PAGE_SIZE);
+    }
+
+    private static List<Album> catalog() {
+        List<Album> albums = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            albums.add(Album.builder()
+                .id(String.format("%024x", i))
+                .title("Album Title Number " + i)
+                .artistName("Artist Name " + (i % 500))
+                .type(i % 2 == 0 ? AlbumType.CD : AlbumType.VINYL)
+                .stock(i % 20)
+                .coverImageUrl("s3://image-bucket/" + i)
+                .version(1)
+                .build());
+        }
+        return albums;
+    }
+
+    @FunctionalInterface
+    private interface PageRenderer {
+        byte[] render(List<Album> page) throws IOException;
+    }
+
+    private record Result(double meanMicros, double p99Micros, long allocatedPerPage) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.thevirtualforge.musicalog.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonFragmentsHttpMessageConverterTest {
+
+    private final JsonFragmentsHttpMessageConverter converter = new JsonFragmentsHttpMessageConverter();
+
+    @Test
+    void write_joinsFragmentsIntoJsonArray() throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(new JsonFragments(List.of(
+            "{\"id\":\"01\"}".getBytes(StandardCharsets.UTF_8),
+            "{\"id\":\"02\"}".getBytes(StandardCharsets.UTF_8))), MediaType.APPLICATION_JSON, outputMessage);
+
+        assertThat(outputMessage.getBodyAsString()).isEqualTo("[{\"id\":\"01\"},{\"id\":\"02\"}]");
+        assertThat(outputMessage.getHeaders().getContentLength()).isEqualTo(25);
+    }
+
+    @Test
+    void write_emptyArray() throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(new JsonFragments(List.of()), MediaType.APPLICATION_JSON, outputMessage);
+
+        assertThat(outputMessage.getBodyAsString()).isEqualTo("[]");
+        assertThat(outputMessage.getHeaders().getContentLength()).isEqualTo(2);
+    }
+}
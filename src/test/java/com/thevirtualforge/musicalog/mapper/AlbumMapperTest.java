@@ -3,11 +3,13 @@ package com.thevirtualforge.musicalog.mapper;
 import com.thevirtualforge.musicalog.dto.AlbumDTO;
 import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
 import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
 import com.thevirtualforge.musicalog.model.enums.AlbumType;
 import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -47,6 +49,35 @@ public class AlbumMapperTest {
         assertThat(albumMapper.albumToAlbumDTO(albumWithoutType)).isEqualTo(albumDTOWithoutType);
     }
 
+    @Test
+    void albumToAlbumDTO_withFields() {
+        Album album = getAlbum();
+
+        assertThat(albumMapper.albumToAlbumDTO(null, Set.of(AlbumField.ID))).isNull();
+        assertThat(albumMapper.albumToAlbumDTO(album, Set.of())).isEqualTo(getAlbumDTO());
+        assertThat(albumMapper.albumToAlbumDTO(album, Set.of(AlbumField.ID, AlbumField.TITLE, AlbumField.STOCK)))
+            .isEqualTo(AlbumDTO.builder()
+                .id("01")
+                .title("For All The Dogs")
+                .stock(2)
+                .build());
+        assertThat(albumMapper.albumToAlbumDTO(album, Set.of(AlbumField.ARTIST_NAME, AlbumField.TYPE, AlbumField.COVER_IMAGE_URL)))
+            .isEqualTo(AlbumDTO.builder()
+                .artistName("Drake")
+                .type(AlbumType.CD.name())
+                .coverImageUrl("s3://image-bucket/01")
+                .build());
+    }
+
+    @Test
+    void albumsToAlbumDTOs_withFields() {
+        assertThat(albumMapper.albumsToAlbumDTOs(null, Set.of(AlbumField.ID))).isNull();
+        assertThat(albumMapper.albumsToAlbumDTOs(Collections.singletonList(getAlbum()), Set.of()))
+            .containsExactly(getAlbumDTO());
+        assertThat(albumMapper.albumsToAlbumDTOs(Collections.singletonList(getAlbum()), Set.of(AlbumField.ID)))
+            .containsExactly(AlbumDTO.builder().id("01").build());
+    }
+
     @Test
     void albumPayloadDTOToAlbum() {
         AlbumPayloadDTO albumPayloadDTO = getAlbumPayloadDTO();
@@ -86,6 +117,8 @@ public class AlbumMapperTest {
             .id("01")
             .title("For All The Dogs")
             .artistName("Drake")
+            .titleNormalised("for all the dogs")
+            .artistNameNormalised("drake")
             .type(AlbumType.CD)
             .stock(2)
             .coverImageUrl("s3://image-bucket/01")
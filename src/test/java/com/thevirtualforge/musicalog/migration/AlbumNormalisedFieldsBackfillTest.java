@@ -0,0 +1,69 @@
+package com.thevirtualforge.musicalog.migration;
+
+import com.thevirtualforge.musicalog.configuration.TestMongoContainerConfiguration;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataMongoTest
+@Testcontainers
+@ContextConfiguration(classes = TestMongoContainerConfiguration.class)
+public class AlbumNormalisedFieldsBackfillTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @AfterEach
+    void cleanup() {
+        mongoTemplate.remove(new Query(), Album.class);
+    }
+
+    @Test
+    void backfill() {
+        mongoTemplate.insertAll(List.of(
+            Album.builder()
+                .title("For All The Dogs")
+                .artistName("Drake")
+                .type(AlbumType.CD)
+                .stock(1)
+                .build(),
+            Album.builder()
+                .title("Scorpion")
+                .artistName("Adonis")
+                .titleNormalised("scorpion")
+                .artistNameNormalised("adonis")
+                .type(AlbumType.VINYL)
+                .stock(1)
+                .build(),
+            Album.builder()
+                .title("Lemonade")
+                .artistName("Beyoncé")
+                .type(AlbumType.CD)
+                .stock(3)
+                .build()));
+
+        AlbumNormalisedFieldsBackfill backfill = new AlbumNormalisedFieldsBackfill(mongoTemplate, new SyncTaskExecutor(), 1);
+
+        assertThat(backfill.backfill()).isEqualTo(2);
+        assertThat(mongoTemplate.findAll(Album.class))
+            .extracting(Album::getTitleNormalised, Album::getArtistNameNormalised, Album::getStock)
+            .containsExactlyInAnyOrder(
+                tuple("for all the dogs", "drake", 1),
+                tuple("scorpion", "adonis", 1),
+                tuple("lemonade", "beyonce", 3));
+        assertThat(backfill.backfill()).isZero();
+    }
+}
@@ -0,0 +1,45 @@
+package com.thevirtualforge.musicalog.repository;
+
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class AlbumCursorTest {
+
+    private final Album album = Album.builder()
+        .id("65b3a8f2c1d4e5f6a7b8c9d0")
+        .title("For All\nThe Dogs")
+        .artistName("Drake")
+        .build();
+
+    @Test
+    void encodeAndDecode() {
+        AlbumCursor cursor = AlbumCursor.after(AlbumSort.TITLE, album);
+        AlbumCursor decoded = AlbumCursor.decode(cursor.encode(), AlbumSort.TITLE);
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.getLastId()).isEqualTo(album.getId());
+        assertThat(decoded.getLastValue()).isEqualTo(album.getTitle());
+    }
+
+    @Test
+    void decode_rejectsCursorForDifferentSort() {
+        String cursor = AlbumCursor.after(AlbumSort.TITLE, album).encode();
+
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> AlbumCursor.decode(cursor, AlbumSort.ARTIST_NAME))
+            .withMessage("cursor is invalid");
+    }
+
+    @Test
+    void decode_rejectsMalformedCursor() {
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> AlbumCursor.decode("%%%", AlbumSort.ID));
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> AlbumCursor.decode("aWQ", AlbumSort.ID));
+    }
+}
@@ -3,27 +3,40 @@ package com.thevirtualforge.musicalog.repository;
 import com.thevirtualforge.musicalog.configuration.TestMongoContainerConfiguration;
 import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
 import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.AlbumFacets;
+import com.thevirtualforge.musicalog.model.FacetCount;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
 import com.thevirtualforge.musicalog.model.enums.AlbumType;
 import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.ContextConfiguration;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 @DataMongoTest
 @Testcontainers
 @ContextConfiguration(classes = TestMongoContainerConfiguration.class)
 public class AlbumRepositoryTest {
 
+    private static final int LIMIT = 10;
+
     @Autowired
     private MongoTemplate mongoTemplate;
 
@@ -36,6 +49,8 @@ public class AlbumRepositoryTest {
             Album.builder()
                 .title("For All The Dogs")
                 .artistName("Drake")
+                .titleNormalised("for all the dogs")
+                .artistNameNormalised("drake")
                 .type(AlbumType.CD)
                 .stock(1)
                 .coverImageUrl("s3://image-store/1.jpeg")
@@ -43,6 +58,8 @@ public class AlbumRepositoryTest {
             Album.builder()
                 .title("Scorpion")
                 .artistName("Adonis")
+                .titleNormalised("scorpion")
+                .artistNameNormalised("adonis")
                 .type(AlbumType.VINYL)
                 .stock(1)
                 .coverImageUrl("s3://image-store/2.jpeg")
@@ -54,6 +71,93 @@ public class AlbumRepositoryTest {
         mongoTemplate.remove(new Query(), Album.class);
     }
 
+    @Test
+    void insertUnordered_reportsIndexesOfAlbumsThatCouldNotBeInserted() {
+        String existingId = albumRepository.findAll().get(0).getId();
+
+        Set<Integer> failed = albumRepository.insertUnordered(List.of(
+            Album.builder().title("Views").artistName("Drake").type(AlbumType.CD).stock(1).build(),
+            Album.builder().id(existingId).title("Duplicate").artistName("Drake").type(AlbumType.CD).stock(1).build(),
+            Album.builder().title("Take Care").artistName("Drake").type(AlbumType.VINYL).stock(1).build()));
+
+        assertThat(failed).containsExactly(1);
+        assertThat(albumRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void adjustStock_incrementsStockAndVersion() {
+        Album album = albumRepository.findAll().get(0);
+
+        Album adjusted = albumRepository.adjustStock(album.getId(), 2).orElseThrow();
+
+        assertThat(adjusted.getStock()).isEqualTo(album.getStock() + 2);
+        assertThat(adjusted.getVersion()).isEqualTo(album.getVersion() + 1);
+    }
+
+    @Test
+    void adjustStock_neverGoesBelowZero() {
+        Album album = albumRepository.findAll().get(0);
+
+        assertThat(albumRepository.adjustStock(album.getId(), -album.getStock() - 1)).isEmpty();
+        assertThat(albumRepository.adjustStock(album.getId(), -album.getStock()).orElseThrow().getStock()).isZero();
+        assertThat(albumRepository.findById(album.getId()).orElseThrow().getVersion()).isEqualTo(album.getVersion() + 1);
+    }
+
+    @Test
+    void adjustStock_refusesZeroDeltaWithoutBumpingVersion() {
+        Album album = albumRepository.findAll().get(0);
+
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> albumRepository.adjustStock(album.getId(), 0));
+        assertThat(albumRepository.findById(album.getId()).orElseThrow().getVersion()).isEqualTo(album.getVersion());
+    }
+
+    @Test
+    void adjustStock_minValueDecrementLeavesStockUntouched() {
+        Album album = albumRepository.findAll().get(0);
+
+        assertThat(albumRepository.adjustStock(album.getId(), Integer.MIN_VALUE)).isEmpty();
+        assertThat(albumRepository.findById(album.getId()).orElseThrow())
+            .returns(album.getStock(), Album::getStock)
+            .returns(album.getVersion(), Album::getVersion);
+    }
+
+    @Test
+    void adjustStock_neverOverflowsStock() {
+        Album album = albumRepository.findAll().get(0);
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where(Album.ID).is(album.getId())),
+            new Update().set(Album.STOCK, Integer.MAX_VALUE - 1),
+            Album.class);
+
+        assertThat(albumRepository.adjustStock(album.getId(), 2)).isEmpty();
+        assertThat(albumRepository.adjustStock(album.getId(), Integer.MAX_VALUE)).isEmpty();
+        assertThat(albumRepository.adjustStock(album.getId(), 1).orElseThrow().getStock()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(mongoTemplate.getCollection(mongoTemplate.getCollectionName(Album.class))
+            .find(new Document("_id", new ObjectId(album.getId())))
+            .first()
+            .get(Album.STOCK))
+            .isInstanceOf(Integer.class);
+    }
+
+    @Test
+    void updateById_matchesVersionZeroForAlbumWrittenWithoutVersion() {
+        String id = "65b3a8f2c1d4e5f6a7b8c9d0";
+        mongoTemplate.insert(new Document("_id", new ObjectId(id))
+            .append("title", "Views")
+            .append("artistName", "Drake")
+            .append("type", AlbumType.CD.name())
+            .append("stock", 1), mongoTemplate.getCollectionName(Album.class));
+        AlbumUpdate update = AlbumUpdate.builder().stock(2).build();
+
+        assertThat(albumRepository.updateById(id, update, List.of(1L))).isEmpty();
+
+        Album updated = albumRepository.updateById(id, update, List.of(0L)).orElseThrow();
+        assertThat(updated.getStock()).isEqualTo(2);
+        assertThat(updated.getVersion()).isEqualTo(1);
+        assertThat(albumRepository.updateById(id, update, List.of(0L))).isEmpty();
+    }
+
     @Test
     void findAll() {
         assertThat(albumRepository.findAll())
@@ -64,6 +168,8 @@ public class AlbumRepositoryTest {
                 Album.builder()
                     .title("For All The Dogs")
                     .artistName("Drake")
+                    .titleNormalised("for all the dogs")
+                    .artistNameNormalised("drake")
                     .type(AlbumType.CD)
                     .stock(1)
                     .coverImageUrl("s3://image-store/1.jpeg")
@@ -71,6 +177,8 @@ public class AlbumRepositoryTest {
                 Album.builder()
                     .title("Scorpion")
                     .artistName("Adonis")
+                    .titleNormalised("scorpion")
+                    .artistNameNormalised("adonis")
                     .type(AlbumType.VINYL)
                     .stock(1)
                     .coverImageUrl("s3://image-store/2.jpeg")
@@ -79,7 +187,7 @@ public class AlbumRepositoryTest {
 
     @Test
     void findBy_fullArtistNameMatch() {
-        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().artistName("drake").build()))
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().artistName("drake").build(), AlbumSort.ID, null, LIMIT, Set.of()))
             .usingRecursiveFieldByFieldElementComparator(RecursiveComparisonConfiguration.builder()
                 .withIgnoredFields("id")
                 .build())
@@ -87,6 +195,8 @@ public class AlbumRepositoryTest {
                 Album.builder()
                     .title("For All The Dogs")
                     .artistName("Drake")
+                    .titleNormalised("for all the dogs")
+                    .artistNameNormalised("drake")
                     .type(AlbumType.CD)
                     .stock(1)
                     .coverImageUrl("s3://image-store/1.jpeg")
@@ -95,7 +205,7 @@ public class AlbumRepositoryTest {
 
     @Test
     void findBy_partialSearchNotSupportedForArtistName() {
-        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().artistName("rak").build()))
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().artistName("rak").build(), AlbumSort.ID, null, LIMIT, Set.of()))
             .usingRecursiveFieldByFieldElementComparator(RecursiveComparisonConfiguration.builder()
                 .withIgnoredFields("id")
                 .build()).isEmpty();
@@ -103,7 +213,7 @@ public class AlbumRepositoryTest {
 
     @Test
     void findBy_fullTitleMatch() {
-        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().title("scorpion").build()))
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().title("scorpion").build(), AlbumSort.ID, null, LIMIT, Set.of()))
             .usingRecursiveFieldByFieldElementComparator(RecursiveComparisonConfiguration.builder()
                 .withIgnoredFields("id")
                 .build())
@@ -111,6 +221,8 @@ public class AlbumRepositoryTest {
                 Album.builder()
                     .title("Scorpion")
                     .artistName("Adonis")
+                    .titleNormalised("scorpion")
+                    .artistNameNormalised("adonis")
                     .type(AlbumType.VINYL)
                     .stock(1)
                     .coverImageUrl("s3://image-store/2.jpeg")
@@ -119,7 +231,7 @@ public class AlbumRepositoryTest {
 
     @Test
     void findBy_partialTitleMatch() {
-        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().title("all the").build()))
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().title("all the").build(), AlbumSort.ID, null, LIMIT, Set.of()))
             .usingRecursiveFieldByFieldElementComparator(RecursiveComparisonConfiguration.builder()
                 .withIgnoredFields("id")
                 .build())
@@ -127,9 +239,283 @@ public class AlbumRepositoryTest {
                 Album.builder()
                     .title("For All The Dogs")
                     .artistName("Drake")
+                    .titleNormalised("for all the dogs")
+                    .artistNameNormalised("drake")
                     .type(AlbumType.CD)
                     .stock(1)
                     .coverImageUrl("s3://image-store/1.jpeg")
                     .build()));
     }
+
+    @Test
+    void findBy_artistNameMatchIgnoresCaseAccentsAndSurroundingWhitespace() {
+        mongoTemplate.insert(Album.builder()
+            .title("Lemonade")
+            .artistName("Beyoncé")
+            .titleNormalised("lemonade")
+            .artistNameNormalised("beyonce")
+            .type(AlbumType.CD)
+            .stock(1)
+            .coverImageUrl("s3://image-store/3.jpeg")
+            .build());
+
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().artistName(" BEYONCE ").build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("Lemonade");
+    }
+
+    @Test
+    void findBy_type() {
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().type("vinyl").build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("Scorpion");
+    }
+
+    @Test
+    void findBy_stockRangeAndInStock() {
+        mongoTemplate.insertAll(List.of(
+            Album.builder()
+                .title("Views")
+                .artistName("Drake")
+                .titleNormalised("views")
+                .artistNameNormalised("drake")
+                .type(AlbumType.CD)
+                .stock(0)
+                .coverImageUrl("s3://image-store/3.jpeg")
+                .build(),
+            Album.builder()
+                .title("Take Care")
+                .artistName("Drake")
+                .titleNormalised("take care")
+                .artistNameNormalised("drake")
+                .type(AlbumType.VINYL)
+                .stock(7)
+                .coverImageUrl("s3://image-store/4.jpeg")
+                .build()));
+
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().minStock(2).build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("Take Care");
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().minStock(1).maxStock(1).build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("For All The Dogs", "Scorpion");
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().inStock(false).build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("Views");
+        assertThat(albumRepository.findBy(AlbumFilterDTO.builder().inStock(true).maxStock(5).build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("For All The Dogs", "Scorpion");
+        assertThat(albumRepository.findBy(
+            AlbumFilterDTO.builder().artistName("drake").type("vinyl").inStock(true).build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("Take Care");
+    }
+
+    @Test
+    void findBy_pagesById() {
+        List<Album> firstPage = albumRepository.findBy(AlbumFilterDTO.builder().build(), AlbumSort.ID, null, 1, Set.of());
+        assertThat(firstPage).hasSize(1);
+
+        List<Album> secondPage = albumRepository.findBy(
+            AlbumFilterDTO.builder().build(), AlbumSort.ID, AlbumCursor.after(AlbumSort.ID, firstPage.get(0)), 1, Set.of());
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(0).getId());
+
+        assertThat(albumRepository.findBy(
+            AlbumFilterDTO.builder().build(), AlbumSort.ID, AlbumCursor.after(AlbumSort.ID, secondPage.get(0)), 1, Set.of()))
+            .isEmpty();
+    }
+
+    @Test
+    void findBy_pagesByTitle() {
+        List<Album> firstPage = albumRepository.findBy(AlbumFilterDTO.builder().build(), AlbumSort.TITLE, null, 1, Set.of());
+        assertThat(firstPage).extracting(Album::getTitle).containsExactly("For All The Dogs");
+
+        List<Album> secondPage = albumRepository.findBy(
+            AlbumFilterDTO.builder().build(), AlbumSort.TITLE, AlbumCursor.after(AlbumSort.TITLE, firstPage.get(0)), 1, Set.of());
+        assertThat(secondPage).extracting(Album::getTitle).containsExactly("Scorpion");
+    }
+
+    @Test
+    void findBy_pagesByTitleWithDuplicateTitles() {
+        mongoTemplate.insert(Album.builder()
+            .title("Scorpion")
+            .artistName("Drake")
+            .titleNormalised("scorpion")
+            .artistNameNormalised("drake")
+            .type(AlbumType.CD)
+            .stock(1)
+            .coverImageUrl("s3://image-store/3.jpeg")
+            .build());
+
+        AlbumFilterDTO filter = AlbumFilterDTO.builder().title("scorpion").build();
+        List<Album> firstPage = albumRepository.findBy(filter, AlbumSort.TITLE, null, 1, Set.of());
+        List<Album> secondPage = albumRepository.findBy(
+            filter, AlbumSort.TITLE, AlbumCursor.after(AlbumSort.TITLE, firstPage.get(0)), 1, Set.of());
+
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage.get(0).getId()).isNotEqualTo(firstPage.get(0).getId());
+        assertThat(albumRepository.findBy(
+            filter, AlbumSort.TITLE, AlbumCursor.after(AlbumSort.TITLE, secondPage.get(0)), 1, Set.of()))
+            .isEmpty();
+    }
+
+    @Test
+    void findAllByIds() {
+        List<Album> albums = albumRepository.findAll();
+
+        assertThat(albumRepository.findAllByIds(
+            List.of(albums.get(1).getId(), "65b3a8f2c1d4e5f6a7b8c9d0", "not-an-object-id"), Set.of(AlbumField.TITLE)))
+            .singleElement()
+            .satisfies(album -> {
+                assertThat(album.getId()).isEqualTo(albums.get(1).getId());
+                assertThat(album.getTitle()).isEqualTo("Scorpion");
+                assertThat(album.getArtistName()).isNull();
+            });
+    }
+
+    @Test
+    void findVersionById() {
+        Album album = albumRepository.findAll().get(0);
+        album.setVersion(3);
+        albumRepository.save(album);
+
+        assertThat(albumRepository.findVersionById(album.getId())).contains(3L);
+        assertThat(albumRepository.findVersionById("65b3a8f2c1d4e5f6a7b8c9d0")).isEmpty();
+    }
+
+    @Test
+    void streamBy() {
+        try (Stream<Album> albums = albumRepository.streamBy(AlbumFilterDTO.builder().build(), Set.of())) {
+            assertThat(albums).extracting(Album::getTitle).containsExactly("For All The Dogs", "Scorpion");
+        }
+
+        try (Stream<Album> albums = albumRepository.streamBy(AlbumFilterDTO.builder().artistName("adonis").build(), Set.of())) {
+            assertThat(albums).extracting(Album::getTitle).containsExactly("Scorpion");
+        }
+    }
+
+    @Test
+    void findBy_projectsRequestedFields() {
+        List<Album> albums = albumRepository.findBy(
+            AlbumFilterDTO.builder().artistName("drake").build(),
+            AlbumSort.ID,
+            null,
+            LIMIT,
+            Set.of(AlbumField.ID, AlbumField.TITLE));
+
+        assertThat(albums).hasSize(1);
+        assertThat(albums.get(0).getId()).isNotNull();
+        assertThat(albums.get(0).getTitle()).isEqualTo("For All The Dogs");
+        assertThat(albums.get(0).getArtistName()).isNull();
+        assertThat(albums.get(0).getType()).isNull();
+        assertThat(albums.get(0).getCoverImageUrl()).isNull();
+    }
+
+    @Test
+    void findBy_projectionKeepsSortFieldForCursor() {
+        List<Album> albums = albumRepository.findBy(
+            AlbumFilterDTO.builder().build(), AlbumSort.ARTIST_NAME, null, LIMIT, Set.of(AlbumField.TITLE));
+
+        assertThat(albums).extracting(Album::getArtistName).containsExactly("Adonis", "Drake");
+    }
+
+    @Test
+    void streamBy_projectsRequestedFields() {
+        try (Stream<Album> albums = albumRepository.streamBy(AlbumFilterDTO.builder().build(), Set.of(AlbumField.TITLE))) {
+            assertThat(albums)
+                .allSatisfy(album -> assertThat(album.getCoverImageUrl()).isNull())
+                .extracting(Album::getTitle)
+                .containsExactly("For All The Dogs", "Scorpion");
+        }
+    }
+
+    @Test
+    void findBy_textSearchMatchesTitleAndArtistNameRankedByScore() {
+        mongoTemplate.insert(Album.builder()
+            .title("Drake Drake")
+            .artistName("Drake")
+            .type(AlbumType.CD)
+            .stock(1)
+            .coverImageUrl("s3://image-store/3.jpeg")
+            .build());
+
+        List<Album> albums = albumRepository.findBy(
+            AlbumFilterDTO.builder().search("drake").build(), AlbumSort.ID, null, LIMIT, Set.of());
+
+        assertThat(albums).extracting(Album::getTitle).containsExactly("Drake Drake", "For All The Dogs");
+        assertThat(albums).allSatisfy(album -> assertThat(album.getScore()).isPositive());
+        assertThat(albums.get(0).getScore()).isGreaterThan(albums.get(1).getScore());
+    }
+
+    @Test
+    void findBy_textSearchMatchesStemmedWords() {
+        assertThat(albumRepository.findBy(
+            AlbumFilterDTO.builder().search("dog").build(), AlbumSort.ID, null, LIMIT, Set.of(AlbumField.TITLE)))
+            .extracting(Album::getTitle)
+            .containsExactly("For All The Dogs");
+    }
+
+    @Test
+    void findBy_textSearchCombinesWithOtherFilters() {
+        assertThat(albumRepository.findBy(
+            AlbumFilterDTO.builder().search("scorpion drake").artistName("adonis").build(),
+            AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("Scorpion");
+    }
+
+    @Test
+    void findBy_regexSearchFallbackMatchesPartialTitle() {
+        List<Album> albums = albumRepository.findBy(
+            AlbumFilterDTO.builder().search("corp").regex(true).build(), AlbumSort.ID, null, LIMIT, Set.of());
+
+        assertThat(albums).extracting(Album::getTitle).containsExactly("Scorpion");
+        assertThat(albums.get(0).getScore()).isNull();
+    }
+
+    @Test
+    void findBy_regexSearchFallbackMatchesPartialArtistNameLikeTheTextIndex() {
+        List<Album> albums = albumRepository.findBy(
+            AlbumFilterDTO.builder().search("adon").regex(true).build(), AlbumSort.ID, null, LIMIT, Set.of());
+
+        assertThat(albums).extracting(Album::getTitle).containsExactly("Scorpion");
+    }
+
+    @Test
+    void facetsBy() {
+        mongoTemplate.insert(Album.builder()
+            .title("Scorpion")
+            .artistName("Drake")
+            .titleNormalised("scorpion")
+            .artistNameNormalised("drake")
+            .type(AlbumType.CD)
+            .stock(1)
+            .coverImageUrl("s3://image-store/3.jpeg")
+            .build());
+
+        assertThat(albumRepository.facetsBy(AlbumFilterDTO.builder().build(), 1))
+            .isEqualTo(AlbumFacets.builder()
+                .types(List.of(new FacetCount("CD", 2), new FacetCount("VINYL", 1)))
+                .artistNames(List.of(new FacetCount("Drake", 2)))
+                .total(3)
+                .build());
+
+        assertThat(albumRepository.facetsBy(AlbumFilterDTO.builder().title("scorpion").build(), 10))
+            .isEqualTo(AlbumFacets.builder()
+                .types(List.of(new FacetCount("CD", 1), new FacetCount("VINYL", 1)))
+                .artistNames(List.of(new FacetCount("Adonis", 1), new FacetCount("Drake", 1)))
+                .total(2)
+                .build());
+    }
+
+    @Test
+    void facetsBy_noMatches() {
+        assertThat(albumRepository.facetsBy(AlbumFilterDTO.builder().artistName("nobody").build(), 10))
+            .isEqualTo(AlbumFacets.builder()
+                .types(List.of())
+                .artistNames(List.of())
+                .total(0)
+                .build());
+    }
 }
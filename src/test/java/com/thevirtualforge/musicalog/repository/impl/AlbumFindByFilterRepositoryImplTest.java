@@ -0,0 +1,265 @@
+package com.thevirtualforge.musicalog.repository.impl;
+
+import com.mongodb.ExplainVerbosity;
+import com.thevirtualforge.musicalog.configuration.TestMongoContainerConfiguration;
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.search.FuzzyAlbumIndex;
+import com.thevirtualforge.musicalog.search.TitleTrigramIndex;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+@ContextConfiguration(classes = TestMongoContainerConfiguration.class)
+public class AlbumFindByFilterRepositoryImplTest {
+
+    private static final int LIMIT = 10;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private AlbumFindByFilterRepositoryImpl albumFindByFilterRepository;
+
+    private Collection<Album> albums;
+
+    @BeforeEach
+    void setup() {
+        albumFindByFilterRepository = new AlbumFindByFilterRepositoryImpl(mongoTemplate, Optional.empty(), Optional.empty());
+        albums = mongoTemplate.insertAll(List.of(
+            Album.builder()
+                .title("For All The Dogs")
+                .artistName("Drake")
+                .titleNormalised("for all the dogs")
+                .artistNameNormalised("drake")
+                .type(AlbumType.CD)
+                .stock(1)
+                .build(),
+            Album.builder()
+                .title("Scorpion")
+                .artistName("Adonis")
+                .titleNormalised("scorpion")
+                .artistNameNormalised("adonis")
+                .type(AlbumType.VINYL)
+                .stock(1)
+                .build()));
+    }
+
+    @AfterEach
+    void cleanup() {
+        mongoTemplate.remove(new Query(), Album.class);
+    }
+
+    @Test
+    void findByQuery_artistNameFilterUsesNormalisedIndex() {
+        Query query = albumFindByFilterRepository.findByQuery(
+            AlbumFilterDTO.builder().artistName("DRAKE").build(), AlbumSort.ID, null, LIMIT, Set.of());
+
+        assertThat(query.getQueryObject()).isEqualTo(new Document(Album.ARTIST_NAME_NORMALISED, "drake"));
+        assertThat(winningPlan(query).toJson())
+            .contains("IXSCAN")
+            .contains("artistNameNormalised_id")
+            .doesNotContain("COLLSCAN");
+    }
+
+    static Stream<Arguments> indexedFilters() {
+        List<AlbumFilterDTO> filters = List.of(
+            AlbumFilterDTO.builder().type("cd").build(),
+            AlbumFilterDTO.builder().minStock(1).build(),
+            AlbumFilterDTO.builder().maxStock(5).build(),
+            AlbumFilterDTO.builder().minStock(1).maxStock(5).build(),
+            AlbumFilterDTO.builder().inStock(true).build(),
+            AlbumFilterDTO.builder().inStock(false).build(),
+            AlbumFilterDTO.builder().type("vinyl").inStock(true).build(),
+            AlbumFilterDTO.builder().type("vinyl").minStock(1).maxStock(5).build(),
+            AlbumFilterDTO.builder().artistName("drake").type("cd").build(),
+            AlbumFilterDTO.builder().artistName("drake").inStock(true).build(),
+            AlbumFilterDTO.builder().title("dogs").type("cd").minStock(1).build());
+
+        return filters.stream()
+            .flatMap(filter -> Stream.of(AlbumSort.values()).map(sort -> Arguments.of(filter, sort)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("indexedFilters")
+    void findByQuery_filtersUseIndexes(AlbumFilterDTO filter, AlbumSort sort) {
+        Query query = albumFindByFilterRepository.findByQuery(filter, sort, null, LIMIT, Set.of());
+
+        assertThat(winningPlan(query).toJson())
+            .contains("IXSCAN")
+            .doesNotContain("COLLSCAN");
+    }
+
+    static Stream<Arguments> boundedFilters() {
+        return Stream.of(
+            Arguments.of(AlbumFilterDTO.builder().type("cd").build(), Set.of("type_stock_id")),
+            Arguments.of(AlbumFilterDTO.builder().minStock(1).build(), Set.of("stock_id")),
+            Arguments.of(AlbumFilterDTO.builder().maxStock(5).build(), Set.of("stock_id")),
+            Arguments.of(AlbumFilterDTO.builder().minStock(1).maxStock(5).build(), Set.of("stock_id")),
+            Arguments.of(AlbumFilterDTO.builder().inStock(true).build(), Set.of("stock_id")),
+            Arguments.of(AlbumFilterDTO.builder().inStock(false).build(), Set.of("stock_id")),
+            Arguments.of(AlbumFilterDTO.builder().type("vinyl").inStock(true).build(), Set.of("type_stock_id")),
+            Arguments.of(AlbumFilterDTO.builder().type("vinyl").minStock(1).maxStock(5).build(), Set.of("type_stock_id")),
+            Arguments.of(AlbumFilterDTO.builder().artistName("drake").type("cd").build(), Set.of("artistNameNormalised_id", "type_stock_id")),
+            Arguments.of(AlbumFilterDTO.builder().artistName("drake").inStock(true).build(), Set.of("artistNameNormalised_id")),
+            Arguments.of(AlbumFilterDTO.builder().title("dogs").type("cd").minStock(1).build(), Set.of("type_stock_id")));
+    }
+
+    // the scan must be bounded on the index's leading field and fetch no document the filter then rejects
+    @ParameterizedTest
+    @MethodSource("boundedFilters")
+    void findByQuery_filtersScanOnlyMatchingKeys(AlbumFilterDTO filter, Set<String> indexNames) {
+        Query query = albumFindByFilterRepository.findByQuery(filter, AlbumSort.ID, null, LIMIT, Set.of());
+        Document explain = explain(query, ExplainVerbosity.EXECUTION_STATS);
+
+        Document indexScan = indexScan(explain.get("queryPlanner", Document.class).get("winningPlan", Document.class));
+        assertThat(indexScan).as("winning plan %s", explain.toJson()).isNotNull();
+        assertThat(indexScan.getString("indexName")).isIn(indexNames);
+
+        Document indexBounds = indexScan.get("indexBounds", Document.class);
+        String leadingField = indexBounds.keySet().iterator().next();
+        assertThat(indexBounds.getList(leadingField, String.class)).doesNotContain("[MinKey, MaxKey]");
+
+        Document executionStats = explain.get("executionStats", Document.class);
+        assertThat(executionStats.get("totalDocsExamined", Number.class).longValue())
+            .isEqualTo(executionStats.get("nReturned", Number.class).longValue());
+    }
+
+    @Test
+    void findByQuery_titleFilterUsesTrigramIndexForLongQueries() {
+        TitleTrigramIndex titleTrigramIndex = new TitleTrigramIndex(mongoTemplate, LIMIT);
+        titleTrigramIndex.run(null);
+        albumFindByFilterRepository = new AlbumFindByFilterRepositoryImpl(mongoTemplate, Optional.of(titleTrigramIndex), Optional.empty());
+
+        String scorpionId = albums.stream()
+            .filter(album -> album.getTitle().equals("Scorpion"))
+            .findFirst()
+            .orElseThrow()
+            .getId();
+
+        AlbumFilterDTO filter = AlbumFilterDTO.builder().title("CORP").build();
+        Query query = albumFindByFilterRepository.findByQuery(filter, AlbumSort.ID, null, LIMIT, Set.of());
+
+        assertThat(query.getQueryObject()).containsOnlyKeys(Album.ID);
+        assertThat(winningPlan(query).toJson())
+            .contains("IXSCAN")
+            .doesNotContain("COLLSCAN");
+        assertThat(albumFindByFilterRepository.findBy(filter, AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getId)
+            .containsExactly(scorpionId);
+    }
+
+    @Test
+    void findByQuery_titleFilterFallsBackToRegexForShortQueries() {
+        TitleTrigramIndex titleTrigramIndex = new TitleTrigramIndex(mongoTemplate, LIMIT);
+        titleTrigramIndex.run(null);
+        albumFindByFilterRepository = new AlbumFindByFilterRepositoryImpl(mongoTemplate, Optional.of(titleTrigramIndex), Optional.empty());
+
+        AlbumFilterDTO filter = AlbumFilterDTO.builder().title("Sc").build();
+        Query query = albumFindByFilterRepository.findByQuery(filter, AlbumSort.ID, null, LIMIT, Set.of());
+
+        assertThat(query.getQueryObject()).containsOnlyKeys(Album.TITLE_NORMALISED);
+        assertThat(albumFindByFilterRepository.findBy(filter, AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("Scorpion");
+    }
+
+    @Test
+    void findBy_fuzzyArtistNameRankedByDistance() {
+        mongoTemplate.insert(Album.builder()
+            .title("Drakeo The Ruler")
+            .artistName("Drakeo")
+            .titleNormalised("drakeo the ruler")
+            .artistNameNormalised("drakeo")
+            .type(AlbumType.CD)
+            .stock(1)
+            .build());
+
+        FuzzyAlbumIndex fuzzyAlbumIndex = new FuzzyAlbumIndex(mongoTemplate, LIMIT);
+        fuzzyAlbumIndex.run(null);
+        albumFindByFilterRepository = new AlbumFindByFilterRepositoryImpl(mongoTemplate, Optional.empty(), Optional.of(fuzzyAlbumIndex));
+
+        assertThat(albumFindByFilterRepository.findBy(
+            AlbumFilterDTO.builder().artistName("drakeo").fuzzy(true).build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getArtistName)
+            .containsExactly("Drakeo", "Drake");
+        assertThat(albumFindByFilterRepository.findBy(
+            AlbumFilterDTO.builder().artistName("drakeo").fuzzy(true).build(), AlbumSort.ID, null, 1, Set.of()))
+            .extracting(Album::getArtistName)
+            .containsExactly("Drakeo");
+        assertThat(albumFindByFilterRepository.findBy(
+            AlbumFilterDTO.builder().artistName("adnois").title("scorpoin").fuzzy(true).build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getTitle)
+            .containsExactly("Scorpion");
+        assertThat(albumFindByFilterRepository.findBy(
+            AlbumFilterDTO.builder().artistName("drakeo").build(), AlbumSort.ID, null, LIMIT, Set.of()))
+            .extracting(Album::getArtistName)
+            .containsExactly("Drakeo");
+    }
+
+    private Document winningPlan(Query query) {
+        return explain(query, ExplainVerbosity.QUERY_PLANNER)
+            .get("queryPlanner", Document.class)
+            .get("winningPlan", Document.class);
+    }
+
+    private Document explain(Query query, ExplainVerbosity verbosity) {
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Album.class);
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Album.class))
+            .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+            .sort(queryMapper.getMappedSort(query.getSortObject(), entity))
+            .limit(query.getLimit())
+            .explain(verbosity);
+    }
+
+    // newer servers nest the classic stage tree under queryPlan
+    private static Document indexScan(Document stage) {
+        if ("IXSCAN".equals(stage.getString("stage"))) {
+            return stage;
+        }
+
+        List<Document> children = new ArrayList<>();
+        for (String key : List.of("queryPlan", "inputStage")) {
+            if (stage.get(key) instanceof Document child) {
+                children.add(child);
+            }
+        }
+        if (stage.get("inputStages") instanceof List<?> inputStages) {
+            inputStages.forEach(child -> children.add((Document) child));
+        }
+
+        for (Document child : children) {
+            Document found = indexScan(child);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.thevirtualforge.musicalog.repository.impl;
+
+import com.mongodb.ExplainVerbosity;
+import com.thevirtualforge.musicalog.configuration.TestMongoContainerConfiguration;
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+@DataMongoTest
+@Testcontainers
+@ContextConfiguration(classes = TestMongoContainerConfiguration.class)
+class AlbumSearchBenchmarkTest {
+
+    private static final int ALBUM_COUNT = 500_000;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final int VOCABULARY_SIZE = 5_000;
+    private static final int WARMUP_QUERIES = 20;
+    private static final int MEASURED_QUERIES = 200;
+    private static final int LIMIT = 20;
+
+    private static final List<String> VOCABULARY = vocabulary();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void insertCatalog(@Autowired MongoTemplate mongoTemplate) {
+        Random random = new Random(4);
+        for (int batchStart = 0; batchStart < ALBUM_COUNT; batchStart += INSERT_BATCH_SIZE) {
+            List<Album> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int i = batchStart; i < batchStart + INSERT_BATCH_SIZE; i++) {
+                String title = word(random) + " " + word(random) + " " + word(random);
+                String artistName = word(random) + " " + word(random);
+                batch.add(Album.builder()
+                    .title(title)
+                    .artistName(artistName)
+                    .titleNormalised(title)
+                    .artistNameNormalised(artistName)
+                    .type(i % 2 == 0 ? AlbumType.CD : AlbumType.VINYL)
+                    .stock(i % 10)
+                    .build());
+            }
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Album.class)
+                .insert(batch)
+                .execute();
+        }
+    }
+
+    @AfterAll
+    static void cleanup(@Autowired MongoTemplate mongoTemplate) {
+        mongoTemplate.remove(new Query(), Album.class);
+    }
+
+    @Test
+    void textIndexSearchComparedWithRegex() {
+        AlbumFindByFilterRepositoryImpl repository =
+            new AlbumFindByFilterRepositoryImpl(mongoTemplate, Optional.empty(), Optional.empty());
+
+        Result text = measure(repository, false);
+        Result regex = measure(repository, true);
+
+        System.out.printf("%,d albums, text index: mean %.2f ms, p99 %.2f ms, %,d keys and docs examined per query%n",
+            ALBUM_COUNT, text.meanMillis, text.p99Millis, text.examined);
+        System.out.printf("%,d albums, regex: mean %.2f ms, p99 %.2f ms, %,d keys and docs examined per query%n",
+            ALBUM_COUNT, regex.meanMillis, regex.p99Millis, regex.examined);
+
+        assertThat(text.examined).isLessThan(regex.examined);
+    }
+
+    private Result measure(AlbumFindByFilterRepositoryImpl repository, boolean regex) {
+        Random random = new Random(17);
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            repository.findBy(filter(word(random), regex), AlbumSort.ID, null, LIMIT, Set.of());
+        }
+
+        long[] latencies = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            AlbumFilterDTO filter = filter(word(random), regex);
+            long started = System.nanoTime();
+            List<Album> found = repository.findBy(filter, AlbumSort.ID, null, LIMIT, Set.of());
+            latencies[i] = System.nanoTime() - started;
+            assertThat(found).isNotEmpty();
+        }
+        Arrays.sort(latencies);
+
+        Query query = repository.findByQuery(filter(VOCABULARY.get(0), regex), AlbumSort.ID, null, LIMIT, Set.of());
+        return new Result(
+            Arrays.stream(latencies).average().orElse(0) / 1e6,
+            latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1e6,
+            examined(query));
+    }
+
+    private static AlbumFilterDTO filter(String word, boolean regex) {
+        return AlbumFilterDTO.builder().search(word).regex(regex).build();
+    }
+
+    // an unanchored regex can walk every key of the title index while fetching few documents, so both are counted
+    private long examined(Query query) {
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Album.class);
+
+        Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Album.class))
+            .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+            .projection(queryMapper.getMappedObject(query.getFieldsObject(), entity))
+            .sort(queryMapper.getMappedSort(query.getSortObject(), entity))
+            .limit(query.getLimit())
+            .explain(ExplainVerbosity.EXECUTION_STATS);
+        Document executionStats = explain.get("executionStats", Document.class);
+        return executionStats.get("totalKeysExamined", Number.class).longValue()
+            + executionStats.get("totalDocsExamined", Number.class).longValue();
+    }
+
+    private static String word(Random random) {
+        return VOCABULARY.get(random.nextInt(VOCABULARY.size()));
+    }
+
+    // pronounceable, distinct words so the text index tokenises each title into whole terms
+    private static List<String> vocabulary() {
+        String consonants = "bcdfghklmnprstvz";
+        String vowels = "aeiou";
+        Random random = new Random(1);
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < VOCABULARY_SIZE) {
+            StringBuilder word = new StringBuilder();
+            for (int syllable = 0; syllable < 3; syllable++) {
+                word.append(consonants.charAt(random.nextInt(consonants.length())))
+                    .append(vowels.charAt(random.nextInt(vowels.length())));
+            }
+            words.add(word.toString());
+        }
+        return List.copyOf(words);
+    }
+
+    private record Result(double meanMillis, double p99Millis, long examined) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.thevirtualforge.musicalog.search;
+
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.repository.AlbumRepository;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumsInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.EnumSet;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+class AlbumSuggestionIndexTest {
+
+    private static final int DEFAULT_LIMIT = 3;
+    private static final int MAX_LIMIT = 4;
+
+    @Mock
+    private AlbumRepository albumRepository;
+
+    private AlbumSuggestionIndex albumSuggestionIndex;
+
+    @BeforeEach
+    void setup() {
+        albumSuggestionIndex = new AlbumSuggestionIndex(albumRepository, DEFAULT_LIMIT, MAX_LIMIT);
+    }
+
+    @Test
+    void run_loadsExistingAlbums() {
+        doReturn(Stream.of(album("01", "For All The Dogs", "Drake")))
+            .when(albumRepository)
+            .streamBy(AlbumFilterDTO.builder().build(), EnumSet.of(AlbumField.ID, AlbumField.TITLE, AlbumField.ARTIST_NAME));
+
+        albumSuggestionIndex.run(null);
+
+        assertThat(albumSuggestionIndex.suggest("dr", null))
+            .containsExactly(suggestion("Drake", "artistName"));
+    }
+
+    @Test
+    void onAlbumsInvalidated_reloadsSoMissedRenamesAndDeletesDisappear() {
+        albumSuggestionIndex.put(album("01", "For All The Dogs", "Drake"));
+        albumSuggestionIndex.put(album("02", "Lemonade", "Beyoncé"));
+        doReturn(Stream.of(album("01", "Scorpion", "Drake")))
+            .when(albumRepository)
+            .streamBy(AlbumFilterDTO.builder().build(), EnumSet.of(AlbumField.ID, AlbumField.TITLE, AlbumField.ARTIST_NAME));
+
+        albumSuggestionIndex.onAlbumsInvalidated(new AlbumsInvalidatedEvent());
+
+        assertThat(albumSuggestionIndex.suggest("for", null)).isEmpty();
+        assertThat(albumSuggestionIndex.suggest("lem", null)).isEmpty();
+        assertThat(albumSuggestionIndex.suggest("sc", null))
+            .containsExactly(suggestion("Scorpion", "title"));
+    }
+
+    @Test
+    void suggest_matchesPrefixOfAnyWordIgnoringCaseAndAccents() {
+        albumSuggestionIndex.put(album("01", "For All The Dogs", "Drake"));
+        albumSuggestionIndex.put(album("02", "Lemonade", "Beyoncé"));
+
+        assertThat(albumSuggestionIndex.suggest("DOG", null))
+            .containsExactly(suggestion("For All The Dogs", "title"));
+        assertThat(albumSuggestionIndex.suggest("all the", null))
+            .containsExactly(suggestion("For All The Dogs", "title"));
+        assertThat(albumSuggestionIndex.suggest("beyonce", null))
+            .containsExactly(suggestion("Beyoncé", "artistName"));
+        assertThat(albumSuggestionIndex.suggest("ogs", null)).isEmpty();
+        assertThat(albumSuggestionIndex.suggest(" ", null)).isEmpty();
+    }
+
+    @Test
+    void suggest_returnsDistinctSuggestionsUpToLimit() {
+        albumSuggestionIndex.put(album("01", "Scorpion", "Drake"));
+        albumSuggestionIndex.put(album("02", "Dark Lane Demo Tapes", "Drake"));
+        albumSuggestionIndex.put(album("03", "Dawn FM", "The Weeknd"));
+        albumSuggestionIndex.put(album("04", "Damn", "Kendrick Lamar"));
+        albumSuggestionIndex.put(album("05", "Donda", "Kanye West"));
+
+        assertThat(albumSuggestionIndex.suggest("d", null)).hasSize(DEFAULT_LIMIT);
+        assertThat(albumSuggestionIndex.suggest("d", 100)).hasSize(MAX_LIMIT);
+        assertThat(albumSuggestionIndex.suggest("dr", 10))
+            .containsExactly(suggestion("Drake", "artistName"));
+    }
+
+    @Test
+    void suggest_rejectsInvalidLimit() {
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> albumSuggestionIndex.suggest("d", 0))
+            .withMessage("limit must be greater than or equal to 1");
+    }
+
+    @Test
+    void onAlbumSaved_replacesPreviousEntries() {
+        albumSuggestionIndex.onAlbumSaved(new AlbumSavedEvent(album("01", "Scorpion", "Drake")));
+        albumSuggestionIndex.onAlbumSaved(new AlbumSavedEvent(album("01", "Scorpion", "Adonis")));
+
+        assertThat(albumSuggestionIndex.suggest("drake", null)).isEmpty();
+        assertThat(albumSuggestionIndex.suggest("adonis", null))
+            .containsExactly(suggestion("Adonis", "artistName"));
+    }
+
+    @Test
+    void onAlbumDeleted_keepsEntriesSharedWithOtherAlbums() {
+        albumSuggestionIndex.put(album("01", "Scorpion", "Drake"));
+        albumSuggestionIndex.put(album("02", "Views", "Drake"));
+
+        albumSuggestionIndex.onAlbumDeleted(new AlbumDeletedEvent("01"));
+
+        assertThat(albumSuggestionIndex.suggest("scorpion", null)).isEmpty();
+        assertThat(albumSuggestionIndex.suggest("drake", null))
+            .containsExactly(suggestion("Drake", "artistName"));
+
+        albumSuggestionIndex.onAlbumDeleted(new AlbumDeletedEvent("02"));
+
+        assertThat(albumSuggestionIndex.suggest("drake", null)).isEmpty();
+    }
+
+    private Album album(String id, String title, String artistName) {
+        return Album.builder().id(id).title(title).artistName(artistName).build();
+    }
+
+    private AlbumSuggestionDTO suggestion(String value, String field) {
+        return AlbumSuggestionDTO.builder().value(value).field(field).build();
+    }
+}
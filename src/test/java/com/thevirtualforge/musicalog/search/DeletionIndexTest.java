@@ -0,0 +1,93 @@
+package com.thevirtualforge.musicalog.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class DeletionIndexTest {
+
+    private static final String LETTERS = "abcd ";
+
+    @Test
+    void search() {
+        DeletionIndex index = new DeletionIndex(2);
+        index.add("drake");
+        index.add("for all the dogs");
+        index.add("adonis");
+
+        assertThat(index.search("drak", 1)).isEqualTo(Map.of("drake", 1));
+        assertThat(index.search("adnois", 2)).isEqualTo(Map.of("adonis", 2));
+        assertThat(index.search("for all the dog", 1)).isEqualTo(Map.of("for all the dogs", 1));
+        assertThat(index.search("fro all the dogs", 1)).isEmpty();
+        assertThat(index.search("drk", 1)).isEmpty();
+    }
+
+    @Test
+    void search_findsWhatAFullScanFindsAfterAddsAndRemoves() {
+        Random random = new Random(3);
+        DeletionIndex index = new DeletionIndex(2);
+        Set<String> terms = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            String term = randomTerm(random, 1 + random.nextInt(14));
+            index.add(term);
+            terms.add(term);
+        }
+        List<String> removed = new ArrayList<>(terms).subList(0, terms.size() / 3);
+        removed.forEach(index::remove);
+        removed.forEach(terms::remove);
+
+        for (int i = 0; i < 300; i++) {
+            String query = randomTerm(random, random.nextInt(16));
+            int maxDistance = random.nextInt(3);
+
+            Map<String, Integer> expected = new HashMap<>();
+            for (String term : terms) {
+                int distance = Levenshtein.distance(query, term);
+                if (distance <= maxDistance) {
+                    expected.put(term, distance);
+                }
+            }
+            assertThat(index.search(query, maxDistance)).as("'%s' within %d", query, maxDistance).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void remove_dropsOnlyThatTerm() {
+        DeletionIndex index = new DeletionIndex(2);
+        index.add("drake");
+        index.add("brake");
+
+        index.remove("drake");
+        index.remove("drakeo");
+
+        assertThat(index.search("drake", 1)).isEqualTo(Map.of("brake", 1));
+
+        index.add("drake");
+
+        assertThat(index.search("drake", 1)).isEqualTo(Map.of("drake", 0, "brake", 1));
+    }
+
+    @Test
+    void search_rejectsDistancesBeyondTheIndexedOne() {
+        DeletionIndex index = new DeletionIndex(1);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> index.search("drake", 2));
+    }
+
+    private static String randomTerm(Random random, int length) {
+        StringBuilder term = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            term.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return term.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.thevirtualforge.musicalog.search;
+
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumsInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+class FuzzyAlbumIndexTest {
+
+    private static final int MAX_MATCHES = 2;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private FuzzyAlbumIndex fuzzyAlbumIndex;
+
+    @BeforeEach
+    void setup() {
+        fuzzyAlbumIndex = new FuzzyAlbumIndex(mongoTemplate, MAX_MATCHES);
+
+        doReturn(Stream.of(
+            album("01", "For All The Dogs", "Drake"),
+            album("02", "Scorpion", "Adonis"),
+            album("03", "Lemonade", "Beyoncé")))
+            .when(mongoTemplate).stream(any(Query.class), eq(Album.class));
+
+        fuzzyAlbumIndex.run(null);
+    }
+
+    @Test
+    void maxDistance() {
+        assertThat(FuzzyAlbumIndex.maxDistance("ab")).isZero();
+        assertThat(FuzzyAlbumIndex.maxDistance("drak")).isEqualTo(1);
+        assertThat(FuzzyAlbumIndex.maxDistance("beyonse")).isEqualTo(2);
+    }
+
+    @Test
+    void findArtistNames() {
+        assertThat(fuzzyAlbumIndex.findArtistNames("drak")).isEqualTo(Map.of("01", 1));
+        assertThat(fuzzyAlbumIndex.findArtistNames("beyonse")).isEqualTo(Map.of("03", 1));
+        assertThat(fuzzyAlbumIndex.findArtistNames("adnois")).isEqualTo(Map.of("02", 2));
+        assertThat(fuzzyAlbumIndex.findArtistNames("drk")).isEmpty();
+    }
+
+    @Test
+    void findTitles() {
+        assertThat(fuzzyAlbumIndex.findTitles("scorpoin")).isEqualTo(Map.of("02", 2));
+        assertThat(fuzzyAlbumIndex.findTitles("for all the dog")).isEqualTo(Map.of("01", 1));
+    }
+
+    @Test
+    void findArtistNames_keepsNearestMatches() {
+        fuzzyAlbumIndex.put(album("04", "Honestly, Nevermind", "Drake"));
+        fuzzyAlbumIndex.put(album("05", "Brake Pads", "Brake"));
+        fuzzyAlbumIndex.put(album("06", "Drakeo", "Drakeo"));
+
+        assertThat(fuzzyAlbumIndex.findArtistNames("drake")).isEqualTo(Map.of("01", 0, "04", 0));
+    }
+
+    @Test
+    void find_intersectsBeforeKeepingNearestMatches() {
+        fuzzyAlbumIndex.put(album("04", "Honestly, Nevermind", "Drake"));
+        fuzzyAlbumIndex.put(album("05", "Brake Pads", "Brake"));
+
+        assertThat(fuzzyAlbumIndex.find("brake pads", "drake")).isEqualTo(Map.of("05", 1));
+        assertThat(fuzzyAlbumIndex.find(null, null)).isEmpty();
+    }
+
+    @Test
+    void onAlbumSavedAndDeleted() {
+        fuzzyAlbumIndex.onAlbumSaved(new AlbumSavedEvent(album("01", "For All The Dogs", "Drakeo")));
+
+        assertThat(fuzzyAlbumIndex.findArtistNames("drake")).isEqualTo(Map.of("01", 1));
+
+        fuzzyAlbumIndex.onAlbumDeleted(new AlbumDeletedEvent("01"));
+
+        assertThat(fuzzyAlbumIndex.findArtistNames("drake")).isEmpty();
+        assertThat(fuzzyAlbumIndex.findTitles("for all the dogs")).isEmpty();
+    }
+
+    @Test
+    void onAlbumsInvalidated_reloadsSoMissedRenamesAndDeletesDisappear() {
+        doReturn(Stream.of(album("01", "For All The Dogs", "Drakeo")))
+            .when(mongoTemplate).stream(any(Query.class), eq(Album.class));
+
+        fuzzyAlbumIndex.onAlbumsInvalidated(new AlbumsInvalidatedEvent());
+
+        assertThat(fuzzyAlbumIndex.isLoaded()).isTrue();
+        assertThat(fuzzyAlbumIndex.findArtistNames("drake")).isEqualTo(Map.of("01", 1));
+        assertThat(fuzzyAlbumIndex.findTitles("scorpoin")).isEmpty();
+    }
+
+    private Album album(String id, String title, String artistName) {
+        return Album.builder().id(id).title(title).artistName(artistName).build();
+    }
+}
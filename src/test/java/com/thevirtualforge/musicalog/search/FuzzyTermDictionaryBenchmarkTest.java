@@ -0,0 +1,98 @@
+package com.thevirtualforge.musicalog.search;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+class FuzzyTermDictionaryBenchmarkTest {
+
+    private static final int TERM_COUNT = 500_000;
+    private static final int WARMUP_LOOKUPS = 200;
+    private static final int MEASURED_LOOKUPS = 500;
+    private static final int SCANNED_LOOKUPS = 20;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private static List<String> terms;
+    private static FuzzyTermDictionary dictionary;
+
+    @BeforeAll
+    static void buildDictionary() {
+        Random random = new Random(8);
+        Set<String> distinct = new LinkedHashSet<>();
+        while (distinct.size() < TERM_COUNT) {
+            distinct.add(randomTerm(random, 5 + random.nextInt(8)));
+        }
+        terms = List.copyOf(distinct);
+
+        dictionary = new FuzzyTermDictionary();
+        for (int i = 0; i < terms.size(); i++) {
+            dictionary.put(String.valueOf(i), terms.get(i));
+        }
+    }
+
+    @ParameterizedTest(name = "max distance {0}")
+    @ValueSource(ints = {1, 2})
+    void deletionIndexLookupComparedWithFullScan(int maxDistance) {
+        Random random = new Random(15);
+        for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+            dictionary.find(misspelt(random, maxDistance), maxDistance);
+        }
+
+        long[] latencies = new long[MEASURED_LOOKUPS];
+        for (int i = 0; i < MEASURED_LOOKUPS; i++) {
+            String query = misspelt(random, maxDistance);
+            long started = System.nanoTime();
+            assertThat(dictionary.find(query, maxDistance)).isNotEmpty();
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+
+        long scanStarted = System.nanoTime();
+        for (int i = 0; i < SCANNED_LOOKUPS; i++) {
+            String query = misspelt(random, maxDistance);
+            List<String> matches = new ArrayList<>();
+            for (String term : terms) {
+                if (Levenshtein.distance(query, term) <= maxDistance) {
+                    matches.add(term);
+                }
+            }
+            assertThat(matches).isNotEmpty();
+        }
+        long scanMean = (System.nanoTime() - scanStarted) / SCANNED_LOOKUPS;
+
+        System.out.printf("%,d terms, max distance %d: deletion index mean %.3f ms, p99 %.3f ms; full scan mean %.1f ms%n",
+            TERM_COUNT,
+            maxDistance,
+            Arrays.stream(latencies).average().orElse(0) / 1e6,
+            latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1e6,
+            scanMean / 1e6);
+    }
+
+    // a dictionary term with up to maxDistance random substitutions
+    private static String misspelt(Random random, int maxDistance) {
+        char[] term = terms.get(random.nextInt(terms.size())).toCharArray();
+        for (int edit = 0; edit < maxDistance; edit++) {
+            term[random.nextInt(term.length)] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+        }
+        return new String(term);
+    }
+
+    private static String randomTerm(Random random, int length) {
+        StringBuilder term = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            term.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return term.toString();
+    }
+}
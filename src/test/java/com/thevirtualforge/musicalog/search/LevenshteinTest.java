@@ -0,0 +1,29 @@
+package com.thevirtualforge.musicalog.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LevenshteinTest {
+
+    @Test
+    void distance() {
+        assertThat(Levenshtein.distance("drake", "drake")).isZero();
+        assertThat(Levenshtein.distance("drake", "drak")).isEqualTo(1);
+        assertThat(Levenshtein.distance("drake", "darke")).isEqualTo(2);
+        assertThat(Levenshtein.distance("drake", "brake")).isEqualTo(1);
+        assertThat(Levenshtein.distance("", "abc")).isEqualTo(3);
+        assertThat(Levenshtein.distance("kitten", "sitting")).isEqualTo(3);
+    }
+
+    @Test
+    void distance_stopsBeyondMaxDistance() {
+        assertThat(Levenshtein.distance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(Levenshtein.distance("kitten", "sitting", 2)).isEqualTo(3);
+        assertThat(Levenshtein.distance("kitten", "sitting", 1)).isEqualTo(2);
+        assertThat(Levenshtein.distance("drake", "darke", 2)).isEqualTo(2);
+        assertThat(Levenshtein.distance("abc", "abcdef", 2)).isEqualTo(3);
+        assertThat(Levenshtein.distance("abcdef", "fedcba", 1)).isEqualTo(2);
+        assertThat(Levenshtein.distance("", "ab", 2)).isEqualTo(2);
+    }
+}
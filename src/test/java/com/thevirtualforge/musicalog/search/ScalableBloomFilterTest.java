@@ -0,0 +1,54 @@
+package com.thevirtualforge.musicalog.search;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void mightContain_hasNoFalseNegativesAfterGrowing() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(new ObjectId().toHexString());
+        }
+
+        ids.forEach(filter::put);
+
+        assertThat(ids).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void mightContain_rejectsMostUnknownIds() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(new ObjectId().toHexString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(new ObjectId().toHexString())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void mightContain_matchesObjectIdsWhateverTheirHexCase() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.0001);
+        String id = new ObjectId().toHexString();
+        filter.put(id);
+        filter.put("Album-Key");
+
+        assertThat(filter.mightContain(id.toUpperCase(Locale.ROOT))).isTrue();
+        assertThat(filter.mightContain("album-key")).isFalse();
+    }
+}
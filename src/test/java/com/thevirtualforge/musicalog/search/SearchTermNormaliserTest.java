@@ -0,0 +1,19 @@
+package com.thevirtualforge.musicalog.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTermNormaliserTest {
+
+    @Test
+    void normalise() {
+        assertThat(SearchTermNormaliser.normalise(null)).isNull();
+        assertThat(SearchTermNormaliser.normalise("")).isEmpty();
+        assertThat(SearchTermNormaliser.normalise("Drake")).isEqualTo("drake");
+        assertThat(SearchTermNormaliser.normalise("  For All   The\tDogs ")).isEqualTo("for all the dogs");
+        assertThat(SearchTermNormaliser.normalise("Beyoncé")).isEqualTo("beyonce");
+        assertThat(SearchTermNormaliser.normalise("ＡＢＢＡ")).isEqualTo("abba");
+        assertThat(SearchTermNormaliser.normalise("SIGUR RÓS")).isEqualTo("sigur ros");
+    }
+}
@@ -0,0 +1,112 @@
+package com.thevirtualforge.musicalog.search;
+
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumsInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+class TitleTrigramIndexTest {
+
+    private static final int MAX_MATCHES = 3;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private TitleTrigramIndex titleTrigramIndex;
+
+    @BeforeEach
+    void setup() {
+        titleTrigramIndex = new TitleTrigramIndex(mongoTemplate, MAX_MATCHES);
+
+        doReturn(Stream.of(album("01", "For All The Dogs"), album("02", "Scorpion")))
+            .when(mongoTemplate).stream(any(Query.class), eq(Album.class));
+
+        titleTrigramIndex.run(null);
+    }
+
+    @Test
+    void trigrams() {
+        assertThat(TitleTrigramIndex.trigrams("dogs")).containsExactly("dog", "ogs");
+        assertThat(TitleTrigramIndex.trigrams("do")).isEmpty();
+    }
+
+    @Test
+    void findContaining() {
+        assertThat(titleTrigramIndex.findContaining("all the")).hasValue(Set.of("01"));
+        assertThat(titleTrigramIndex.findContaining("corp")).hasValue(Set.of("02"));
+        assertThat(titleTrigramIndex.findContaining("dogz")).hasValue(Set.of());
+    }
+
+    @Test
+    void findContaining_verifiesCandidatesAgainstTitle() {
+        titleTrigramIndex.put(album("03", "abcd bcde"));
+
+        assertThat(titleTrigramIndex.findContaining("abcde")).hasValue(Set.of());
+    }
+
+    @Test
+    void findContaining_notUsableForShortQueries() {
+        assertThat(titleTrigramIndex.findContaining("do")).isEmpty();
+        assertThat(titleTrigramIndex.findContaining(null)).isEmpty();
+    }
+
+    @Test
+    void findContaining_notUsableForTooManyMatches() {
+        titleTrigramIndex.put(album("03", "Dogs"));
+        titleTrigramIndex.put(album("04", "Hot Dogs"));
+
+        assertThat(titleTrigramIndex.findContaining("dogs")).hasValue(Set.of("01", "03", "04"));
+
+        titleTrigramIndex.put(album("05", "Dogs Of War"));
+
+        assertThat(titleTrigramIndex.findContaining("dogs")).isEmpty();
+    }
+
+    @Test
+    void findContaining_notUsableBeforeLoaded() {
+        assertThat(new TitleTrigramIndex(mongoTemplate, MAX_MATCHES).findContaining("dogs")).isEmpty();
+    }
+
+    @Test
+    void onAlbumSavedAndDeleted() {
+        titleTrigramIndex.onAlbumSaved(new AlbumSavedEvent(album("01", "Scorpion Deluxe")));
+
+        assertThat(titleTrigramIndex.findContaining("dogs")).hasValue(Set.of());
+        assertThat(titleTrigramIndex.findContaining("scorpion")).hasValue(Set.of("01", "02"));
+
+        titleTrigramIndex.onAlbumDeleted(new AlbumDeletedEvent("02"));
+
+        assertThat(titleTrigramIndex.findContaining("scorpion")).hasValue(Set.of("01"));
+    }
+
+    @Test
+    void onAlbumsInvalidated_reloadsFromMongo() {
+        doReturn(Stream.of(album("03", "Views")))
+            .when(mongoTemplate).stream(any(Query.class), eq(Album.class));
+
+        titleTrigramIndex.onAlbumsInvalidated(new AlbumsInvalidatedEvent());
+
+        assertThat(titleTrigramIndex.findContaining("dogs")).hasValue(Set.of());
+        assertThat(titleTrigramIndex.findContaining("views")).hasValue(Set.of("03"));
+    }
+
+    private Album album(String id, String title) {
+        return Album.builder().id(id).title(title).build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.thevirtualforge.musicalog.model.Album;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlbumCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, Optional<Album>> loader = id -> {
+        loads.incrementAndGet();
+        return Optional.of(Album.builder().id(id).build());
+    };
+
+    @Test
+    void get_cachesLoadedAlbumsAndCountsHitsAndMisses() {
+        AlbumCache albumCache = new AlbumCache(DataSize.ofKilobytes(64), Duration.ofMinutes(1));
+
+        Optional<Album> first = albumCache.get("01", loader);
+        Optional<Album> second = albumCache.get("01", loader);
+
+        assertThat(second.get()).isSameAs(first.get());
+        assertThat(loads).hasValue(1);
+        assertThat(albumCache.getStats())
+            .isEqualTo(new AlbumCache.Stats(1, 1, 0, 1));
+    }
+
+    @Test
+    void get_doesNotCacheMissingAlbums() {
+        AlbumCache albumCache = new AlbumCache(DataSize.ofKilobytes(64), Duration.ofMinutes(1));
+
+        albumCache.get("01", id -> Optional.empty());
+
+        assertThat(albumCache.get("01", loader)).isPresent();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidate_reloadsAlbum() {
+        AlbumCache albumCache = new AlbumCache(DataSize.ofKilobytes(64), Duration.ofMinutes(1));
+
+        albumCache.get("01", loader);
+        albumCache.invalidate("01");
+        albumCache.get("01", loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_doesNotCacheAlbumLoadedAcrossAnInvalidation() {
+        AlbumCache albumCache = new AlbumCache(DataSize.ofKilobytes(64), Duration.ofMinutes(1));
+
+        albumCache.get("01", id -> {
+            albumCache.invalidate(id);
+            return loader.apply(id);
+        });
+        albumCache.get("01", loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_reloadsExpiredAlbum() {
+        AtomicLong nanos = new AtomicLong();
+        AlbumCache albumCache = new AlbumCache(64 * 1024, Duration.ofMinutes(1), nanos::get);
+
+        albumCache.get("01", loader);
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        albumCache.get("01", loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_evictsBeyondMaxWeight() {
+        int weight = AlbumCache.weigh("01", Album.builder().id("01").build());
+        AlbumCache albumCache = new AlbumCache(2L * weight, Duration.ofMinutes(1), System::nanoTime);
+
+        for (String id : List.of("01", "02", "03", "04", "05")) {
+            albumCache.get(id, loader);
+        }
+
+        assertThat(loads).hasValue(5);
+        assertThat(albumCache.getStats().getEvictions()).isEqualTo(3);
+        assertThat(albumCache.getStats().getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void get_bypassesCacheWhenDisabled() {
+        AlbumCache albumCache = new AlbumCache(DataSize.ofBytes(0), Duration.ofMinutes(1));
+
+        albumCache.get("01", loader);
+        albumCache.get("01", loader);
+
+        assertThat(loads).hasValue(2);
+    }
+}
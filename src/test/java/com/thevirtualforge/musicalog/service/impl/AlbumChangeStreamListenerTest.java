@@ -0,0 +1,219 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.thevirtualforge.musicalog.MusicalogApplication;
+import com.thevirtualforge.musicalog.configuration.TestMongoContainerConfiguration;
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
+import com.thevirtualforge.musicalog.exception.AlbumNotFoundException;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.service.AlbumService;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlbumChangeStreamListenerTest {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        new TestMongoContainerConfiguration();
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @AfterEach
+    void cleanup() {
+        MongoTemplate mongoTemplate = nodeA.getBean(MongoTemplate.class);
+        mongoTemplate.remove(new Query(), Album.class);
+        mongoTemplate.dropCollection(AlbumChangeStreamListener.RESUME_TOKENS_COLLECTION);
+    }
+
+    @Test
+    void updateOnOneNodeInvalidatesCachedAlbumOnTheOther() throws InterruptedException {
+        String id = insertAlbum().getId();
+        AlbumService albumServiceA = nodeA.getBean(AlbumService.class);
+        AlbumService albumServiceB = nodeB.getBean(AlbumService.class);
+
+        assertThat(albumServiceB.getAlbum(id, Set.of()).getTitle()).isEqualTo("Scorpion");
+
+        albumServiceA.updateAlbum(id, AlbumPayloadDTO.builder().title("Views").build(), null);
+
+        awaitUntil(() -> "Views".equals(albumServiceB.getAlbum(id, Set.of()).getTitle()));
+    }
+
+    @Test
+    void deleteInvalidatesCachedAlbumOnEveryNode() throws InterruptedException {
+        String id = insertAlbum().getId();
+        AlbumService albumServiceA = nodeA.getBean(AlbumService.class);
+        AlbumService albumServiceB = nodeB.getBean(AlbumService.class);
+
+        albumServiceA.getAlbum(id, Set.of());
+        albumServiceB.getAlbum(id, Set.of());
+
+        nodeA.getBean(MongoTemplate.class).remove(new Query(), Album.class);
+
+        awaitUntil(() -> isMissing(albumServiceA, id) && isMissing(albumServiceB, id));
+    }
+
+    @Test
+    void directInsertIsFoundByTitleFilterOnEveryNode() throws InterruptedException {
+        String id = insertAlbum().getId();
+        AlbumFilterDTO filter = AlbumFilterDTO.builder().title("corpio").build();
+
+        for (ConfigurableApplicationContext node : List.of(nodeA, nodeB)) {
+            AlbumService albumService = node.getBean(AlbumService.class);
+            awaitUntil(() -> albumService.getMatchingAlbums(filter, AlbumPageRequestDTO.builder().build(), Set.of())
+                .getAlbums().stream()
+                .anyMatch(album -> album.getId().equals(id)));
+        }
+    }
+
+    @Test
+    void directInsertIsFoundByIdOnEveryNode() throws InterruptedException {
+        String id = insertAlbum().getId();
+
+        for (ConfigurableApplicationContext node : List.of(nodeA, nodeB)) {
+            AlbumService albumService = node.getBean(AlbumService.class);
+            awaitUntil(() -> !isMissing(albumService, id));
+        }
+    }
+
+    @Test
+    void storesResumeTokenPerNode() throws InterruptedException {
+        insertAlbum();
+        MongoTemplate mongoTemplate = nodeA.getBean(MongoTemplate.class);
+
+        awaitUntil(() -> mongoTemplate.findAll(Document.class, AlbumChangeStreamListener.RESUME_TOKENS_COLLECTION)
+            .stream()
+            .map(token -> token.getString("_id"))
+            .toList()
+            .containsAll(Set.of("node-a", "node-b")));
+    }
+
+    @Test
+    void unresumableTokenFallsBackToWatchingFromNow() throws InterruptedException {
+        MongoTemplate mongoTemplate = nodeA.getBean(MongoTemplate.class);
+        mongoTemplate.insert(
+            new Document("_id", "node-c").append(AlbumChangeStreamListener.TOKEN, new Document("_data", "00")),
+            AlbumChangeStreamListener.RESUME_TOKENS_COLLECTION);
+
+        try (ConfigurableApplicationContext nodeC = startNode("node-c")) {
+            String id = insertAlbum().getId();
+            AlbumService albumServiceC = nodeC.getBean(AlbumService.class);
+
+            albumServiceC.getAlbum(id, Set.of());
+            nodeA.getBean(AlbumService.class).updateAlbum(id, AlbumPayloadDTO.builder().title("Views").build(), null);
+
+            awaitUntil(() -> "Views".equals(albumServiceC.getAlbum(id, Set.of()).getTitle()));
+        }
+    }
+
+    @Test
+    void tokenThatFellOffTheOplogIsReplacedWithAFreshOne() throws InterruptedException {
+        MongoTemplate mongoTemplate = nodeA.getBean(MongoTemplate.class);
+        String staleToken = beforeOplogStart(currentResumeToken(mongoTemplate));
+        mongoTemplate.insert(
+            new Document("_id", "node-d").append(AlbumChangeStreamListener.TOKEN, new Document("_data", staleToken)),
+            AlbumChangeStreamListener.RESUME_TOKENS_COLLECTION);
+
+        try (ConfigurableApplicationContext nodeD = startNode("node-d")) {
+            String id = insertAlbum().getId();
+            AlbumService albumServiceD = nodeD.getBean(AlbumService.class);
+
+            albumServiceD.getAlbum(id, Set.of());
+            nodeA.getBean(AlbumService.class).updateAlbum(id, AlbumPayloadDTO.builder().title("Views").build(), null);
+
+            awaitUntil(() -> "Views".equals(albumServiceD.getAlbum(id, Set.of()).getTitle()));
+            awaitUntil(() -> {
+                Document stored = mongoTemplate.findById("node-d", Document.class, AlbumChangeStreamListener.RESUME_TOKENS_COLLECTION);
+                return stored != null && !staleToken.equals(stored.get(AlbumChangeStreamListener.TOKEN, Document.class).getString("_data"));
+            });
+        }
+    }
+
+    private String currentResumeToken(MongoTemplate mongoTemplate) {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor =
+                 mongoTemplate.getCollection(mongoTemplate.getCollectionName(Album.class)).watch().cursor()) {
+            insertAlbum();
+            ChangeStreamDocument<Document> change = null;
+            while (change == null) {
+                change = cursor.tryNext();
+            }
+            return change.getResumeToken().getString("_data").getValue();
+        }
+    }
+
+    // a resume token starts with a type byte and the cluster time of the change; Timestamp(1, 1) predates any oplog
+    private static String beforeOplogStart(String resumeToken) {
+        return resumeToken.substring(0, 2) + "0000000100000001" + resumeToken.substring(18);
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(MusicalogApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "album-change-stream.enabled=true",
+                "album-change-stream.node-id=" + nodeId,
+                "album-change-stream.retry-delay=100ms",
+                "album-change-stream.checkpoint-interval=200ms",
+                "album-id-filter.enabled=true",
+                "spring.cloud.aws.region.static=eu-west-1",
+                "spring.cloud.aws.credentials.access-key=noop",
+                "spring.cloud.aws.credentials.secret-key=noop")
+            .run();
+    }
+
+    private Album insertAlbum() {
+        return nodeA.getBean(MongoTemplate.class).insert(Album.builder()
+            .title("Scorpion")
+            .artistName("Drake")
+            .titleNormalised("scorpion")
+            .artistNameNormalised("drake")
+            .type(AlbumType.CD)
+            .stock(1)
+            .build());
+    }
+
+    private boolean isMissing(AlbumService albumService, String id) {
+        try {
+            albumService.getAlbum(id, Set.of());
+            return false;
+        } catch (AlbumNotFoundException e) {
+            return true;
+        }
+    }
+
+    private void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 10 seconds").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
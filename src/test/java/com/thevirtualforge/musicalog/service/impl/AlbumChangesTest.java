@@ -0,0 +1,95 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thevirtualforge.musicalog.mapper.AlbumMapperImpl;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumsInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlbumChangesTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AlbumCache albumCache;
+
+    private AlbumFacetCache albumFacetCache;
+
+    private AlbumChanges albumChanges;
+
+    @BeforeEach
+    void setup() {
+        albumCache = new AlbumCache(DataSize.ofKilobytes(64), Duration.ofMinutes(1));
+        albumFacetCache = new AlbumFacetCache(10);
+        albumChanges = new AlbumChanges(
+            new AlbumReadCoalescer(),
+            albumCache,
+            new AlbumJsonCache(new AlbumMapperImpl(), new ObjectMapper(), DataSize.ofKilobytes(64), Duration.ofMinutes(1)),
+            albumFacetCache,
+            eventPublisher);
+    }
+
+    @Test
+    void albumChanged_dropsTheCachedAlbumAndPublishesIt() {
+        Album album = album("01");
+        albumCache.get("01", id -> Optional.of(album));
+
+        albumChanges.albumChanged(album);
+
+        assertThat(albumCache.getIfPresent("01")).isEmpty();
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(1);
+        verify(eventPublisher).publishEvent(new AlbumSavedEvent(album));
+    }
+
+    @Test
+    void albumsChanged_bumpsTheGenerationOncePerBatch() {
+        albumChanges.albumsChanged(List.of(album("01"), album("02")));
+        albumChanges.albumsChanged(List.of());
+
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(1);
+        verify(eventPublisher, times(2)).publishEvent(any(AlbumSavedEvent.class));
+    }
+
+    @Test
+    void albumRemoved_dropsTheCachedAlbumAndPublishesItsId() {
+        albumCache.get("01", id -> Optional.of(album("01")));
+
+        albumChanges.albumRemoved("01");
+
+        assertThat(albumCache.getIfPresent("01")).isEmpty();
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(1);
+        verify(eventPublisher).publishEvent(new AlbumDeletedEvent("01"));
+    }
+
+    @Test
+    void allChanged_dropsEveryCachedAlbum() {
+        albumCache.get("01", id -> Optional.of(album("01")));
+        albumCache.get("02", id -> Optional.of(album("02")));
+
+        albumChanges.allChanged();
+
+        assertThat(albumCache.getIfPresent("01")).isEmpty();
+        assertThat(albumCache.getIfPresent("02")).isEmpty();
+        verify(eventPublisher).publishEvent(new AlbumsInvalidatedEvent());
+    }
+
+    private Album album(String id) {
+        return Album.builder().id(id).title("For All The Dogs").artistName("Drake").build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlbumFacetCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Supplier<AlbumFacetsDTO> loader = () -> AlbumFacetsDTO.builder()
+        .total(loads.incrementAndGet())
+        .build();
+
+    @Test
+    void get_cachesPerNormalisedFilter() {
+        AlbumFacetCache albumFacetCache = new AlbumFacetCache(10);
+
+        AlbumFacetsDTO first = albumFacetCache.get(AlbumFilterDTO.builder().artistName("Drake").build(), loader);
+        AlbumFacetsDTO second = albumFacetCache.get(AlbumFilterDTO.builder().artistName(" DRAKE ").build(), loader);
+        AlbumFacetsDTO other = albumFacetCache.get(AlbumFilterDTO.builder().artistName("Adonis").build(), loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void bumpGeneration_invalidatesCachedFacets() {
+        AlbumFacetCache albumFacetCache = new AlbumFacetCache(10);
+        AlbumFilterDTO filter = AlbumFilterDTO.builder().build();
+
+        albumFacetCache.get(filter, loader);
+        albumFacetCache.bumpGeneration();
+
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(1);
+        assertThat(albumFacetCache.get(filter, loader).getTotal()).isEqualTo(2);
+        assertThat(albumFacetCache.get(filter, loader).getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void get_doesNotCacheBeyondMaxEntries() {
+        AlbumFacetCache albumFacetCache = new AlbumFacetCache(1);
+
+        albumFacetCache.get(AlbumFilterDTO.builder().title("dogs").build(), loader);
+        albumFacetCache.get(AlbumFilterDTO.builder().title("scorpion").build(), loader);
+        albumFacetCache.get(AlbumFilterDTO.builder().title("scorpion").build(), loader);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void get_reloadsFacetsOlderThanTtl() {
+        AtomicLong nanos = new AtomicLong();
+        AlbumFacetCache albumFacetCache = new AlbumFacetCache(10, Duration.ofMinutes(1), nanos::get, false);
+        AlbumFilterDTO filter = AlbumFilterDTO.builder().build();
+
+        albumFacetCache.get(filter, loader);
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        albumFacetCache.get(filter, loader);
+
+        assertThat(loads).hasValue(1);
+
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertThat(albumFacetCache.get(filter, loader).getTotal()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,234 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thevirtualforge.musicalog.configuration.TestMongoContainerConfiguration;
+import com.thevirtualforge.musicalog.dto.AlbumImportJobDTO;
+import com.thevirtualforge.musicalog.dto.AlbumImportRequestDTO;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
+import com.thevirtualforge.musicalog.mapper.AlbumMapperImpl;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.AlbumImportJob;
+import com.thevirtualforge.musicalog.model.enums.AlbumImportFormat;
+import com.thevirtualforge.musicalog.model.enums.AlbumImportStatus;
+import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.repository.AlbumImportJobRepository;
+import com.thevirtualforge.musicalog.repository.AlbumRepository;
+import io.awspring.cloud.s3.S3Template;
+import jakarta.validation.Validation;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+@Testcontainers
+@ContextConfiguration(classes = TestMongoContainerConfiguration.class)
+class AlbumImportServiceImplTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private AlbumImportJobRepository albumImportJobRepository;
+
+    @TempDir
+    private Path directory;
+
+    private AlbumImportServiceImpl albumImportService;
+
+    @BeforeEach
+    void setup() {
+        albumImportService = new AlbumImportServiceImpl(
+            albumImportJobRepository,
+            albumRepository,
+            new AlbumMapperImpl(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ObjectMapper(),
+            mock(S3Template.class),
+            new AlbumFacetCache(10),
+            mock(ApplicationEventPublisher.class),
+            directory.toString(),
+            BATCH_SIZE,
+            1,
+            Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void cleanup() {
+        albumImportService.destroy();
+        mongoTemplate.remove(new Query(), Album.class);
+        mongoTemplate.remove(new Query(), AlbumImportJob.class);
+    }
+
+    @Test
+    void importsCsvInBatchesAndRejectsInvalidRows() throws Exception {
+        Files.writeString(directory.resolve("albums.csv"), """
+            title,artistName,type,stock,supplierCode
+            For All The Dogs,Drake,CD,1,A1
+            Scorpion,Drake,vinyl,2,A2
+            Views,Drake,CASSETTE,3,A3
+            Take Care,Drake,CD,4,A4
+            Nothing Was The Same,Drake,CD,5,A5
+            """);
+
+        AlbumImportJobDTO job = awaitCompletion(albumImportService.startImport(request("albums.csv", "csv")).getId());
+
+        assertThat(job.getStatus()).isEqualTo(AlbumImportStatus.COMPLETED.name());
+        assertThat(job.getCommittedRows()).isEqualTo(5);
+        assertThat(job.getImported()).isEqualTo(4);
+        assertThat(job.getRejected()).isEqualTo(1);
+        assertThat(job.getFailed()).isZero();
+        assertThat(job.getErrors()).containsExactly("row 3: type must be one of: VINYL, CD");
+
+        assertThat(albumRepository.findAll())
+            .extracting(Album::getTitle, Album::getType, Album::getTitleNormalised)
+            .containsExactlyInAnyOrder(
+                tuple("For All The Dogs", AlbumType.CD, "for all the dogs"),
+                tuple("Scorpion", AlbumType.VINYL, "scorpion"),
+                tuple("Take Care", AlbumType.CD, "take care"),
+                tuple("Nothing Was The Same", AlbumType.CD, "nothing was the same"));
+    }
+
+    @Test
+    void importsNdjsonAndRejectsMalformedRows() throws Exception {
+        Files.writeString(directory.resolve("albums.ndjson"), """
+            {"title":"For All The Dogs","artistName":"Drake","type":"CD","stock":1}
+            {"title":"Scorpion","artistName":"Drake","type":"VINYL","stock":"lots"}
+            {"title":"Views","artistName":"Drake","type":"CD","stock":3}
+            """);
+
+        AlbumImportJobDTO job = awaitCompletion(albumImportService.startImport(request("albums.ndjson", "ndjson")).getId());
+
+        assertThat(job.getStatus()).isEqualTo(AlbumImportStatus.COMPLETED.name());
+        assertThat(job.getImported()).isEqualTo(2);
+        assertThat(job.getRejected()).isEqualTo(1);
+        assertThat(job.getErrors()).singleElement().asString().startsWith("row 2: row is malformed");
+        assertThat(albumRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void resumesFromLastCommittedRowWithoutDuplicatingReplayedRows() throws Exception {
+        Files.writeString(directory.resolve("albums.csv"), """
+            title,artistName,type,stock
+            For All The Dogs,Drake,CD,1
+            Scorpion,Drake,VINYL,2
+            Views,Drake,CD,3
+            Take Care,Drake,CD,4
+            Nothing Was The Same,Drake,CD,5
+            """);
+
+        // the crashed run checkpointed two rows and wrote the third before dying
+        String id = new ObjectId().toHexString();
+        Instant crashedAt = Instant.now().minus(Duration.ofHours(1));
+        AlbumImportJob crashed = albumImportJobRepository.insert(AlbumImportJob.builder()
+            .id(id)
+            .rowIdPrefix(AlbumImportServiceImpl.newRowIdPrefix())
+            .source("albums.csv")
+            .format(AlbumImportFormat.CSV)
+            .status(AlbumImportStatus.RUNNING)
+            .committedRows(2)
+            .imported(2)
+            .startedAt(crashedAt)
+            .runStartedAt(crashedAt)
+            .updatedAt(crashedAt)
+            .build());
+        for (long row = 1; row <= 3; row++) {
+            mongoTemplate.insert(Album.builder()
+                .id(AlbumImportServiceImpl.rowId(crashed, row))
+                .title("row " + row)
+                .artistName("Drake")
+                .type(AlbumType.CD)
+                .build());
+        }
+
+        albumImportService.resumeImport(id);
+        AlbumImportJobDTO job = awaitCompletion(id);
+
+        assertThat(job.getStatus()).isEqualTo(AlbumImportStatus.COMPLETED.name());
+        assertThat(job.getCommittedRows()).isEqualTo(5);
+        assertThat(job.getImported()).isEqualTo(5);
+        assertThat(job.getFailed()).isZero();
+        assertThat(albumRepository.count()).isEqualTo(5);
+        assertThat(albumRepository.findById(AlbumImportServiceImpl.rowId(crashed, 1)).orElseThrow().getTitle())
+            .isEqualTo("row 1");
+    }
+
+    @Test
+    void importsStartedInTheSameSecondDoNotShareRowIds() throws Exception {
+        Files.writeString(directory.resolve("albums.csv"), """
+            title,artistName,type,stock
+            For All The Dogs,Drake,CD,1
+            Scorpion,Drake,VINYL,2
+            Views,Drake,CD,3
+            """);
+
+        String first = albumImportService.startImport(request("albums.csv", "csv")).getId();
+        String second = albumImportService.startImport(request("albums.csv", "csv")).getId();
+
+        assertThat(awaitCompletion(first).getImported()).isEqualTo(3);
+        assertThat(awaitCompletion(second).getImported()).isEqualTo(3);
+        assertThat(albumRepository.count()).isEqualTo(6);
+    }
+
+    @Test
+    void resumeImport_rejectsJobThatIsStillCheckpointing() {
+        String id = new ObjectId().toHexString();
+        albumImportJobRepository.insert(AlbumImportJob.builder()
+            .id(id)
+            .source("albums.csv")
+            .format(AlbumImportFormat.CSV)
+            .status(AlbumImportStatus.RUNNING)
+            .updatedAt(Instant.now())
+            .build());
+
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> albumImportService.resumeImport(id))
+            .withMessage("album import " + id + " is still running");
+    }
+
+    @Test
+    void startImport_rejectsFileOutsideImportDirectory() {
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> albumImportService.startImport(request("../outside.csv", "csv")))
+            .withMessage("source ../outside.csv is not a file in the import directory");
+    }
+
+    private AlbumImportRequestDTO request(String source, String format) {
+        return AlbumImportRequestDTO.builder().source(source).format(format).build();
+    }
+
+    private AlbumImportJobDTO awaitCompletion(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        AlbumImportJobDTO job = albumImportService.getImport(id);
+        while (job.getStatus().equals(AlbumImportStatus.RUNNING.name())) {
+            assertThat(System.nanoTime()).as("import completes within 10 seconds").isLessThan(deadline);
+            Thread.sleep(50);
+            job = albumImportService.getImport(id);
+        }
+        return job;
+    }
+}
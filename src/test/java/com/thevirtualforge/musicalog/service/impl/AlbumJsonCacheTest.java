@@ -0,0 +1,48 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thevirtualforge.musicalog.mapper.AlbumMapperImpl;
+import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlbumJsonCacheTest {
+
+    private final Album drake = Album.builder().id("01").title("For All The Dogs").artistName("Drake").version(1).build();
+
+    @Test
+    void toJson_cachesEachRepresentationOfAVersion() {
+        AlbumJsonCache albumJsonCache = albumJsonCache(DataSize.ofKilobytes(64));
+
+        byte[] full = albumJsonCache.toJson(drake, Set.of());
+        byte[] titleOnly = albumJsonCache.toJson(drake, Set.of(AlbumField.TITLE));
+
+        assertThat(albumJsonCache.toJson(drake, Set.of())).isSameAs(full);
+        assertThat(albumJsonCache.toJson(drake, Set.of(AlbumField.TITLE))).isSameAs(titleOnly);
+        assertThat(albumJsonCache.toJson(drake.toBuilder().version(2).build(), Set.of())).isNotSameAs(full);
+        assertThat(albumJsonCache.getStats()).isEqualTo(new AlbumCache.Stats(2, 3, 0, 1));
+    }
+
+    @Test
+    void toJson_countsEvictionsBeyondMaxWeight() {
+        int json = albumJsonCache(DataSize.ofKilobytes(64)).toJson(drake, Set.of()).length;
+        AlbumJsonCache albumJsonCache = albumJsonCache(DataSize.ofBytes(2L * (json + 64)));
+
+        for (String id : Set.of("01", "02", "03", "04", "05")) {
+            albumJsonCache.toJson(drake.toBuilder().id(id).build(), Set.of());
+        }
+
+        assertThat(albumJsonCache.getStats().getEvictions()).isEqualTo(3);
+        assertThat(albumJsonCache.getStats().getSize()).isEqualTo(2);
+    }
+
+    private static AlbumJsonCache albumJsonCache(DataSize maxWeight) {
+        return new AlbumJsonCache(new AlbumMapperImpl(), new ObjectMapper(), maxWeight, Duration.ofMinutes(1));
+    }
+}
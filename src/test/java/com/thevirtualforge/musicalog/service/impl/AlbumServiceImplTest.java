@@ -1,30 +1,66 @@
 package com.thevirtualforge.musicalog.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thevirtualforge.musicalog.dto.AlbumBatchDTO;
+import com.thevirtualforge.musicalog.dto.AlbumBulkCreateDTO;
+import com.thevirtualforge.musicalog.dto.AlbumBulkItemDTO;
 import com.thevirtualforge.musicalog.dto.AlbumDTO;
+import com.thevirtualforge.musicalog.dto.AlbumFacetsDTO;
 import com.thevirtualforge.musicalog.dto.AlbumFilterDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageDTO;
+import com.thevirtualforge.musicalog.dto.AlbumPageRequestDTO;
 import com.thevirtualforge.musicalog.dto.AlbumPayloadDTO;
+import com.thevirtualforge.musicalog.dto.AlbumStockDTO;
+import com.thevirtualforge.musicalog.dto.AlbumSuggestionDTO;
+import com.thevirtualforge.musicalog.exception.AlbumCoverNotStoredException;
 import com.thevirtualforge.musicalog.exception.AlbumNotFoundException;
+import com.thevirtualforge.musicalog.exception.AlbumStockOverflowException;
+import com.thevirtualforge.musicalog.exception.AlbumVersionMismatchException;
+import com.thevirtualforge.musicalog.exception.InsufficientAlbumStockException;
+import com.thevirtualforge.musicalog.exception.InvalidAlbumQueryException;
 import com.thevirtualforge.musicalog.mapper.AlbumMapper;
 import com.thevirtualforge.musicalog.model.Album;
+import com.thevirtualforge.musicalog.model.AlbumFacets;
+import com.thevirtualforge.musicalog.model.enums.AlbumField;
+import com.thevirtualforge.musicalog.model.enums.AlbumSort;
 import com.thevirtualforge.musicalog.model.enums.AlbumType;
+import com.thevirtualforge.musicalog.repository.AlbumCursor;
 import com.thevirtualforge.musicalog.repository.AlbumRepository;
+import com.thevirtualforge.musicalog.repository.AlbumUpdate;
+import com.thevirtualforge.musicalog.search.AlbumIdFilter;
+import com.thevirtualforge.musicalog.search.AlbumSuggestionIndex;
 import com.thevirtualforge.musicalog.service.AlbumService;
 import com.thevirtualforge.musicalog.service.ImageStoreService;
+import com.thevirtualforge.musicalog.service.event.AlbumDeletedEvent;
+import com.thevirtualforge.musicalog.service.event.AlbumSavedEvent;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.util.ResourceUtils;
+import org.springframework.util.unit.DataSize;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -34,6 +70,11 @@ import static org.mockito.Mockito.*;
 public class AlbumServiceImplTest {
 
     private static final String BUCKET_NAME = "image-bucket";
+    private static final int DEFAULT_PAGE_SIZE = 2;
+    private static final int MAX_PAGE_SIZE = 5;
+    private static final int TOP_ARTIST_NAMES = 3;
+    private static final int MAX_BATCH_SIZE = 3;
+    private static final int MAX_BULK_SIZE = 3;
 
     @Mock
     private AlbumRepository albumRepository;
@@ -44,14 +85,59 @@ public class AlbumServiceImplTest {
     @Mock
     private AlbumMapper albumMapper;
 
+    @Mock
+    private AlbumSuggestionIndex albumSuggestionIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AlbumIdFilter albumIdFilter;
+
     @Captor
     private ArgumentCaptor<Album> albumCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<Album>> albumsCaptor;
+
+    private AlbumFacetCache albumFacetCache;
+
+    private AlbumCache albumCache;
+
+    private AlbumCoverUploader albumCoverUploader;
+
     private AlbumService albumService;
 
     @BeforeEach
     void setup() {
-        albumService = new AlbumServiceImpl(albumRepository, albumMapper, imageStoreService, BUCKET_NAME);
+        albumFacetCache = new AlbumFacetCache(10);
+        albumCache = new AlbumCache(DataSize.ofKilobytes(64), Duration.ofMinutes(1));
+        albumCoverUploader = new AlbumCoverUploader(imageStoreService, 2);
+        lenient().doReturn(true).when(albumIdFilter).mightContain(anyString());
+        albumService = new AlbumServiceImpl(
+            albumRepository,
+            albumMapper,
+            imageStoreService,
+            albumSuggestionIndex,
+            eventPublisher,
+            albumFacetCache,
+            albumCache,
+            new AlbumJsonCache(albumMapper, new ObjectMapper(), DataSize.ofKilobytes(64), Duration.ofMinutes(1)),
+            new AlbumReadCoalescer(),
+            Optional.of(albumIdFilter),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            albumCoverUploader,
+            BUCKET_NAME,
+            DEFAULT_PAGE_SIZE,
+            MAX_PAGE_SIZE,
+            TOP_ARTIST_NAMES,
+            MAX_BATCH_SIZE,
+            MAX_BULK_SIZE);
+    }
+
+    @AfterEach
+    void shutdown() {
+        albumCoverUploader.destroy();
     }
 
     @Test
@@ -93,13 +179,85 @@ public class AlbumServiceImplTest {
                 .build());
 
         doReturn(albums)
-            .when(albumRepository).findAll();
+            .when(albumRepository).findBy(AlbumFilterDTO.builder().build(), AlbumSort.ID, null, DEFAULT_PAGE_SIZE + 1, Set.of());
 
         doReturn(albumDTOs)
-            .when(albumMapper).albumsToAlbumDTOs(albums);
+            .when(albumMapper).albumsToAlbumDTOs(albums, Set.of());
 
-        assertThat(albumService.getAllAlbums())
-            .containsExactlyElementsOf(albumDTOs);
+        assertThat(albumService.getAllAlbums(AlbumPageRequestDTO.builder().build(), Set.of()))
+            .isEqualTo(AlbumPageDTO.builder().albums(albumDTOs).build());
+    }
+
+    @Test
+    void getAllAlbumsJson_reusesSerialisedAlbumUntilVersionChanges() {
+        Album album = Album.builder().id("01").title("For All The Dogs").build();
+        Album updatedAlbum = album.toBuilder().title("Scorpion").version(1).build();
+
+        doReturn(List.of(album), List.of(album), List.of(updatedAlbum))
+            .when(albumRepository).findBy(AlbumFilterDTO.builder().build(), AlbumSort.ID, null, DEFAULT_PAGE_SIZE + 1, Set.of());
+        doAnswer(invocation -> {
+            Album mapped = invocation.getArgument(0);
+            return AlbumDTO.builder().id(mapped.getId()).title(mapped.getTitle()).build();
+        }).when(albumMapper).albumToAlbumDTO(any(Album.class), eq(Set.of()));
+
+        AlbumPageRequestDTO page = AlbumPageRequestDTO.builder().build();
+        byte[] first = albumService.getAllAlbumsJson(page, Set.of()).getAlbums().get(0);
+        byte[] second = albumService.getAllAlbumsJson(page, Set.of()).getAlbums().get(0);
+        byte[] updated = albumService.getAllAlbumsJson(page, Set.of()).getAlbums().get(0);
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first, StandardCharsets.UTF_8)).isEqualTo("{\"id\":\"01\",\"title\":\"For All The Dogs\"}");
+        assertThat(new String(updated, StandardCharsets.UTF_8)).isEqualTo("{\"id\":\"01\",\"title\":\"Scorpion\"}");
+        verify(albumMapper, times(2)).albumToAlbumDTO(any(Album.class), eq(Set.of()));
+    }
+
+    @Test
+    void getAllAlbums_returnsNextCursorGivenMoreAlbums() {
+        Album album1 = Album.builder().id("01").title("For All The Dogs").build();
+        Album album2 = Album.builder().id("02").title("Scorpion").build();
+        AlbumDTO albumDTO1 = AlbumDTO.builder().id("01").title("For All The Dogs").build();
+
+        doReturn(List.of(album1, album2))
+            .when(albumRepository).findBy(AlbumFilterDTO.builder().build(), AlbumSort.TITLE, null, 2, Set.of());
+
+        doReturn(List.of(albumDTO1))
+            .when(albumMapper).albumsToAlbumDTOs(List.of(album1), Set.of());
+
+        AlbumPageDTO page = albumService.getAllAlbums(AlbumPageRequestDTO.builder().limit(1).sort("title").build(), Set.of());
+
+        assertThat(page.getAlbums()).containsExactly(albumDTO1);
+        assertThat(AlbumCursor.decode(page.getNext(), AlbumSort.TITLE))
+            .isEqualTo(AlbumCursor.after(AlbumSort.TITLE, album1));
+    }
+
+    @Test
+    void getAllAlbums_continuesFromCursor() {
+        Album album1 = Album.builder().id("01").title("For All The Dogs").build();
+        AlbumCursor cursor = AlbumCursor.after(AlbumSort.ID, album1);
+
+        doReturn(List.of())
+            .when(albumRepository).findBy(AlbumFilterDTO.builder().build(), AlbumSort.ID, cursor, MAX_PAGE_SIZE + 1, Set.of());
+
+        doReturn(List.of())
+            .when(albumMapper).albumsToAlbumDTOs(List.of(), Set.of());
+
+        assertThat(albumService.getAllAlbums(AlbumPageRequestDTO.builder()
+                .limit(MAX_PAGE_SIZE * 10)
+                .cursor(cursor.encode())
+                .build(), Set.of()))
+            .isEqualTo(AlbumPageDTO.builder().albums(List.of()).build());
+    }
+
+    @Test
+    void getAllAlbums_invalidCursor() {
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> albumService.getAllAlbums(AlbumPageRequestDTO.builder().cursor("not-a-cursor").build(), Set.of()));
+    }
+
+    @Test
+    void getAllAlbums_invalidSort() {
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> albumService.getAllAlbums(AlbumPageRequestDTO.builder().sort("stock").build(), Set.of()));
     }
 
     @Test
@@ -129,19 +287,112 @@ public class AlbumServiceImplTest {
                 .build());
 
         doReturn(albums)
-            .when(albumRepository).findBy(albumFilter);
+            .when(albumRepository).findBy(albumFilter, AlbumSort.ID, null, DEFAULT_PAGE_SIZE + 1, Set.of());
 
         doReturn(albumDTOs)
-            .when(albumMapper).albumsToAlbumDTOs(albums);
+            .when(albumMapper).albumsToAlbumDTOs(albums, Set.of());
 
-        assertThat(albumService.getMatchingAlbums(albumFilter))
-            .containsExactlyElementsOf(albumDTOs);
+        assertThat(albumService.getMatchingAlbums(albumFilter, AlbumPageRequestDTO.builder().build(), Set.of()))
+            .isEqualTo(AlbumPageDTO.builder().albums(albumDTOs).build());
     }
 
     @Test
-    void createAlbum() throws IOException {
-        final String coverImageUrl = "s3://image-bucket/01.png";
+    void getMatchingAlbums_textSearchReturnsSinglePageWithoutCursor() {
+        AlbumFilterDTO albumFilter = AlbumFilterDTO.builder().search("dogs").build();
+        List<Album> albums = List.of(
+            Album.builder().id("01").title("For All The Dogs").score(1.5f).build(),
+            Album.builder().id("02").title("Dogs Of War").score(1.1f).build());
+        List<AlbumDTO> albumDTOs = List.of(
+            AlbumDTO.builder().id("01").title("For All The Dogs").score(1.5f).build(),
+            AlbumDTO.builder().id("02").title("Dogs Of War").score(1.1f).build());
+
+        doReturn(albums)
+            .when(albumRepository).findBy(albumFilter, AlbumSort.ID, null, DEFAULT_PAGE_SIZE, Set.of());
+
+        doReturn(albumDTOs)
+            .when(albumMapper).albumsToAlbumDTOs(albums, Set.of());
+
+        assertThat(albumService.getMatchingAlbums(albumFilter, AlbumPageRequestDTO.builder().build(), Set.of()))
+            .isEqualTo(AlbumPageDTO.builder().albums(albumDTOs).build());
+    }
+
+    @Test
+    void getMatchingAlbums_textSearchRejectsCursor() {
+        String cursor = AlbumCursor.after(AlbumSort.ID, Album.builder().id("01").build()).encode();
+
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> albumService.getMatchingAlbums(
+                AlbumFilterDTO.builder().search("dogs").build(),
+                AlbumPageRequestDTO.builder().cursor(cursor).build(),
+                Set.of()));
+    }
+
+    @Test
+    void getMatchingAlbums_fuzzySearchReturnsSinglePageWithoutCursor() {
+        AlbumFilterDTO albumFilter = AlbumFilterDTO.builder().artistName("drak").fuzzy(true).build();
+        List<Album> albums = List.of(Album.builder().id("01").artistName("Drake").build());
+        List<AlbumDTO> albumDTOs = List.of(AlbumDTO.builder().id("01").artistName("Drake").build());
+
+        doReturn(albums)
+            .when(albumRepository).findBy(albumFilter, AlbumSort.ID, null, DEFAULT_PAGE_SIZE, Set.of());
+
+        doReturn(albumDTOs)
+            .when(albumMapper).albumsToAlbumDTOs(albums, Set.of());
+
+        assertThat(albumService.getMatchingAlbums(albumFilter, AlbumPageRequestDTO.builder().build(), Set.of()))
+            .isEqualTo(AlbumPageDTO.builder().albums(albumDTOs).build());
+    }
 
+    @Test
+    void getAlbums_preservesRequestOrderAndReportsMissingIds() {
+        Album album1 = Album.builder().id("01").title("For All The Dogs").build();
+        Album album3 = Album.builder().id("03").title("Scorpion").build();
+        AlbumDTO albumDTO1 = AlbumDTO.builder().id("01").title("For All The Dogs").build();
+        AlbumDTO albumDTO3 = AlbumDTO.builder().id("03").title("Scorpion").build();
+
+        doReturn(List.of(album1, album3))
+            .when(albumRepository).findAllByIds(Set.of("03", "02", "01"), Set.of(AlbumField.TITLE));
+
+        doReturn(albumDTO1)
+            .when(albumMapper).albumToAlbumDTO(album1, Set.of(AlbumField.TITLE));
+        doReturn(albumDTO3)
+            .when(albumMapper).albumToAlbumDTO(album3, Set.of(AlbumField.TITLE));
+
+        assertThat(albumService.getAlbums(List.of("03", "02", " ", "01", "03"), Set.of(AlbumField.TITLE)))
+            .isEqualTo(AlbumBatchDTO.builder()
+                .albums(List.of(albumDTO3, albumDTO1))
+                .missing(List.of("02"))
+                .build());
+    }
+
+    @Test
+    void getAlbums_rejectsTooManyIds() {
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> albumService.getAlbums(List.of("01", "02", "03", "04"), Set.of()))
+            .withMessage("ids must contain at most 3 ids");
+
+        verifyNoInteractions(albumRepository);
+    }
+
+    @Test
+    void streamAlbums() {
+        AlbumFilterDTO albumFilter = AlbumFilterDTO.builder().build();
+        Album album = Album.builder().id("01").title("For All The Dogs").build();
+        AlbumDTO albumDTO = AlbumDTO.builder().id("01").title("For All The Dogs").build();
+
+        doReturn(Stream.of(album))
+            .when(albumRepository).streamBy(albumFilter, Set.of(AlbumField.TITLE));
+
+        doReturn(albumDTO)
+            .when(albumMapper).albumToAlbumDTO(album, Set.of(AlbumField.TITLE));
+
+        try (Stream<AlbumDTO> albums = albumService.streamAlbums(albumFilter, Set.of(AlbumField.TITLE))) {
+            assertThat(albums).containsExactly(albumDTO);
+        }
+    }
+
+    @Test
+    void createAlbum() throws IOException {
         AlbumPayloadDTO payload = AlbumPayloadDTO.builder()
             .coverImage(getMultipartCoverImage())
             .title("For All The Dogs")
@@ -150,48 +401,66 @@ public class AlbumServiceImplTest {
             .stock(1)
             .build();
 
-        Album albumFromPayload = Album.builder()
+        doReturn(Album.builder()
             .title("For All The Dogs")
             .artistName("Drake")
             .type(AlbumType.CD)
             .stock(1)
-            .build();
-
-        doReturn(albumFromPayload)
+            .build())
             .when(albumMapper).albumPayloadDTOToAlbum(payload);
+        doAnswer(invocation -> invocation.getArgument(0))
+            .when(albumRepository).insert(albumCaptor.capture());
 
-        Album insertedAlbum = albumFromPayload.toBuilder().id("01").build();
+        AlbumDTO createdAlbumDTO = AlbumDTO.builder().id("01").build();
+        doReturn(createdAlbumDTO)
+            .when(albumMapper).albumToAlbumDTO(any(Album.class));
 
-        doReturn(insertedAlbum)
-            .when(albumRepository).insert(albumFromPayload);
+        assertThat(albumService.createAlbum(payload))
+            .isEqualTo(createdAlbumDTO);
 
-        Album savedAlbum = insertedAlbum.toBuilder()
-            .coverImageUrl(coverImageUrl)
-            .build();
+        Album insertedAlbum = albumCaptor.getValue();
+        assertThat(insertedAlbum.getId()).isNotNull();
+        assertThat(insertedAlbum.getCoverImageUrl()).isEqualTo("s3://image-bucket/" + insertedAlbum.getId());
 
-        AlbumDTO savedAlbumDTO = AlbumDTO.builder()
-            .id("01")
+        InOrder inOrder = inOrder(imageStoreService, albumRepository);
+        inOrder.verify(imageStoreService, times(1))
+            .storeImage(insertedAlbum.getId(), payload.getCoverImage());
+        inOrder.verify(albumRepository, times(1))
+            .insert(insertedAlbum);
+        verify(albumRepository, never()).save(any(Album.class));
+        verify(eventPublisher, times(1))
+            .publishEvent(new AlbumSavedEvent(insertedAlbum));
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(1);
+    }
+
+    @Test
+    void createAlbum_deleteImageIfInsertFails() throws IOException {
+        AlbumPayloadDTO payload = AlbumPayloadDTO.builder()
+            .coverImage(getMultipartCoverImage())
             .title("For All The Dogs")
             .artistName("Drake")
             .type(AlbumType.CD.name())
             .stock(1)
-            .coverImageUrl(coverImageUrl)
             .build();
 
-        doReturn(savedAlbumDTO)
-            .when(albumMapper).albumToAlbumDTO(savedAlbum);
+        doReturn(Album.builder().title("For All The Dogs").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(payload);
+        doThrow(RuntimeException.class)
+            .when(albumRepository).insert(albumCaptor.capture());
 
-        assertThat(albumService.createAlbum(payload))
-            .isEqualTo(savedAlbumDTO);
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> albumService.createAlbum(payload));
 
+        String id = albumCaptor.getValue().getId();
         verify(imageStoreService, times(1))
-            .storeImage(insertedAlbum.getId(), payload.getCoverImage());
+            .storeImage(id, payload.getCoverImage());
+        verify(imageStoreService, times(1))
+            .deleteImage(id);
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    void createAlbum_deleteImageIfSaveFails() throws IOException {
-        final String coverImageUrl = "s3://image-bucket/01.png";
-
+    void createAlbum_doesNotInsertIfImageStoreFails() throws IOException {
         AlbumPayloadDTO payload = AlbumPayloadDTO.builder()
             .coverImage(getMultipartCoverImage())
             .title("For All The Dogs")
@@ -200,53 +469,241 @@ public class AlbumServiceImplTest {
             .stock(1)
             .build();
 
-        Album albumFromPayload = Album.builder()
+        doReturn(Album.builder().title("For All The Dogs").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(payload);
+        doThrow(RuntimeException.class)
+            .when(imageStoreService).storeImage(anyString(), eq(payload.getCoverImage()));
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> albumService.createAlbum(payload));
+
+        verifyNoInteractions(albumRepository, eventPublisher);
+    }
+
+    @Test
+    void createAlbums_createsValidAlbumsAndReportsInvalidOnes() throws IOException {
+        AlbumPayloadDTO valid = AlbumPayloadDTO.builder()
+            .coverImage(getMultipartCoverImage())
             .title("For All The Dogs")
             .artistName("Drake")
-            .type(AlbumType.CD)
+            .type(AlbumType.CD.name())
             .stock(1)
             .build();
+        AlbumPayloadDTO invalid = valid.toBuilder().title(null).build();
+
+        doReturn(Album.builder().title("For All The Dogs").artistName("Drake").type(AlbumType.CD).stock(1).build())
+            .when(albumMapper).albumPayloadDTOToAlbum(valid);
+        doReturn(Set.of())
+            .when(albumRepository).insertUnordered(albumsCaptor.capture());
+
+        AlbumBulkCreateDTO result = albumService.createAlbums(List.of(valid, invalid));
+
+        Album inserted = albumsCaptor.getValue().get(0);
+        assertThat(albumsCaptor.getValue()).hasSize(1);
+        assertThat(inserted.getId()).isNotNull();
+        assertThat(inserted.getCoverImageUrl()).isEqualTo("s3://image-bucket/" + inserted.getId());
+
+        assertThat(result).isEqualTo(AlbumBulkCreateDTO.builder()
+            .created(1)
+            .failed(1)
+            .albums(List.of(
+                AlbumBulkItemDTO.builder().index(0).id(inserted.getId()).status(AlbumBulkItemDTO.Status.CREATED).build(),
+                AlbumBulkItemDTO.builder()
+                    .index(1)
+                    .status(AlbumBulkItemDTO.Status.INVALID)
+                    .errors(List.of("title must not be blank"))
+                    .build()))
+            .build());
 
-        doReturn(albumFromPayload)
-            .when(albumMapper).albumPayloadDTOToAlbum(payload);
+        verify(imageStoreService, times(1))
+            .storeImage(inserted.getId(), valid.getCoverImage());
+        verify(eventPublisher, times(1))
+            .publishEvent(new AlbumSavedEvent(inserted));
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(1);
+    }
+
+    @Test
+    void createAlbums_reportsFailedUploadWithoutInsertingIt() throws IOException {
+        AlbumPayloadDTO first = AlbumPayloadDTO.builder()
+            .coverImage(getMultipartCoverImage())
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .type(AlbumType.CD.name())
+            .stock(1)
+            .build();
+        AlbumPayloadDTO second = first.toBuilder()
+            .coverImage(getMultipartCoverImageTwo())
+            .title("Scorpion")
+            .build();
+
+        doReturn(Album.builder().title("For All The Dogs").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(first);
+        doReturn(Album.builder().title("Scorpion").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(second);
+        doThrow(RuntimeException.class)
+            .when(imageStoreService).storeImage(anyString(), eq(second.getCoverImage()));
+        doReturn(Set.of())
+            .when(albumRepository).insertUnordered(albumsCaptor.capture());
+
+        AlbumBulkCreateDTO result = albumService.createAlbums(List.of(first, second));
+
+        assertThat(albumsCaptor.getValue())
+            .extracting(Album::getTitle)
+            .containsExactly("For All The Dogs");
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getAlbums().get(1)).isEqualTo(AlbumBulkItemDTO.builder()
+            .index(1)
+            .status(AlbumBulkItemDTO.Status.FAILED)
+            .errors(List.of("coverImage could not be stored"))
+            .build());
+    }
 
-        Album insertedAlbum = albumFromPayload.toBuilder().id("01").build();
+    @Test
+    void createAlbums_deletesCoverOfAlbumThatFailedToInsert() throws IOException {
+        AlbumPayloadDTO first = AlbumPayloadDTO.builder()
+            .coverImage(getMultipartCoverImage())
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .type(AlbumType.CD.name())
+            .stock(1)
+            .build();
+        AlbumPayloadDTO second = first.toBuilder().title("Scorpion").build();
+
+        doReturn(Album.builder().title("For All The Dogs").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(first);
+        doReturn(Album.builder().title("Scorpion").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(second);
+        doReturn(Set.of(1))
+            .when(albumRepository).insertUnordered(albumsCaptor.capture());
+
+        AlbumBulkCreateDTO result = albumService.createAlbums(List.of(first, second));
+
+        Album notInserted = albumsCaptor.getValue().get(1);
+        verify(imageStoreService, times(1)).deleteImage(notInserted.getId());
+        verify(eventPublisher, times(1)).publishEvent(any(AlbumSavedEvent.class));
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getAlbums().get(1).getStatus()).isEqualTo(AlbumBulkItemDTO.Status.FAILED);
+    }
 
-        doReturn(insertedAlbum)
-            .when(albumRepository).insert(albumFromPayload);
+    @Test
+    void createAlbums_reportsEveryAlbumFailedAndDeletesCoversWhenBulkInsertFails() throws IOException {
+        AlbumPayloadDTO first = AlbumPayloadDTO.builder()
+            .coverImage(getMultipartCoverImage())
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .type(AlbumType.CD.name())
+            .stock(1)
+            .build();
+        AlbumPayloadDTO second = first.toBuilder().title("Scorpion").build();
+
+        doReturn(Album.builder().title("For All The Dogs").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(first);
+        doReturn(Album.builder().title("Scorpion").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(second);
+        doThrow(new DataAccessResourceFailureException("connection reset"))
+            .when(albumRepository).insertUnordered(albumsCaptor.capture());
+
+        AlbumBulkCreateDTO result = albumService.createAlbums(List.of(first, second));
+
+        List<String> ids = albumsCaptor.getValue().stream().map(Album::getId).toList();
+        verify(albumRepository, times(1)).deleteAllById(ids);
+        verify(imageStoreService, times(1)).deleteImage(ids.get(0));
+        verify(imageStoreService, times(1)).deleteImage(ids.get(1));
+        verifyNoInteractions(eventPublisher);
+        assertThat(result.getCreated()).isEqualTo(0);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getAlbums())
+            .extracting(AlbumBulkItemDTO::getStatus)
+            .containsExactly(AlbumBulkItemDTO.Status.FAILED, AlbumBulkItemDTO.Status.FAILED);
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(0);
+    }
 
-        Album savedAlbum = insertedAlbum.toBuilder()
-            .coverImageUrl(coverImageUrl)
+    @Test
+    void createAlbums_keepsCoversWhenAlbumsOfFailedBulkInsertCannotBeRemoved() throws IOException {
+        AlbumPayloadDTO first = AlbumPayloadDTO.builder()
+            .coverImage(getMultipartCoverImage())
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .type(AlbumType.CD.name())
+            .stock(1)
             .build();
+        AlbumPayloadDTO second = first.toBuilder().title("Scorpion").build();
+
+        doReturn(Album.builder().title("For All The Dogs").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(first);
+        doReturn(Album.builder().title("Scorpion").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(second);
+        doThrow(new DataAccessResourceFailureException("connection reset"))
+            .when(albumRepository).insertUnordered(anyList());
+        doThrow(new DataAccessResourceFailureException("connection reset"))
+            .when(albumRepository).deleteAllById(anyList());
+
+        AlbumBulkCreateDTO result = albumService.createAlbums(List.of(first, second));
+
+        verify(imageStoreService, never()).deleteImage(anyString());
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getAlbums())
+            .extracting(AlbumBulkItemDTO::getStatus)
+            .containsExactly(AlbumBulkItemDTO.Status.FAILED, AlbumBulkItemDTO.Status.FAILED);
+    }
 
+    @Test
+    void createAlbums_keepsCreatedAlbumsWhenCoverOfFailedInsertCannotBeDeleted() throws IOException {
+        AlbumPayloadDTO first = AlbumPayloadDTO.builder()
+            .coverImage(getMultipartCoverImage())
+            .title("For All The Dogs")
+            .artistName("Drake")
+            .type(AlbumType.CD.name())
+            .stock(1)
+            .build();
+        AlbumPayloadDTO second = first.toBuilder().title("Scorpion").build();
+
+        doReturn(Album.builder().title("For All The Dogs").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(first);
+        doReturn(Album.builder().title("Scorpion").build())
+            .when(albumMapper).albumPayloadDTOToAlbum(second);
+        doReturn(Set.of(1))
+            .when(albumRepository).insertUnordered(albumsCaptor.capture());
         doThrow(RuntimeException.class)
-            .when(albumRepository).save(savedAlbum);
+            .when(imageStoreService).deleteImage(anyString());
 
-        assertThatExceptionOfType(RuntimeException.class)
-            .isThrownBy(() -> albumService.createAlbum(payload));
+        AlbumBulkCreateDTO result = albumService.createAlbums(List.of(first, second));
 
-        verify(imageStoreService, times(1))
-            .storeImage(insertedAlbum.getId(), payload.getCoverImage());
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getAlbums())
+            .extracting(AlbumBulkItemDTO::getStatus)
+            .containsExactly(AlbumBulkItemDTO.Status.CREATED, AlbumBulkItemDTO.Status.FAILED);
+    }
 
-        verify(imageStoreService, times(1))
-            .deleteImage(insertedAlbum.getId());
+    @Test
+    void createAlbums_rejectsMoreThanMaxBulkSize() {
+        List<AlbumPayloadDTO> payloads = Stream.generate(() -> AlbumPayloadDTO.builder().build())
+            .limit(MAX_BULK_SIZE + 1)
+            .toList();
+
+        assertThatExceptionOfType(InvalidAlbumQueryException.class)
+            .isThrownBy(() -> albumService.createAlbums(payloads))
+            .withMessage("albums must contain at most 3 albums");
+        verifyNoInteractions(albumRepository, imageStoreService);
     }
 
     @Test
     void updateAlbum() throws IOException {
         final String key = "01";
 
-        Album existingAlbum = Album.builder()
+        Album updatedAlbum = Album.builder()
             .id(key)
             .coverImageUrl("s3://image-bucket/01")
-            .title("For All The Dogs")
-            .artistName("Drake")
-            .type(AlbumType.CD)
-            .stock(1)
+            .title("Scorpion")
+            .artistName("Adonis")
+            .type(AlbumType.VINYL)
+            .stock(2)
+            .version(1)
             .build();
 
-        doReturn(Optional.of(existingAlbum))
-            .when(albumRepository).findById(key);
+        doReturn(Optional.of(updatedAlbum))
+            .when(albumRepository).updateById(eq(key), any(AlbumUpdate.class), isNull());
 
         AlbumPayloadDTO payload = AlbumPayloadDTO.builder()
             .coverImage(getMultipartCoverImageTwo())
@@ -255,24 +712,60 @@ public class AlbumServiceImplTest {
             .type(AlbumType.VINYL.name())
             .stock(2)
             .build();
-        albumService.updateAlbum(key, payload);
-
-        verify(albumRepository).save(albumCaptor.capture());
+        long version = albumService.updateAlbum(key, payload, null);
 
-        Album savedAlbum = albumCaptor.getValue();
-        assertThat(savedAlbum)
-            .usingRecursiveComparison()
-            .isEqualTo(existingAlbum.toBuilder()
-                .id("01")
-                .coverImageUrl("s3://image-bucket/01")
-                .title("Scorpion")
-                .artistName("Adonis")
-                .type(AlbumType.VINYL)
-                .stock(2)
-                .build());
+        assertThat(version).isEqualTo(1);
+        verify(albumRepository).updateById(key, AlbumUpdate.builder()
+            .title("Scorpion")
+            .titleNormalised("scorpion")
+            .artistName("Adonis")
+            .artistNameNormalised("adonis")
+            .type(AlbumType.VINYL)
+            .stock(2)
+            .build(), null);
+        verify(albumRepository, never()).save(any(Album.class));
+        verify(albumRepository, never()).findVersionById(anyString());
 
         verify(imageStoreService, times(1))
             .storeImage(key, payload.getCoverImage());
+        verify(eventPublisher, times(1))
+            .publishEvent(new AlbumSavedEvent(updatedAlbum));
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(1);
+    }
+
+    @Test
+    void updateAlbum_reportsNewVersionWhenCoverCannotBeStored() throws IOException {
+        final String key = "01";
+        Album updatedAlbum = Album.builder().id(key).stock(2).version(3).build();
+
+        doReturn(Optional.of(updatedAlbum))
+            .when(albumRepository).updateById(eq(key), any(AlbumUpdate.class), isNull());
+        AlbumPayloadDTO payload = AlbumPayloadDTO.builder()
+            .coverImage(getMultipartCoverImageTwo())
+            .stock(2)
+            .build();
+        doThrow(new IllegalStateException("S3 unavailable"))
+            .when(imageStoreService).storeImage(key, payload.getCoverImage());
+
+        assertThatExceptionOfType(AlbumCoverNotStoredException.class)
+            .isThrownBy(() -> albumService.updateAlbum(key, payload, null))
+            .satisfies(e -> assertThat(e.getVersion()).isEqualTo(3));
+        verify(eventPublisher, times(1))
+            .publishEvent(new AlbumSavedEvent(updatedAlbum));
+    }
+
+    @Test
+    void updateAlbum_onlySetsPresentFields() {
+        final String key = "01";
+
+        doReturn(Optional.of(Album.builder().id(key).stock(3).version(2).build()))
+            .when(albumRepository).updateById(eq(key), any(AlbumUpdate.class), eq(Set.of(1L)));
+
+        long version = albumService.updateAlbum(key, AlbumPayloadDTO.builder().stock(3).build(), Set.of(1L));
+
+        assertThat(version).isEqualTo(2);
+        verify(albumRepository).updateById(key, AlbumUpdate.builder().stock(3).build(), Set.of(1L));
+        verifyNoInteractions(imageStoreService);
     }
 
     @Test
@@ -280,10 +773,106 @@ public class AlbumServiceImplTest {
         final String key = "01";
 
         doReturn(Optional.empty())
-            .when(albumRepository).findById(key);
+            .when(albumRepository).updateById(eq(key), any(AlbumUpdate.class), isNull());
+
+        assertThatExceptionOfType(AlbumNotFoundException.class)
+            .isThrownBy(() -> albumService.updateAlbum(key, AlbumPayloadDTO.builder().build(), null));
+        verify(albumRepository, never()).findVersionById(anyString());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateAlbum_versionMismatch() throws IOException {
+        final String key = "01";
+
+        doReturn(Optional.empty())
+            .when(albumRepository).updateById(eq(key), any(AlbumUpdate.class), eq(Set.of(1L)));
+        doReturn(Optional.of(2L))
+            .when(albumRepository).findVersionById(key);
+
+        AlbumPayloadDTO payload = AlbumPayloadDTO.builder()
+            .coverImage(getMultipartCoverImageTwo())
+            .stock(2)
+            .build();
+
+        assertThatExceptionOfType(AlbumVersionMismatchException.class)
+            .isThrownBy(() -> albumService.updateAlbum(key, payload, Set.of(1L)))
+            .withMessage("album 01 has changed");
+        verifyNoInteractions(imageStoreService, eventPublisher);
+        assertThat(albumFacetCache.getGeneration()).isZero();
+    }
+
+    @Test
+    void updateAlbum_conditionalAlbumNotFound() {
+        final String key = "01";
+
+        doReturn(Optional.empty())
+            .when(albumRepository).updateById(eq(key), any(AlbumUpdate.class), eq(Set.of(1L)));
+        doReturn(Optional.empty())
+            .when(albumRepository).findVersionById(key);
+
+        assertThatExceptionOfType(AlbumNotFoundException.class)
+            .isThrownBy(() -> albumService.updateAlbum(key, AlbumPayloadDTO.builder().build(), Set.of(1L)));
+    }
+
+    @Test
+    void adjustStock() {
+        final String key = "01";
+        Album adjustedAlbum = Album.builder().id(key).stock(4).version(3).build();
+
+        doReturn(Optional.of(adjustedAlbum))
+            .when(albumRepository).adjustStock(key, -1);
+
+        AlbumStockDTO stock = albumService.adjustStock(key, -1);
+
+        assertThat(stock).isEqualTo(AlbumStockDTO.builder().id(key).stock(4).build());
+        verify(albumRepository, never()).findById(anyString());
+        verify(eventPublisher, times(1))
+            .publishEvent(new AlbumSavedEvent(adjustedAlbum));
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(1);
+    }
+
+    @Test
+    void adjustStock_insufficientStock() {
+        final String key = "01";
+
+        doReturn(Optional.empty())
+            .when(albumRepository).adjustStock(key, -2);
+        doReturn(Optional.of(3L))
+            .when(albumRepository).findVersionById(key);
+
+        assertThatExceptionOfType(InsufficientAlbumStockException.class)
+            .isThrownBy(() -> albumService.adjustStock(key, -2))
+            .withMessage("album 01 has insufficient stock");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void adjustStock_albumNotFound() {
+        final String key = "01";
+
+        doReturn(Optional.empty())
+            .when(albumRepository).adjustStock(key, 2);
+        doReturn(Optional.empty())
+            .when(albumRepository).findVersionById(key);
 
         assertThatExceptionOfType(AlbumNotFoundException.class)
-            .isThrownBy(() -> albumService.updateAlbum(key, AlbumPayloadDTO.builder().build()));
+            .isThrownBy(() -> albumService.adjustStock(key, 2));
+    }
+
+    @Test
+    void adjustStock_stockOverflow() {
+        final String key = "01";
+
+        doReturn(Optional.empty())
+            .when(albumRepository).adjustStock(key, 2);
+        doReturn(Optional.of(3L))
+            .when(albumRepository).findVersionById(key);
+
+        assertThatExceptionOfType(AlbumStockOverflowException.class)
+            .isThrownBy(() -> albumService.adjustStock(key, 2))
+            .withMessage("album 01 stock would exceed 2147483647");
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -294,6 +883,37 @@ public class AlbumServiceImplTest {
 
         verify(albumRepository, times(1)).deleteById(key);
         verify(imageStoreService, times(1)).deleteImage(key);
+        verify(eventPublisher, times(1)).publishEvent(new AlbumDeletedEvent(key));
+        assertThat(albumFacetCache.getGeneration()).isEqualTo(1);
+    }
+
+    @Test
+    void getAlbumFacets() {
+        AlbumFilterDTO albumFilter = AlbumFilterDTO.builder().artistName("drake").build();
+        AlbumFacets albumFacets = AlbumFacets.builder().total(2).build();
+        AlbumFacetsDTO albumFacetsDTO = AlbumFacetsDTO.builder().total(2).build();
+
+        doReturn(albumFacets)
+            .when(albumRepository).facetsBy(albumFilter, TOP_ARTIST_NAMES);
+
+        doReturn(albumFacetsDTO)
+            .when(albumMapper).albumFacetsToAlbumFacetsDTO(albumFacets);
+
+        assertThat(albumService.getAlbumFacets(albumFilter)).isEqualTo(albumFacetsDTO);
+        assertThat(albumService.getAlbumFacets(albumFilter)).isEqualTo(albumFacetsDTO);
+
+        verify(albumRepository, times(1)).facetsBy(albumFilter, TOP_ARTIST_NAMES);
+    }
+
+    @Test
+    void suggestAlbums() {
+        List<AlbumSuggestionDTO> suggestions = List.of(
+            AlbumSuggestionDTO.builder().value("Drake").field("artistName").build());
+
+        doReturn(suggestions)
+            .when(albumSuggestionIndex).suggest("dra", 5);
+
+        assertThat(albumService.suggestAlbums("dra", 5)).isEqualTo(suggestions);
     }
 
     @Test
@@ -322,16 +942,110 @@ public class AlbumServiceImplTest {
             .when(albumRepository).findById(key);
 
         doReturn(albumDTO)
-            .when(albumMapper).albumToAlbumDTO(album);
+            .when(albumMapper).albumToAlbumDTO(album, Set.of());
 
-        assertThat(albumService.getAlbum(key))
+        assertThat(albumService.getAlbum(key, Set.of()))
+            .isEqualTo(albumDTO);
+        assertThat(albumService.getAlbum(key, Set.of()))
             .isEqualTo(albumDTO);
+
+        verify(albumRepository, times(1)).findById(key);
+        assertThat(albumCache.getStats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void getAlbum_doesNotJoinOrCacheReadStartedBeforeAnUpdate() throws Exception {
+        String key = "01";
+        Album before = Album.builder().id(key).title("Scorpion").version(1).build();
+        Album after = Album.builder().id(key).title("Views").version(2).build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        doAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(before);
+        }).doReturn(Optional.of(after))
+            .when(albumRepository).findById(key);
+        doReturn(Optional.of(after))
+            .when(albumRepository).updateById(eq(key), any(AlbumUpdate.class), isNull());
+        doAnswer(invocation -> AlbumDTO.builder().title(invocation.<Album>getArgument(0).getTitle()).build())
+            .when(albumMapper).albumToAlbumDTO(any(Album.class), eq(Set.of()));
+
+        CompletableFuture<AlbumDTO> readBeforeUpdate = CompletableFuture.supplyAsync(() -> albumService.getAlbum(key, Set.of()));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        albumService.updateAlbum(key, AlbumPayloadDTO.builder().title("Views").build(), null);
+        AlbumDTO readAfterUpdate = albumService.getAlbum(key, Set.of());
+
+        release.countDown();
+        assertThat(readBeforeUpdate.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("Scorpion");
+        assertThat(readAfterUpdate.getTitle()).isEqualTo("Views");
+        assertThat(albumService.getAlbum(key, Set.of()).getTitle()).isEqualTo("Views");
+        verify(albumRepository, times(2)).findById(key);
+    }
+
+    @Test
+    void getAlbum_rejectsIdsRuledOutByIdFilter() {
+        doReturn(false)
+            .when(albumIdFilter).mightContain("99");
+
+        assertThatExceptionOfType(AlbumNotFoundException.class)
+            .isThrownBy(() -> albumService.getAlbum("99", Set.of()))
+            .withMessage("album 99 not found")
+            .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+
+        verifyNoInteractions(albumRepository);
+    }
+
+    @Test
+    void getAlbumVersion_readsCachedAlbumBeforeRepository() {
+        Album album = Album.builder().id("01").version(4).build();
+
+        doReturn(Optional.of(album))
+            .when(albumRepository).findById("01");
+
+        albumService.getAlbum("01", Set.of());
+
+        assertThat(albumService.getAlbumVersion("01")).isEqualTo(4);
+        verify(albumRepository, never()).findVersionById("01");
+    }
+
+    @Test
+    void getAlbumVersion_readsVersionOnlyGivenUncachedAlbum() {
+        doReturn(Optional.of(2L))
+            .when(albumRepository).findVersionById("01");
+
+        assertThat(albumService.getAlbumVersion("01")).isEqualTo(2);
+        verify(albumRepository, never()).findById("01");
+    }
+
+    @Test
+    void getAlbumVersion_albumNotFound() {
+        assertThatExceptionOfType(AlbumNotFoundException.class)
+            .isThrownBy(() -> albumService.getAlbumVersion("01"));
+    }
+
+    @Test
+    void getAlbum_reloadsAfterDelete() {
+        final String key = "01";
+        Album album = Album.builder().id(key).title("For All The Dogs").build();
+
+        doReturn(Optional.of(album), Optional.empty())
+            .when(albumRepository).findById(key);
+
+        albumService.getAlbum(key, Set.of());
+        albumService.deleteAlbum(key);
+
+        assertThatExceptionOfType(AlbumNotFoundException.class)
+            .isThrownBy(() -> albumService.getAlbum(key, Set.of()));
+        verify(albumRepository, times(2)).findById(key);
     }
 
     @Test
     void getAlbum_albumNotFound() {
         assertThatExceptionOfType(AlbumNotFoundException.class)
-            .isThrownBy(() -> albumService.getAlbum("01"));
+            .isThrownBy(() -> albumService.getAlbum("01", Set.of()));
     }
 
     private MockMultipartFile getMultipartCoverImage() throws IOException {
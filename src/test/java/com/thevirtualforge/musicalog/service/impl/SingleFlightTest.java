@@ -0,0 +1,107 @@
+package com.thevirtualforge.musicalog.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void execute_sharesInFlightCallForSameKey() throws Exception {
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("01", blockingLoader("album")));
+        awaitStats(new SingleFlight.Stats(1, 0));
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("01", blockingLoader("other")));
+        awaitStats(new SingleFlight.Stats(1, 1));
+
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("album");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("album");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void execute_doesNotShareCompletedCalls() {
+        release.countDown();
+
+        singleFlight.execute("01", blockingLoader("album"));
+        singleFlight.execute("01", blockingLoader("album"));
+
+        assertThat(loads).hasValue(2);
+        assertThat(singleFlight.getStats()).isEqualTo(new SingleFlight.Stats(2, 0));
+    }
+
+    @Test
+    void forget_startsFreshCallForLaterCallers() throws Exception {
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("01", blockingLoader("old")));
+        awaitStats(new SingleFlight.Stats(1, 0));
+
+        singleFlight.forget("01");
+
+        assertThat(singleFlight.execute("01", () -> "new")).isEqualTo("new");
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("old");
+        assertThat(singleFlight.getStats()).isEqualTo(new SingleFlight.Stats(2, 0));
+    }
+
+    @Test
+    void execute_propagatesFailureToCoalescedCallers() throws Exception {
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("01", () -> {
+            await();
+            throw new IllegalStateException("mongo unavailable");
+        }));
+        awaitStats(new SingleFlight.Stats(1, 0));
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("01", blockingLoader("album")));
+        awaitStats(new SingleFlight.Stats(1, 1));
+
+        release.countDown();
+
+        assertThat(leader).failsWithin(5, TimeUnit.SECONDS);
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> {
+                try {
+                    follower.join();
+                } catch (RuntimeException e) {
+                    throw e.getCause();
+                }
+            })
+            .withMessage("mongo unavailable");
+    }
+
+    private Supplier<String> blockingLoader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            await();
+            return value;
+        };
+    }
+
+    private void await() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitStats(SingleFlight.Stats expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!singleFlight.getStats().equals(expected)) {
+            assertThat(System.nanoTime()).as("stats reached %s", expected).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
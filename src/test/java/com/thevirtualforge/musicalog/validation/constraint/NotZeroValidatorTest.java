@@ -0,0 +1,19 @@
+package com.thevirtualforge.musicalog.validation.constraint;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotZeroValidatorTest {
+
+    private final NotZeroValidator validator = new NotZeroValidator();
+
+    @Test
+    void isValid() {
+        assertThat(validator.isValid(null, null)).isTrue();
+        assertThat(validator.isValid(1, null)).isTrue();
+        assertThat(validator.isValid(-1, null)).isTrue();
+        assertThat(validator.isValid(Integer.MIN_VALUE, null)).isTrue();
+        assertThat(validator.isValid(0, null)).isFalse();
+    }
+}